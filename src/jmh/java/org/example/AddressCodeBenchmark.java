@@ -0,0 +1,29 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AddressCodeUtil 基准：按名称查完整地址码、整体加载。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AddressCodeBenchmark {
+
+    @Benchmark
+    public String getFullAddressCode() {
+        return AddressCodeUtil.getFullAddressCode("广东省", "广州市", "天河区");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int load() {
+        AddressCodeUtil.load();
+        return AddressCodeUtil.PROVINCES.size();
+    }
+}
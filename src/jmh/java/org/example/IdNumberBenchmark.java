@@ -0,0 +1,41 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IdNumberUtil / IdNumberEncoder 基准：单条生成、校验码、生日格式化。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IdNumberBenchmark {
+    private final LocalDate birthDate = LocalDate.of(1990, 6, 15);
+    private final String base17 = "44010619900615123";
+    private final byte[] buf = new byte[18];
+
+    @Benchmark
+    public String generateIdNumber() {
+        return IdNumberUtil.generateIdNumber("440106", "19900615", true, null);
+    }
+
+    @Benchmark
+    public char calculateCheckCode() {
+        return IdNumberUtil.calculateCheckCode(base17);
+    }
+
+    @Benchmark
+    public String formatBirth() {
+        return IdNumberUtil.formatBirth(birthDate);
+    }
+
+    @Benchmark
+    public int encoderEncode() {
+        return IdNumberEncoder.encode(buf, 0, 440106, 19900615, 123);
+    }
+}
@@ -0,0 +1,27 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utils 基准：随机姓名与详细地址。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UtilsBenchmark {
+
+    @Benchmark
+    public String generateRandomName() {
+        return Utils.generateRandomName();
+    }
+
+    @Benchmark
+    public String generateDetailedAddress() {
+        return Utils.generateDetailedAddress("广东省", "广州市", "天河区");
+    }
+}
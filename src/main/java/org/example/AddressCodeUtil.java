@@ -3,116 +3,163 @@ package org.example;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.function.Function;
 
 /**
- * 地址码工具：仅从类路径加载 resources/output.json，并使用 Jackson 解析。
+ * 地址码工具：从类路径加载二进制快照 regions.bin，缺失时回退到用 Jackson 解析 resources/output.json。
  * 提供省/市/区三级联动查询方法，供界面组件调用。
+ * 数据以不可变的 RegionModel 快照保存在一个 volatile 引用中：load() 在旁路构建新快照后整体替换，
+ * 读取方只做一次 volatile 读，无需加锁，也不会看到清空或构建到一半的映射；加载失败时保留原快照。
  */
 public class AddressCodeUtil {
-    public static final Map<String, String> PROVINCES = new LinkedHashMap<>();            // 省code -> 省名
-    public static final Map<String, Map<String, String>> CITIES = new LinkedHashMap<>();  // 省code -> (市code -> 市名)
-    public static final Map<String, Map<String, String>> DISTRICTS = new LinkedHashMap<>(); // 市code -> (区code -> 区名)
+    public static final Map<String, String> PROVINCES = new ModelView<>(RegionModel::provinces);            // 省code -> 省名
+    public static final Map<String, Map<String, String>> CITIES = new ModelView<>(RegionModel::cities);  // 省code -> (市code -> 市名)
+    public static final Map<String, Map<String, String>> DISTRICTS = new ModelView<>(RegionModel::districts); // 市code -> (区code -> 区名)
+    private static volatile RegionModel model = RegionModel.EMPTY;
 
     static { load(); }
 
-    /** 仅从类路径读取 resources/output.json 并解析 */
+    /**
+     * 从类路径加载地址数据：优先读取构建期生成的二进制快照 regions.bin（见 RegionSnapshot），
+     * 快照缺失或损坏时回退到 Jackson 解析 resources/output.json。
+     * 解析失败时保留当前数据并在标准错误输出原因；首次加载即失败时为空数据，交由上层提示并退出。
+     */
     public static void load() {
-        PROVINCES.clear();
-        CITIES.clear();
-        DISTRICTS.clear();
-        try (InputStream is = AddressCodeUtil.class.getClassLoader().getResourceAsStream("output.json")) {
-            if (is == null) {
-                // 类路径未找到时保持空映射，交由上层提示并退出
-                return;
-            }
-            ObjectMapper mapper = new ObjectMapper();
-            Root root = mapper.readValue(is, Root.class);
-            if (root == null || root.provinces == null) return;
-            for (Province p : root.provinces) {
-                if (p == null || p.code == null) continue;
-                String pCode = p.code;
-                String pName = p.name == null ? pCode : p.name;
-                PROVINCES.put(pCode, pName);
-
-                Map<String, String> cityMap = new LinkedHashMap<>();
-                if (p.cities != null) {
-                    for (City c : p.cities) {
-                        if (c == null || c.code == null) continue;
-                        String cCode = c.code;
-                        String cName = c.name == null ? cCode : c.name;
-                        cityMap.put(cCode, cName);
-
-                        Map<String, String> distMap = new LinkedHashMap<>();
-                        if (c.districts != null) {
-                            for (District d : c.districts) {
-                                if (d == null || d.code == null) continue;
-                                distMap.put(d.code, d.name == null ? d.code : d.name);
-                            }
-                        }
-                        DISTRICTS.put(cCode, distMap);
-                    }
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0;
+        try {
+            Root root = RegionSnapshot.loadFromClasspath();
+            if (root == null) root = readJson();
+            // 类路径未找到时保持当前数据
+            if (root != null) model = RegionModel.build(root);
+        } catch (IOException | RuntimeException e) {
+            if (Metrics.ENABLED) Metrics.counter("region_load_errors", "地址数据加载失败次数").increment();
+            System.err.println("加载地址数据失败，沿用当前数据: " + e.getMessage());
+        }
+        if (Metrics.ENABLED) Metrics.timer("region_load", "地址数据加载耗时").stop(t0);
+    }
+
+    /**
+     * 从外部文件加载地址数据并原子替换当前快照：.bin 按 RegionSnapshot 格式内存映射读取，其余按 output.json 格式解析。
+     * @throws IOException 文件无法读取、格式错误或不含任何省份；此时当前数据保持不变
+     */
+    public static RegionModel load(Path file) throws IOException {
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0;
+        Root root;
+        RegionModel m;
+        try {
+            if (file.getFileName().toString().endsWith(".bin")) {
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                    root = RegionSnapshot.read(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+                }
+            } else {
+                try (InputStream is = Files.newInputStream(file)) {
+                    root = new ObjectMapper().readValue(is, Root.class);
                 }
-                CITIES.put(pCode, cityMap);
             }
-        } catch (Exception e) {
-            // 解析失败保持空映射
+            if (root == null) throw new IOException(file + ": 内容为空");
+            m = RegionModel.build(root);  // 结构不完整（如缺少代码）时抛出的异常同样按加载失败处理
+        } catch (IOException | RuntimeException e) {
+            if (Metrics.ENABLED) Metrics.counter("region_load_errors", "地址数据加载失败次数").increment();
+            throw e instanceof IOException ? (IOException) e : new IOException(file + ": " + e, e);
+        }
+        if (m.isEmpty()) {
+            if (Metrics.ENABLED) Metrics.counter("region_load_errors", "地址数据加载失败次数").increment();
+            throw new IOException(file + ": 不含任何省份");
         }
+        model = m;
+        if (Metrics.ENABLED) Metrics.timer("region_load", "地址数据加载耗时").stop(t0);
+        return m;
+    }
+
+    /** 用 Jackson 解析类路径上的 output.json；资源不存在时返回 null */
+    static Root readJson() throws IOException {
+        try (InputStream is = AddressCodeUtil.class.getClassLoader().getResourceAsStream("output.json")) {
+            if (is == null) return null;
+            return new ObjectMapper().readValue(is, Root.class);
+        }
+    }
+
+    /** 当前数据快照；需要多次查询且要求前后一致时，先取快照再在其上查询 */
+    public static RegionModel snapshot() {
+        return model;
+    }
+
+    /** 当前数据对应的紧凑区划索引（每次 load() 后重建） */
+    public static RegionIndex regionIndex() {
+        return model.index();
     }
 
     // --- 对外方法：供界面使用 ---
     public static List<String> getProvinceNames() {
-        return new ArrayList<>(PROVINCES.values());
+        return new ArrayList<>(model.provinces().values());
     }
 
+    /** 省名或简称（如“新疆”）查省code */
     public static String getProvinceCode(String provinceName) {
-        for (Map.Entry<String, String> e : PROVINCES.entrySet()) {
-            if (e.getValue().equals(provinceName)) return e.getKey();
-        }
-        return null;
+        return model.provinceCode(provinceName);
     }
 
     public static List<String> getCityNames(String provinceCode) {
-        Map<String, String> m = CITIES.get(provinceCode);
+        Map<String, String> m = model.cities().get(provinceCode);
         return m == null ? Collections.emptyList() : new ArrayList<>(m.values());
     }
 
     public static String getCityCode(String provinceCode, String cityName) {
-        Map<String, String> m = CITIES.get(provinceCode);
-        if (m != null) {
-            for (Map.Entry<String, String> e : m.entrySet()) {
-                if (e.getValue().equals(cityName)) return e.getKey();
-            }
-        }
-        return null;
+        return model.cityCode(provinceCode, cityName);
     }
 
     public static List<String> getDistrictNames(String cityCode) {
-        Map<String, String> m = DISTRICTS.get(cityCode);
+        Map<String, String> m = model.districts().get(cityCode);
         return m == null ? Collections.emptyList() : new ArrayList<>(m.values());
     }
 
     public static String getDistrictCode(String cityCode, String districtName) {
-        Map<String, String> m = DISTRICTS.get(cityCode);
-        if (m != null) {
-            for (Map.Entry<String, String> e : m.entrySet()) {
-                if (e.getValue().equals(districtName)) return e.getKey();
-            }
-        }
-        return null;
+        return model.districtCode(cityCode, districtName);
     }
 
     /** 获取完整地址码（优先区县，其次城市的前6位，最后省） */
     public static String getFullAddressCode(String provinceName, String cityName, String districtName) {
-        String p = getProvinceCode(provinceName);
+        RegionModel m = model;
+        String p = m.provinceCode(provinceName);
         if (p == null) return null;
-        String c = getCityCode(p, cityName);
+        String c = m.cityCode(p, cityName);
         if (c == null) return p;
-        String d = getDistrictCode(c, districtName);
+        String d = m.districtCode(c, districtName);
         return d != null ? d : (c.length() >= 6 ? c.substring(0, 6) : c);
     }
 
+    /**
+     * 按拼接后的完整名称查地址码，如“广东省广州市天河区”、“新疆乌鲁木齐市天山区”、“北京市东城区”（市辖区省略）。
+     * 无下辖区县的市可直接用“省名+市名”。
+     */
+    public static String getAddressCodeByPath(String fullPath) {
+        return model.addressCodeByPath(fullPath);
+    }
+
+    /** 兼容旧字段的只读视图：每次访问都转发到当前快照 */
+    private static final class ModelView<V> extends AbstractMap<String, V> {
+        private final Function<RegionModel, Map<String, V>> field;
+
+        ModelView(Function<RegionModel, Map<String, V>> field) {
+            this.field = field;
+        }
+
+        @Override public V get(Object key) { return field.apply(model).get(key); }
+        @Override public boolean containsKey(Object key) { return field.apply(model).containsKey(key); }
+        @Override public int size() { return field.apply(model).size(); }
+        @Override public boolean isEmpty() { return field.apply(model).isEmpty(); }
+        @Override public Set<Entry<String, V>> entrySet() { return field.apply(model).entrySet(); }
+        @Override public Collection<V> values() { return field.apply(model).values(); }
+        @Override public Set<String> keySet() { return field.apply(model).keySet(); }
+    }
+
     // --- Jackson 模型类 ---
     @JsonIgnoreProperties(ignoreUnknown = true)
     static class Root { public List<Province> provinces; }
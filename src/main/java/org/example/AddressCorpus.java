@@ -0,0 +1,182 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * 按频率加权的详细地址词表：分城市的街道表与小区名表。
+ * - 街道按市级区划代码分组，没有专门列表的城市使用通用列表（代码 000000）。
+ * - 详细地址格式与原实现一致：街道 + 门牌号 + “号” + 小区 + 楼栋 + “栋” + 单元 + “单元” + 房号 + “室”，
+ *   各段复制进 char 缓冲区，数字直接写入字符，不做字符串拼接。
+ * - 内置词表位于类路径 corpus/ 下；load(目录) 可用同名文件（streets.txt、communities.txt）替换。
+ *   streets.txt 每行 “市级代码,街道,权重”，communities.txt 每行 “小区,权重”，# 开头为注释。
+ */
+public final class AddressCorpus {
+    static final String STREETS = "streets.txt";
+    static final String COMMUNITIES = "communities.txt";
+
+    private static volatile AddressCorpus defaults;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[128]);
+
+    private final int[] cityCodes;                 // 有专门街道表的市级代码（升序）
+    private final WeightedStringPool[] cityStreets;
+    private final WeightedStringPool commonStreets;
+    private final WeightedStringPool communities;
+    private final int maxDetailLength;
+
+    AddressCorpus(int[] cityCodes, WeightedStringPool[] cityStreets, WeightedStringPool commonStreets, WeightedStringPool communities) {
+        this.cityCodes = cityCodes;
+        this.cityStreets = cityStreets;
+        this.commonStreets = commonStreets;
+        this.communities = communities;
+        int street = commonStreets.maxLength();
+        for (WeightedStringPool p : cityStreets) street = Math.max(street, p.maxLength());
+        // 门牌号 3 位 + 号 + 楼栋 2 位 + 栋 + 单元 1 位 + 单元 + 房号 2 位 + 室
+        this.maxDetailLength = street + communities.maxLength() + 13;
+    }
+
+    /** 内置词表 */
+    public static AddressCorpus defaults() {
+        AddressCorpus c = defaults;
+        if (c == null) {
+            try (Reader streets = resource(STREETS)) {
+                c = build(readStreets(streets), NameCorpus.resource(COMMUNITIES));
+            } catch (IOException e) {
+                throw new IllegalStateException("无法读取内置地址词表", e);
+            }
+            defaults = c;
+        }
+        return c;
+    }
+
+    /** 从目录加载词表，缺少的文件使用内置词表 */
+    public static AddressCorpus load(Path dir) throws IOException {
+        AddressCorpus base = defaults();
+        WeightedStringPool communities = NameCorpus.file(dir, COMMUNITIES, base.communities);
+        Path streets = dir.resolve(STREETS);
+        if (!Files.exists(streets)) return new AddressCorpus(base.cityCodes, base.cityStreets, base.commonStreets, communities);
+        try (Reader r = Files.newBufferedReader(streets, StandardCharsets.UTF_8)) {
+            return build(readStreets(r), communities);
+        } catch (IOException e) {
+            throw new IOException(streets + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Reader resource(String name) throws IOException {
+        InputStream is = AddressCorpus.class.getClassLoader().getResourceAsStream(NameCorpus.RESOURCE_DIR + name);
+        if (is == null) throw new IOException("找不到资源: " + NameCorpus.RESOURCE_DIR + name);
+        return new InputStreamReader(is, StandardCharsets.UTF_8);
+    }
+
+    /** 按市级代码分组读取街道表 */
+    static TreeMap<Integer, WeightedStringPool.Builder> readStreets(Reader reader) throws IOException {
+        TreeMap<Integer, WeightedStringPool.Builder> groups = new TreeMap<>();
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int no = 0;
+        while ((line = br.readLine()) != null) {
+            no++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split(",");
+            if (f.length != 3 || !f[0].trim().matches("\\d{6}") || f[1].isBlank()) {
+                throw new IOException("第 " + no + " 行应为 市级代码,街道,权重: " + line);
+            }
+            double weight;
+            try {
+                weight = Double.parseDouble(f[2].trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("第 " + no + " 行权重无效: " + line);
+            }
+            if (!(weight >= 0)) throw new IOException("第 " + no + " 行权重无效: " + line);
+            groups.computeIfAbsent(Integer.parseInt(f[0].trim()), k -> new WeightedStringPool.Builder()).add(f[1].trim(), weight);
+        }
+        if (!groups.containsKey(0)) throw new IOException("缺少通用街道列表（代码 000000）");
+        return groups;
+    }
+
+    private static AddressCorpus build(TreeMap<Integer, WeightedStringPool.Builder> streets, WeightedStringPool communities) {
+        WeightedStringPool common = streets.remove(0).build();
+        int[] codes = new int[streets.size()];
+        WeightedStringPool[] pools = new WeightedStringPool[streets.size()];
+        int i = 0;
+        for (var e : streets.entrySet()) {
+            codes[i] = e.getKey();
+            pools[i++] = e.getValue().build();
+        }
+        return new AddressCorpus(codes, pools, common, communities);
+    }
+
+    /** 详细地址部分（不含省市区）最多占用的字符数 */
+    public int maxDetailLength() {
+        return maxDetailLength;
+    }
+
+    /** 是否有该市的专门街道表 */
+    public boolean hasCityStreets(int cityCode) {
+        return Arrays.binarySearch(cityCodes, cityCode) >= 0;
+    }
+
+    /**
+     * 生成详细地址部分（街道至房号）写入 dst[pos...]。
+     * @param cityCode 市级区划代码，没有专门街道表时（含 0）使用通用列表
+     * @return 写入后的位置
+     */
+    public int detail(RandomGenerator random, int cityCode, char[] dst, int pos) {
+        int k = Arrays.binarySearch(cityCodes, cityCode);
+        pos = (k >= 0 ? cityStreets[k] : commonStreets).append(random, dst, pos);
+        pos = putInt(random.nextInt(999) + 1, dst, pos);
+        dst[pos++] = '号';
+        pos = communities.append(random, dst, pos);
+        pos = putInt(random.nextInt(99) + 1, dst, pos);
+        dst[pos++] = '栋';
+        pos = putInt(random.nextInt(8) + 1, dst, pos);
+        dst[pos++] = '单';
+        dst[pos++] = '元';
+        pos = putInt(random.nextInt(10) + 1, dst, pos);
+        dst[pos++] = '室';
+        return pos;
+    }
+
+    /** 省市区名称 + 详细地址 */
+    public String address(RandomGenerator random, int cityCode, String province, String city, String district) {
+        int need = len(province) + len(city) + len(district) + maxDetailLength;
+        char[] buf = BUFFER.get();
+        if (buf.length < need) {
+            buf = new char[need];
+            BUFFER.set(buf);
+        }
+        int pos = copy(province, buf, 0);
+        pos = copy(city, buf, pos);
+        pos = copy(district, buf, pos);
+        pos = detail(random, cityCode, buf, pos);
+        return new String(buf, 0, pos);
+    }
+
+    private static int len(String s) {
+        return s == null ? 4 : s.length(); // null 按 "null" 输出，与字符串拼接一致
+    }
+
+    private static int copy(String s, char[] dst, int pos) {
+        if (s == null) s = "null";
+        s.getChars(0, s.length(), dst, pos);
+        return pos + s.length();
+    }
+
+    /** 写出非负整数（不超过 999） */
+    private static int putInt(int v, char[] dst, int pos) {
+        if (v >= 100) dst[pos++] = (char) ('0' + v / 100);
+        if (v >= 10) dst[pos++] = (char) ('0' + v / 10 % 10);
+        dst[pos++] = (char) ('0' + v % 10);
+        return pos;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Walker/Vose 别名表：按任意非负权重抽取下标，构建 O(n)，每次抽取 O(1)。
+ * 每次抽取只消耗一个 64 位随机数：高 32 位选列，低 32 位与该列的阈值比较决定取本列还是别名。
+ */
+public final class AliasTable {
+    private final long[] threshold;  // 取本列的概率 × 2^32
+    private final int[] alias;
+
+    /**
+     * @param weights 非负权重，至少一个为正
+     * @throws IllegalArgumentException 权重为空、含负数/NaN 或全为 0
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) throw new IllegalArgumentException("权重不能为空");
+        double total = 0;
+        for (double w : weights) {
+            if (!(w >= 0) || Double.isInfinite(w)) throw new IllegalArgumentException("权重必须为非负有限数: " + w);
+            total += w;
+        }
+        if (total <= 0) throw new IllegalArgumentException("权重全为 0");
+        threshold = new long[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n], large = new int[n];
+        int ns = 0, nl = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) small[ns++] = i;
+            else large[nl++] = i;
+        }
+        while (ns > 0 && nl > 0) {
+            int s = small[--ns], l = large[nl - 1];
+            threshold[s] = toThreshold(scaled[s]);
+            alias[s] = l;
+            scaled[l] -= 1 - scaled[s];
+            if (scaled[l] < 1) {
+                nl--;
+                small[ns++] = l;
+            }
+        }
+        // 浮点误差残留的列概率视为 1
+        while (nl > 0) {
+            int l = large[--nl];
+            threshold[l] = 1L << 32;
+            alias[l] = l;
+        }
+        while (ns > 0) {
+            int s = small[--ns];
+            threshold[s] = 1L << 32;
+            alias[s] = s;
+        }
+    }
+
+    private static long toThreshold(double p) {
+        return Math.min(1L << 32, Math.max(0, Math.round(p * 4294967296.0)));
+    }
+
+    public int size() {
+        return alias.length;
+    }
+
+    /** 按权重抽取一个下标 */
+    public int sample(RandomGenerator random) {
+        long r = random.nextLong();
+        int i = (int) (((r >>> 32) * alias.length) >>> 32);
+        return (r & 0xFFFFFFFFL) < threshold[i] ? i : alias[i];
+    }
+}
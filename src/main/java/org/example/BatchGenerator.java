@@ -0,0 +1,369 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 无界面批量生成：按数量、地区前缀、出生日期区间和男性比例批量生成 18 位身份证号。
+ * - 地址码取自 AddressCodeUtil.regionIndex() 的区级条目（无下辖区县的市直接使用市级代码，与 getFullAddressCode 一致）。
+ * - 每条号码由 IdNumberEncoder 直接写入复用的 ASCII 字节缓冲区，校验码按 GB 11643 同步计算，不创建中间字符串。
+ * - 默认地址码与出生日期均匀抽取；weighted(PopulationModel, ...) 得到按人口分布（地区人口、年龄结构）加权的副本。
+ * - 所选地区涉及区划变更（见 RegionHistory）时先抽出生日期，再从该日期有效的地址码中抽取：
+ *   撤并前出生的号码使用当时的代码（如 1990 年出生于广州越秀一带可得 440102 东山区），新设区只用于设区之后。
+ * - 随机顺序码不保证唯一；需要整批无重复时使用 --unique（见 UniqueIdGenerator）。
+ * - excluding(ExclusionFilter) 得到跳过排除名单的副本：命中名单的号码整条重抽，不改变其余号码的分布。
+ * - 命令行默认用 ParallelBatchGenerator 多线程生成（-t 指定线程数），同一 --seed 的输出与线程数无关。
+ * - -f 指定格式（csv / jsonl / pgcopy / columnar）时输出含姓名、地址、有效期限的完整记录（RecordGenerator + RecordSink），--gzip 压缩。
+ * - 命令行：java org.example.BatchGenerator -n 1000000 -r 44,4501 --from 1980-01-01 --to 1995-12-31 --male-ratio 0.4 -o ids.txt
+ */
+public class BatchGenerator implements IdSource {
+    /** 每条记录的字节数：18 位号码 + 换行 */
+    public static final int LINE_LENGTH = 19;
+    /** 连续命中排除名单的重抽上限，超过说明名单几乎覆盖了所选号码空间 */
+    static final int MAX_REDRAWS = 1024;
+    /** 过滤排除名单时每批抽取的候选数（ExclusionFilter.retain 批量判断） */
+    private static final int CANDIDATE_BATCH = 256;
+
+    private final int[] addressCodes;
+    private final int[] birthDates;   // 区间内每一天的 yyyyMMdd
+    private final double maleRatio;
+    private final AliasTable addressWeights;  // null 表示均匀抽取
+    private final AliasTable birthWeights;
+    private final RegionHistory history;
+    private final RegionHistory.Timeline timeline;  // null 表示地址码与出生日期无关
+    private final AliasTable[] epochWeights;         // 加权时各时段的地址码别名表（null 表示均匀）
+    private final ExclusionFilter exclusion;         // null 表示不过滤
+    private final SplittableRandom random;
+    private final byte[] line = new byte[LINE_LENGTH];
+    private final long[] candidates;  // 已通过排除名单的候选（ExclusionFilter.pack 格式），仅过滤时分配
+    private final long[] candidateHashes;  // retain 的暂存数组，随候选数组一起分配、逐批复用
+    private final int[] candidateWords;
+    private int candidatePos, candidateEnd;
+
+    /** 共享地址码与日期表、使用独立随机源的副本（供并行生成的每个分块使用） */
+    private BatchGenerator(BatchGenerator template, SplittableRandom random) {
+        this(template, template.addressWeights, template.birthWeights, template.epochWeights, template.exclusion, random);
+    }
+
+    private BatchGenerator(BatchGenerator template, AliasTable addressWeights, AliasTable birthWeights,
+                           AliasTable[] epochWeights, ExclusionFilter exclusion, SplittableRandom random) {
+        this.addressCodes = template.addressCodes;
+        this.birthDates = template.birthDates;
+        this.maleRatio = template.maleRatio;
+        this.addressWeights = addressWeights;
+        this.birthWeights = birthWeights;
+        this.history = template.history;
+        this.timeline = template.timeline;
+        this.epochWeights = epochWeights;
+        this.exclusion = exclusion;
+        this.random = random;
+        this.candidates = exclusion == null ? null : new long[CANDIDATE_BATCH];
+        this.candidateHashes = exclusion == null ? null : new long[CANDIDATE_BATCH];
+        this.candidateWords = exclusion == null ? null : new int[CANDIDATE_BATCH];
+    }
+
+    /** 使用内置区划历史（RegionHistory.defaults()），参数含义见下 */
+    public BatchGenerator(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed) {
+        this(regionPrefixes, from, to, maleRatio, seed, RegionHistory.defaults());
+    }
+
+    /**
+     * @param regionPrefixes 地址码前缀（如 "44"、"4401"、"440106"），为 null/空表示全国
+     * @param from 出生日期起（含）
+     * @param to 出生日期止（含）
+     * @param maleRatio 男性比例 0~1
+     * @param seed 随机种子
+     * @param history 区划代码有效期，RegionHistory.NONE 表示只用当前代码、不区分出生日期
+     */
+    public BatchGenerator(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed,
+                          RegionHistory history) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("出生日期区间无效: " + from + " > " + to);
+        if (maleRatio < 0 || maleRatio > 1) throw new IllegalArgumentException("男性比例应在 0~1 之间: " + maleRatio);
+        this.addressCodes = collectAddressCodes(regionPrefixes);
+        if (addressCodes.length == 0) throw new IllegalArgumentException("没有匹配的地址码: " + regionPrefixes);
+        int days = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        this.birthDates = new int[days];
+        for (int i = 0; i < days; i++) {
+            birthDates[i] = IdNumberEncoder.toYmd(from.plusDays(i));
+        }
+        this.maleRatio = maleRatio;
+        this.addressWeights = null;
+        this.birthWeights = null;
+        this.history = history;
+        this.timeline = history.timeline(AddressCodeUtil.regionIndex(), addressCodes, regionPrefixes);
+        this.epochWeights = null;
+        this.exclusion = null;
+        this.random = new SplittableRandom(seed);
+        this.candidates = null;
+        this.candidateHashes = null;
+        this.candidateWords = null;
+    }
+
+    /**
+     * 按人口模型加权的副本：地址码与出生日期改用别名表抽取（每次 O(1)），随机源由本实例 split 派生。
+     * @param model 人口分布模型
+     * @param reference 计算年龄的参考日期（通常为今天）
+     * @throws IllegalArgumentException 所选地区或日期区间在模型中权重全为 0
+     */
+    public BatchGenerator weighted(PopulationModel model, LocalDate reference) {
+        RegionIndex regions = AddressCodeUtil.regionIndex();
+        double[] regionWeights = model.districtWeights(regions, addressCodes);
+        double[] dateWeights = model.birthDateWeights(birthDates, reference);
+        if (isAllZero(regionWeights)) throw new IllegalArgumentException("所选地区在人口模型中没有权重");
+        if (isAllZero(dateWeights)) throw new IllegalArgumentException("出生日期区间在人口模型中没有权重");
+        AliasTable[] epochs = null;
+        if (timeline != null) {
+            // 历史代码按其并入的当前代码取权重
+            int[] resolved = new int[timeline.codes.length];
+            for (int i = 0; i < resolved.length; i++) resolved[i] = regions.districtCode(history.resolve(regions, timeline.codes[i]));
+            double[] all = model.districtWeights(regions, resolved);
+            epochs = new AliasTable[timeline.starts.length];
+            for (int e = 0; e < epochs.length; e++) {
+                int[] m = timeline.members[e];
+                double[] w = new double[m.length];
+                for (int i = 0; i < m.length; i++) w[i] = all[m[i]];
+                epochs[e] = isAllZero(w) ? null : new AliasTable(w);
+            }
+        }
+        return new BatchGenerator(this, new AliasTable(regionWeights), new AliasTable(dateWeights), epochs, exclusion, random.split());
+    }
+
+    /**
+     * 跳过排除名单中号码的副本（保留加权设置），随机源由本实例 split 派生；filter 为 null 时取消过滤。
+     * 名单几乎覆盖所选号码空间时，next 连续重抽 MAX_REDRAWS 次仍命中会抛出 IllegalStateException。
+     */
+    public BatchGenerator excluding(ExclusionFilter filter) {
+        return new BatchGenerator(this, addressWeights, birthWeights, epochWeights, filter, random.split());
+    }
+
+    private static boolean isAllZero(double[] weights) {
+        for (double w : weights) if (w > 0) return false;
+        return true;
+    }
+
+    /** 从 AddressCodeUtil 的区划索引收集匹配前缀的 6 位地址码 */
+    static int[] collectAddressCodes(List<String> prefixes) {
+        return AddressCodeUtil.regionIndex().districtCodes(prefixes);
+    }
+
+    /** 以给定随机源派生一个生成器，表数据共享、随机状态独立 */
+    BatchGenerator fork(SplittableRandom random) {
+        return new BatchGenerator(this, random);
+    }
+
+    /** 可选地址码数量（当前代码） */
+    public int addressCount() {
+        return addressCodes.length;
+    }
+
+    /** 生成使用的区划历史 */
+    public RegionHistory history() {
+        return history;
+    }
+
+    @Override
+    public int next(byte[] dst, int off) {
+        if (exclusion == null) return next(random, dst, off);
+        if (candidatePos == candidateEnd) refill();
+        long p = candidates[candidatePos++];
+        return IdNumberEncoder.encode(dst, off, ExclusionFilter.packedAddress(p), ExclusionFilter.packedBirth(p), ExclusionFilter.packedSeq(p));
+    }
+
+    /** 按批抽取候选并交给排除名单批量筛选，直到至少留下一条 */
+    private void refill() {
+        for (int redraws = 0; ; redraws += CANDIDATE_BATCH) {
+            for (int i = 0; i < CANDIDATE_BATCH; i++) candidates[i] = timeline != null ? drawDated(random) : draw(random);
+            candidatePos = 0;
+            candidateEnd = exclusion.retain(candidates, CANDIDATE_BATCH, candidateHashes, candidateWords);
+            if (candidateEnd > 0) return;
+            if (redraws + CANDIDATE_BATCH >= MAX_REDRAWS) throw new IllegalStateException("连续 " + MAX_REDRAWS + " 次命中排除名单，所选号码空间可能已被排除");
+        }
+    }
+
+    /** 用给定随机源（而非自身随机状态）生成一条号码，写入 dst[off, off+18)；供按下标派生随机源的场景使用 */
+    int next(SplittableRandom random, byte[] dst, int off) {
+        for (int redraws = 0; ; redraws++) {
+            long drawn = timeline != null ? drawDated(random) : draw(random);
+            int address = ExclusionFilter.packedAddress(drawn), birth = ExclusionFilter.packedBirth(drawn), seq = ExclusionFilter.packedSeq(drawn);
+            if (exclusion == null || !exclusion.excludes(address, birth, seq)) {
+                return IdNumberEncoder.encode(dst, off, address, birth, seq);
+            }
+            if (redraws >= MAX_REDRAWS) throw new IllegalStateException("连续 " + MAX_REDRAWS + " 次命中排除名单，所选号码空间可能已被排除");
+        }
+    }
+
+    /** 抽取一组 (地址码, 出生日期, 顺序码)，按 ExclusionFilter.pack 打包 */
+    private long draw(SplittableRandom random) {
+        int address = addressCodes[addressWeights == null ? random.nextInt(addressCodes.length) : addressWeights.sample(random)];
+        int birth = birthDates[birthWeights == null ? random.nextInt(birthDates.length) : birthWeights.sample(random)];
+        return pack(address, birth, random);
+    }
+
+    /** 先抽出生日期，再从该日期所在时段的候选地址码中抽取 */
+    private long drawDated(SplittableRandom random) {
+        int birth = birthDates[birthWeights == null ? random.nextInt(birthDates.length) : birthWeights.sample(random)];
+        int e = timeline.epochOf(birth);
+        int[] m = timeline.members[e];
+        AliasTable w = epochWeights == null ? null : epochWeights[e];
+        int address = timeline.codes[m[w == null ? random.nextInt(m.length) : w.sample(random)]];
+        return pack(address, birth, random);
+    }
+
+    private long pack(int address, int birth, SplittableRandom random) {
+        int seq = random.nextInt(1000);
+        seq = random.nextDouble() < maleRatio ? (seq | 1) : (seq & ~1); // 奇数男、偶数女
+        return ExclusionFilter.pack(address, birth, seq);
+    }
+
+    /** 生成一条号码（字符串形式，便于少量调用） */
+    public String next() {
+        next(line, 0);
+        return new String(line, 0, 18, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 批量生成 count 条号码，每行一条写入 out（调用方负责关闭 out）。
+     * @return 实际写入条数
+     */
+    public long generate(long count, OutputStream out) throws IOException {
+        return writeLines(count, out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        long count = 10;
+        List<String> prefixes = new ArrayList<>();
+        LocalDate from = LocalDate.of(1950, 1, 1);
+        LocalDate to = LocalDate.now().minusYears(18);
+        double maleRatio = 0.5;
+        long seed = System.nanoTime();
+        String outPath = null;
+        boolean unique = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean threadsGiven = false;
+        String format = null;
+        boolean gzip = false;
+        boolean weighted = false;
+        String regionWeights = null, ageWeights = null;
+        String regionsFile = null;
+        String historyFile = null;
+        String excludeFile = null;
+        String corpusDir = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-n": case "--count": count = Long.parseLong(args[++i]); break;
+                    case "-r": case "--region":
+                        for (String p : args[++i].split(",")) if (!p.isBlank()) prefixes.add(p.trim());
+                        break;
+                    case "--from": from = LocalDate.parse(args[++i]); break;
+                    case "--to": to = LocalDate.parse(args[++i]); break;
+                    case "--male-ratio": maleRatio = Double.parseDouble(args[++i]); break;
+                    case "--seed": seed = Long.parseLong(args[++i]); break;
+                    case "-o": case "--out": outPath = args[++i]; break;
+                    case "--unique": unique = true; break;
+                    case "-t": case "--threads": threads = Integer.parseInt(args[++i]); threadsGiven = true; break;
+                    case "-f": case "--format":
+                        format = args[++i];
+                        if (!RecordSink.FORMATS.contains(format)) throw new IllegalArgumentException("未知输出格式: " + format + "，可选 " + RecordSink.FORMATS);
+                        break;
+                    case "--gzip": gzip = true; break;
+                    case "--weighted": weighted = true; break;
+                    case "--region-weights": regionWeights = args[++i]; weighted = true; break;
+                    case "--age-weights": ageWeights = args[++i]; weighted = true; break;
+                    case "--regions": regionsFile = args[++i]; break;
+                    case "--history": historyFile = args[++i]; break;
+                    case "--exclude": excludeFile = args[++i]; break;
+                    case "--corpus-dir": corpusDir = args[++i]; break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i]);
+                }
+            }
+            if (unique && format != null) throw new IllegalArgumentException("--unique 仅支持只输出号码，不能与 -f 同时使用");
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("用法: java org.example.BatchGenerator [-n 数量] [-r 地区前缀,...] [--from yyyy-MM-dd] [--to yyyy-MM-dd]"
+                    + " [--male-ratio 0.5] [--seed 种子] [--unique] [-t 线程数] [-f csv|jsonl|pgcopy|columnar] [--gzip]"
+                    + " [--weighted] [--region-weights 文件] [--age-weights 文件] [--regions 区划文件] [--history 历史文件|none] [--exclude 排除名单] [--corpus-dir 词表目录] [-o 输出文件]");
+            System.exit(2);
+            return;
+        }
+        if (regionsFile != null) {
+            try {
+                AddressCodeUtil.load(Paths.get(regionsFile));
+            } catch (IOException e) {
+                System.err.println("未能加载区划文件: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (AddressCodeUtil.PROVINCES.isEmpty()) {
+            System.err.println("未能加载地址数据，请检查 resources/output.json");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        BatchGenerator template;
+        ExclusionFilter exclusion = null;
+        NameCorpus names = NameCorpus.defaults();
+        AddressCorpus addresses = AddressCorpus.defaults();
+        try {
+            RegionHistory history = historyFile == null ? RegionHistory.defaults()
+                    : "none".equals(historyFile) ? RegionHistory.NONE : RegionHistory.load(Paths.get(historyFile));
+            template = new BatchGenerator(prefixes, from, to, maleRatio, seed, history);
+            if (weighted) {
+                PopulationModel model = PopulationModel.load(regionWeights == null ? null : Paths.get(regionWeights),
+                        ageWeights == null ? null : Paths.get(ageWeights));
+                template = template.weighted(model, LocalDate.now());
+            }
+            if (excludeFile != null) {
+                exclusion = ExclusionFilter.load(Paths.get(excludeFile));
+                template = template.excluding(exclusion);
+            }
+            if (corpusDir != null) {
+                Path dir = Paths.get(corpusDir);
+                if (!Files.isDirectory(dir)) throw new IOException("词表目录不存在: " + dir);
+                if (format == null) System.err.println("警告: --corpus-dir 只用于 -f 输出的完整记录，只输出号码时忽略");
+                names = NameCorpus.load(dir);
+                addresses = AddressCorpus.load(dir);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (format != null) {
+            // 完整记录（姓名、地址、有效期限）单线程生成，经 RecordSink 写出
+            if (threadsGiven) System.err.println("警告: -f 输出完整记录时单线程生成，忽略 -t");
+            RecordGenerator records = new RecordGenerator(template, seed, names, addresses);
+            try (RecordSink sink = outPath == null ? RecordSink.open(format, System.out, gzip)
+                    : RecordSink.open(format, Paths.get(outPath), gzip)) {
+                records.writeTo(sink, count);
+            }
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.err.printf("完成: %d 条记录, 用时 %.2f s, %.0f 条/秒%n", count, secs, count / Math.max(secs, 1e-9));
+            return;
+        }
+        OutputStream out = outPath == null ? System.out : Files.newOutputStream(Paths.get(outPath));
+        try (OutputStream os = new BufferedOutputStream(out, 1 << 16)) {
+            if (unique) {
+                // 唯一模式依赖按序取用的置换下标，单线程生成；号码空间均匀置换，不支持加权
+                if (weighted) System.err.println("警告: --unique 模式忽略人口加权");
+                UniqueIdGenerator u = new UniqueIdGenerator(prefixes, from, to, maleRatio, seed, exclusion, template.history());
+                if (count > u.capacity()) {
+                    System.err.println("警告: 数量超过单一性别号码空间 " + u.capacity() + "，可能提前耗尽");
+                }
+                u.writeLines(count, os);
+            } else {
+                new ParallelBatchGenerator(template, threads).generate(count, seed, os);
+            }
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.err.printf("完成: %d 条, 用时 %.2f s, %.0f 条/秒%n", count, secs, count / Math.max(secs, 1e-9));
+    }
+}
@@ -0,0 +1,370 @@
+package org.example;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 批量生成面板（Main 的“批量生成”页）。
+ * - 生成与导出都在 SwingWorker 后台线程执行，进度条显示进度，“取消”随时停止；EDT 只负责刷新表格行数与状态。
+ *   取消后等后台线程真正退出（见 PanelTask）才重新启用按钮，旧任务不会与新任务同时写同一文件。
+ * - 号码存放在 IdBatchStore（每条 18 字节），表格模型 RecordTableModel 按行号即时读取：
+ *   JTable 只请求可见行，姓名、住址、有效期限由 IdentityRecords 按下标现算，百万行预览不创建百万个对象。
+ * - 地区取自步骤 1 的选择，可放宽到所选城市、省份或全国；出生年份区间与性别在本面板设置。
+ * - 导出按扩展名选择格式：.txt 仅号码，.csv / .jsonl / .pgcopy / .columnar 为完整记录（RecordSink），再加 .gz 时压缩。
+ */
+public class BatchPanel extends JPanel {
+    static final String[] SCOPES = {"所选区县", "所选城市", "所选省份", "全国"};
+    private static final int[] SCOPE_DIGITS = {6, 4, 2, 0};
+
+    private final RegionSelectorPanel regionSelector;
+    private final JComboBox<String> scopeCombo = new JComboBox<>(SCOPES);
+    private final JSpinner fromYear = new JSpinner(new SpinnerNumberModel(1960, 1900, 2099, 1));
+    private final JSpinner toYear = new JSpinner(new SpinnerNumberModel(2005, 1900, 2099, 1));
+    private final JComboBox<String> genderCombo = new JComboBox<>(new String[]{"随机", "男", "女"});
+    private final JSpinner countSpinner = new JSpinner(new SpinnerNumberModel(100_000, 1, 10_000_000, 10_000));
+    private final JButton generateButton = new JButton("批量生成");
+    private final JButton cancelButton = new JButton("取消");
+    private final JButton exportButton = new JButton("导出…");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final RecordTableModel model = new RecordTableModel();
+    private IdBatchStore store;
+    private PanelTask<?> task;
+
+    public BatchPanel(RegionSelectorPanel regionSelector) {
+        super(new BorderLayout(0, 8));
+        this.regionSelector = regionSelector;
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        JPanel options = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        options.add(new JLabel("地区："));
+        options.add(scopeCombo);
+        options.add(new JLabel("出生年份："));
+        fromYear.setEditor(new JSpinner.NumberEditor(fromYear, "#"));
+        toYear.setEditor(new JSpinner.NumberEditor(toYear, "#"));
+        options.add(fromYear);
+        options.add(new JLabel("至"));
+        options.add(toYear);
+        options.add(new JLabel("性别："));
+        options.add(genderCombo);
+        options.add(new JLabel("条数："));
+        options.add(countSpinner);
+
+        JPanel actions = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        cancelButton.setEnabled(false);
+        exportButton.setEnabled(false);
+        progressBar.setStringPainted(true);
+        actions.add(generateButton);
+        actions.add(cancelButton);
+        actions.add(exportButton);
+        actions.add(progressBar);
+        actions.add(statusLabel);
+
+        JPanel top = new JPanel(new GridLayout(2, 1, 0, 6));
+        top.add(options);
+        top.add(actions);
+        add(top, BorderLayout.NORTH);
+
+        JTable table = new JTable(model);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        int[] widths = {70, 170, 70, 40, 90, 380, 170};
+        for (int i = 0; i < widths.length; i++) table.getColumnModel().getColumn(i).setPreferredWidth(widths[i]);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        generateButton.addActionListener(e -> startGenerate());
+        cancelButton.addActionListener(e -> {
+            if (task != null && task.cancel(false)) cancelButton.setEnabled(false);
+        });
+        exportButton.addActionListener(e -> chooseExport());
+    }
+
+    /** 按当前选择创建记录来源；地区无效时返回 null 并提示 */
+    private IdentityRecords newRecords() {
+        List<String> prefixes = Collections.emptyList();
+        int digits = SCOPE_DIGITS[scopeCombo.getSelectedIndex()];
+        if (digits > 0) {
+            String code = AddressCodeUtil.getFullAddressCode(regionSelector.getProvinceName(),
+                    regionSelector.getCityName(), regionSelector.getDistrictName());
+            if (code == null || code.length() < digits) {
+                JOptionPane.showMessageDialog(this, "请先在“单个生成”页选择省、市", "缺少地址", JOptionPane.WARNING_MESSAGE);
+                return null;
+            }
+            prefixes = List.of(code.substring(0, digits));
+        }
+        int from = (Integer) fromYear.getValue(), to = (Integer) toYear.getValue();
+        if (from > to) {
+            JOptionPane.showMessageDialog(this, "出生年份区间无效", "参数错误", JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        double maleRatio = new double[]{0.5, 1, 0}[genderCombo.getSelectedIndex()];
+        return new IdentityRecords(prefixes, LocalDate.of(from, 1, 1), LocalDate.of(to, 12, 31), maleRatio,
+                ThreadLocalRandom.current().nextLong());
+    }
+
+    private void startGenerate() {
+        IdentityRecords records;
+        try {
+            records = newRecords();
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "参数错误", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (records == null) return;
+        store = new IdBatchStore(records, ((Number) countSpinner.getValue()).longValue());
+        model.setStore(store);
+        start(new GenerateTask(store), "正在生成…");
+    }
+
+    private void chooseExport() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("导出（扩展名 .txt / .csv / .jsonl / .pgcopy / .columnar，可再加 .gz）");
+        chooser.setSelectedFile(new File("ids.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        String format = formatOf(file);
+        if (format == null) {
+            JOptionPane.showMessageDialog(this, "无法从扩展名判断格式: " + file.getFileName(), "导出", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        start(new ExportTask(store, store.size(), file, format), "正在导出…");
+    }
+
+    /** 由文件名推断导出格式（txt 或 RecordSink 的格式名），无法识别时为 null */
+    static String formatOf(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".gz")) name = name.substring(0, name.length() - 3);
+        int dot = name.lastIndexOf('.');
+        String ext = dot < 0 ? "" : name.substring(dot + 1);
+        if ("txt".equals(ext) || RecordSink.FORMATS.contains(ext)) return ext;
+        return null;
+    }
+
+    private void start(PanelTask<?> t, String status) {
+        task = t;
+        generateButton.setEnabled(false);
+        exportButton.setEnabled(false);
+        cancelButton.setEnabled(true);
+        progressBar.setValue(0);
+        statusLabel.setText(status);
+        t.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) progressBar.setValue((Integer) e.getNewValue());
+        });
+        t.execute();
+    }
+
+    private void finish(String status) {
+        task = null;
+        generateButton.setEnabled(true);
+        cancelButton.setEnabled(false);
+        exportButton.setEnabled(store != null && store.size() > 0);
+        statusLabel.setText(status);
+    }
+
+    /**
+     * 面板的后台任务。cancel 后 SwingWorker 立即在 EDT 调用 done()，此时 doInBackground 可能仍在写；
+     * 这里等 done() 与后台线程退出都发生后才在 EDT 调用 finished()，在此之前按钮保持禁用。
+     */
+    abstract class PanelTask<V> extends SwingWorker<Long, V> {
+        private volatile boolean started;
+        private boolean ended, doneCalled, finished;  // 只在 EDT 访问
+
+        @Override
+        protected final Long doInBackground() throws Exception {
+            started = true;
+            try {
+                return isCancelled() ? 0L : work();  // 开始前已取消时不做任何事（done() 已视为结束）
+            } finally {
+                SwingUtilities.invokeLater(() -> {
+                    ended = true;
+                    settle();
+                });
+            }
+        }
+
+        @Override
+        protected final void done() {
+            doneCalled = true;
+            if (!started) ended = true;  // 未开始即取消：之后即使开始也立即返回
+            if (!ended) statusLabel.setText("正在取消…");
+            settle();
+        }
+
+        private void settle() {
+            if (!ended || !doneCalled || finished) return;
+            finished = true;
+            finished();
+        }
+
+        /** 后台工作，取消时应尽快返回 */
+        abstract Long work() throws Exception;
+
+        /** 后台线程已退出，在 EDT 调用；是否取消见 isCancelled() */
+        abstract void finished();
+    }
+
+    /** 逐页填充 IdBatchStore，每页完成后把行数交给 EDT 刷新表格 */
+    final class GenerateTask extends PanelTask<Long> {
+        private final IdBatchStore target;
+        private final long start = System.nanoTime();
+
+        GenerateTask(IdBatchStore target) {
+            this.target = target;
+        }
+
+        @Override
+        Long work() {
+            while (!isCancelled() && target.fillPage() > 0) {
+                publish(target.size());
+                setProgress((int) (target.size() * 100 / target.capacity()));
+            }
+            return target.size();
+        }
+
+        @Override
+        protected void process(List<Long> sizes) {
+            if (store == target) model.showRows(sizes.get(sizes.size() - 1));
+        }
+
+        @Override
+        void finished() {
+            model.showRows(target.size());
+            double secs = (System.nanoTime() - start) / 1e9;
+            finish(String.format("%s %,d 条，用时 %.2f s", isCancelled() ? "已取消，保留" : "已生成", target.size(), secs));
+        }
+    }
+
+    /** 把前 rows 行写入文件；取消或失败时删除未写完的文件 */
+    final class ExportTask extends PanelTask<Void> {
+        private final IdBatchStore source;
+        private final long rows;
+        private final Path file;
+        private final String format;
+
+        ExportTask(IdBatchStore source, long rows, Path file, String format) {
+            this.source = source;
+            this.rows = rows;
+            this.file = file;
+            this.format = format;
+        }
+
+        @Override
+        Long work() throws IOException {
+            boolean gzip = file.getFileName().toString().endsWith(".gz");
+            long step = IdBatchStore.PAGE_ROWS;
+            if ("txt".equals(format)) {
+                try (OutputStream out = gzip ? new GZIPOutputStream(Files.newOutputStream(file), 1 << 16)
+                        : new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                    for (long r = 0; r < rows && !isCancelled(); r += step) {
+                        source.writeLines(r, Math.min(rows, r + step), out);
+                        setProgress((int) (Math.min(rows, r + step) * 100 / rows));
+                    }
+                }
+            } else {
+                IdentityRecords records = source.records();
+                try (RecordSink sink = RecordSink.open(format, file, gzip)) {
+                    for (long r = 0; r < rows && !isCancelled(); r++) {
+                        sink.write(records.get(r));
+                        if ((r + 1) % step == 0) setProgress((int) ((r + 1) * 100 / rows));
+                    }
+                }
+            }
+            if (isCancelled()) Files.deleteIfExists(file);
+            return rows;
+        }
+
+        @Override
+        void finished() {
+            if (isCancelled()) {
+                finish("已取消导出");
+                return;
+            }
+            try {
+                get();
+                progressBar.setValue(100);
+                finish(String.format("已导出 %,d 条到 %s", rows, file));
+            } catch (InterruptedException | ExecutionException e) {
+                finish("导出失败");
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // 保留失败文件，错误已提示
+                }
+                JOptionPane.showMessageDialog(BatchPanel.this, "导出失败: " + cause.getMessage(), "导出", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * 虚拟表格模型：行数即已生成条数，单元格按行号从 IdBatchStore / IdentityRecords 读取。
+     * 最近访问的记录按行号直接映射缓存（256 槽），同一可见行重绘时不重复计算姓名与住址。
+     */
+    static final class RecordTableModel extends AbstractTableModel {
+        static final String[] COLUMNS = {"序号", "身份证号", "姓名", "性别", "出生日期", "住址", "有效期限"};
+        private static final int CACHE = 256;
+
+        private IdBatchStore store;
+        private int rows;
+        private final long[] cachedRow = new long[CACHE];
+        private final IdentityRecord[] cached = new IdentityRecord[CACHE];
+
+        void setStore(IdBatchStore store) {
+            this.store = store;
+            Arrays.fill(cached, null);
+            rows = 0;
+            fireTableDataChanged();
+        }
+
+        /** 显示前 n 行（n 不超过已生成条数） */
+        void showRows(long n) {
+            int to = (int) Math.min(n, Integer.MAX_VALUE);
+            if (to <= rows) return;
+            int from = rows;
+            rows = to;
+            fireTableRowsInserted(from, to - 1);
+        }
+
+        @Override public int getRowCount() { return rows; }
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int column) { return COLUMNS[column]; }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            switch (column) {
+                case 0: return row + 1;
+                case 1: return store.id(row);
+                case 2: return record(row).getName();
+                case 3: return store.isMale(row) ? "男" : "女";
+                case 4: {
+                    int ymd = store.birthYmd(row);
+                    return String.format("%04d-%02d-%02d", ymd / 10000, ymd / 100 % 100, ymd % 100);
+                }
+                case 5: return record(row).getAddress();
+                default: return record(row).getValidPeriod();
+            }
+        }
+
+        private IdentityRecord record(int row) {
+            int slot = row & (CACHE - 1);
+            if (cached[slot] == null || cachedRow[slot] != row) {
+                cached[slot] = store.records().get(row);
+                cachedRow[slot] = row;
+            }
+            return cached[slot];
+        }
+    }
+}
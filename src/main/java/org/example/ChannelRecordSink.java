@@ -0,0 +1,67 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 文本类 RecordSink 的公共部分：缓冲、UTF-8 编码与按字符转义由 Utf8ChannelWriter 完成，
+ * 子类在 writeRecord 中按格式调用 putAscii / putText 等，或直接写入 buf。
+ */
+abstract class ChannelRecordSink implements RecordSink {
+    private final Utf8ChannelWriter out;
+    final ByteBuffer buf;
+    private long count;
+    private boolean closed;
+
+    ChannelRecordSink(WritableByteChannel channel, String[] escapes) {
+        this.out = new Utf8ChannelWriter(channel, escapes);
+        this.buf = out.buf;
+    }
+
+    @Override
+    public final void write(IdentityRecord record) throws IOException {
+        writeRecord(record);
+        count++;
+    }
+
+    abstract void writeRecord(IdentityRecord record) throws IOException;
+
+    @Override
+    public long count() {
+        return count;
+    }
+
+    /** 保证缓冲区至少还有 n 字节（n 不超过 BUFFER_SIZE） */
+    final void ensure(int n) throws IOException {
+        out.ensure(n);
+    }
+
+    final void putAscii(String s) throws IOException {
+        out.putAscii(s);
+    }
+
+    final void putBytes(byte[] b, int off, int len) throws IOException {
+        out.putBytes(b, off, len);
+    }
+
+    /** 按转义表输出字符串 */
+    final void putText(String s) throws IOException {
+        out.putText(s);
+    }
+
+    /** 写出收尾内容（默认无） */
+    void finish() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+}
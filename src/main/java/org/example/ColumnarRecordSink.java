@@ -0,0 +1,175 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * 分组列存二进制格式（思路同 Parquet 的 row group，不含压缩与统计信息；需要压缩时整体 gzip）。
+ * 记录先按列暂存，满 rowGroupSize 条后整组写出。格式（大端）：
+ * <pre>
+ * int 魔数 'IDCB'，int 版本，int 列数
+ *   每列：byte 类型（0 = 定长 18 字节 ASCII，1 = 变长 UTF-8），u16 名称字节数 + UTF-8 名称
+ * 行组（重复）：int 行数 n
+ *   每列：int 字节数，随后内容
+ *     定长列：n × 18 字节
+ *     变长列：int 结束偏移[n]（相对本列数据起点），随后数据
+ * int 0（结束标记），long 总行数
+ * </pre>
+ * 列依次为 id、name、address、valid_period；null 按空字符串存储。
+ */
+public class ColumnarRecordSink extends ChannelRecordSink {
+    public static final int DEFAULT_ROW_GROUP = 1 << 16;
+    private static final int MAGIC = 0x49444342; // "IDCB"
+    private static final int VERSION = 1;
+    private static final String[] COLUMNS = {"id", "name", "address", "valid_period"};
+    private static final int ID_LENGTH = IdNumberEncoder.LENGTH;
+
+    private final int rowGroupSize;
+    private final byte[] ids;
+    private final int[][] ends = new int[3][];
+    private final byte[][] data = new byte[3][];
+    private int rows;
+    private long total;
+
+    public ColumnarRecordSink(WritableByteChannel channel) throws IOException {
+        this(channel, DEFAULT_ROW_GROUP);
+    }
+
+    public ColumnarRecordSink(WritableByteChannel channel, int rowGroupSize) throws IOException {
+        super(channel, new String[128]);
+        if (rowGroupSize < 1) throw new IllegalArgumentException("行组大小必须为正: " + rowGroupSize);
+        this.rowGroupSize = rowGroupSize;
+        this.ids = new byte[rowGroupSize * ID_LENGTH];
+        for (int c = 0; c < 3; c++) {
+            ends[c] = new int[rowGroupSize];
+            data[c] = new byte[rowGroupSize * 16];
+        }
+        ensure(12);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(COLUMNS.length);
+        for (int c = 0; c < COLUMNS.length; c++) {
+            byte[] name = COLUMNS[c].getBytes(StandardCharsets.UTF_8);
+            ensure(3 + name.length);
+            buf.put((byte) (c == 0 ? 0 : 1)).putShort((short) name.length).put(name);
+        }
+    }
+
+    @Override
+    void writeRecord(IdentityRecord r) throws IOException {
+        String id = r.getId();
+        if (id == null || id.length() != ID_LENGTH) throw new IllegalArgumentException("号码不是 18 位: " + id);
+        int p = rows * ID_LENGTH;
+        for (int i = 0; i < ID_LENGTH; i++) ids[p + i] = (byte) id.charAt(i);
+        append(0, r.getName());
+        append(1, r.getAddress());
+        append(2, r.getValidPeriod());
+        if (++rows == rowGroupSize) flushGroup();
+    }
+
+    private void append(int column, String s) {
+        int start = rows == 0 ? 0 : ends[column][rows - 1];
+        int len = s == null ? 0 : s.length();
+        byte[] d = data[column];
+        if (d.length - start < len * 3) data[column] = d = Arrays.copyOf(d, Math.max(d.length * 2, start + len * 3));
+        ends[column][rows] = len == 0 ? start : encodeUtf8(s, d, start);
+    }
+
+    /** 把 s 以 UTF-8 写入 dst[pos...]（dst 至少留出 3 × 长度的空间） */
+    static int encodeUtf8(String s, byte[] dst, int pos) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                dst[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[pos++] = (byte) (0xC0 | c >> 6);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dst[pos++] = (byte) (0xF0 | cp >> 18);
+                dst[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                dst[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                dst[pos++] = '?';
+            } else {
+                dst[pos++] = (byte) (0xE0 | c >> 12);
+                dst[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                dst[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return pos;
+    }
+
+    private void flushGroup() throws IOException {
+        if (rows == 0) return;
+        ensure(8);
+        buf.putInt(rows).putInt(rows * ID_LENGTH);
+        putBytes(ids, 0, rows * ID_LENGTH);
+        for (int c = 0; c < 3; c++) {
+            int bytes = ends[c][rows - 1];
+            ensure(4);
+            buf.putInt(rows * 4 + bytes);
+            for (int i = 0; i < rows; i++) {
+                ensure(4);
+                buf.putInt(ends[c][i]);
+            }
+            putBytes(data[c], 0, bytes);
+        }
+        total += rows;
+        rows = 0;
+    }
+
+    @Override
+    void finish() throws IOException {
+        flushGroup();
+        ensure(12);
+        buf.putInt(0).putLong(total);
+    }
+
+    /**
+     * 读取列存文件，逐条交给 consumer。
+     * @return 记录条数
+     */
+    public static long read(InputStream in, Consumer<IdentityRecord> consumer) throws IOException {
+        DataInputStream din = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (din.readInt() != MAGIC) throw new IOException("不是列存记录文件");
+        int version = din.readInt();
+        if (version != VERSION) throw new IOException("不支持的版本: " + version);
+        int columns = din.readInt();
+        if (columns != COLUMNS.length) throw new IOException("列数不符: " + columns);
+        for (int c = 0; c < columns; c++) {
+            din.readByte();
+            din.skipNBytes(din.readUnsignedShort());
+        }
+        long count = 0;
+        int n;
+        while ((n = din.readInt()) > 0) {
+            byte[] idBytes = new byte[din.readInt()];
+            din.readFully(idBytes);
+            String[][] values = new String[3][n];
+            for (int c = 0; c < 3; c++) {
+                din.readInt();
+                int[] colEnds = new int[n];
+                for (int i = 0; i < n; i++) colEnds[i] = din.readInt();
+                byte[] bytes = new byte[n == 0 ? 0 : colEnds[n - 1]];
+                din.readFully(bytes);
+                for (int i = 0, start = 0; i < n; start = colEnds[i++]) {
+                    values[c][i] = new String(bytes, start, colEnds[i] - start, StandardCharsets.UTF_8);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                String id = new String(idBytes, i * ID_LENGTH, ID_LENGTH, StandardCharsets.US_ASCII);
+                consumer.accept(new IdentityRecord(id, values[0][i], values[1][i], values[2][i]));
+            }
+            count += n;
+        }
+        long total = din.readLong();
+        if (total != count) throw new IOException("记录数不符: " + count + " / " + total);
+        return count;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * CSV 输出（RFC 4180）：首行表头 id,name,address,valid_period，含逗号、引号或换行的字段加双引号并把引号写两遍。
+ */
+public class CsvRecordSink extends ChannelRecordSink {
+    static final String[] ESCAPES = new String[128];
+    static {
+        ESCAPES['"'] = "\"\"";
+    }
+
+    public CsvRecordSink(WritableByteChannel channel) throws IOException {
+        super(channel, ESCAPES);
+        putAscii("id,name,address,valid_period\n");
+    }
+
+    @Override
+    void writeRecord(IdentityRecord r) throws IOException {
+        field(r.getId());
+        buf.put((byte) ',');
+        field(r.getName());
+        buf.put((byte) ',');
+        field(r.getAddress());
+        buf.put((byte) ',');
+        field(r.getValidPeriod());
+        buf.put((byte) '\n');
+    }
+
+    /** 写出字段，之后保证还有 1 字节空间给分隔符 */
+    private void field(String s) throws IOException {
+        if (s == null) s = "";
+        if (needsQuote(s)) {
+            putAscii("\"");
+            putText(s);
+            putAscii("\"");
+        } else {
+            putText(s);
+        }
+        ensure(1);
+    }
+
+    private static boolean needsQuote(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
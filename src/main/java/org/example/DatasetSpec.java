@@ -0,0 +1,221 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 数据集描述（JSON）：声明要生成的字段、地区/年龄/性别约束与家庭分组，compile() 后得到 GenerationPlan。
+ * <pre>
+ * {
+ *   "count": 100000,                       // 人数，默认 10
+ *   "seed": 42,                            // 省略时每次不同
+ *   "format": "csv",                       // csv / jsonl
+ *   "fields": ["household", "id", "name", "gender", "birthDate", "address", "validPeriod"],
+ *   "regions": ["44"],                     // 地址码前缀，省略为全国
+ *   "birth": {"from": "1980-01-01", "to": "1995-12-31"},   // 或 "age": {"min": 18, "max": 60}
+ *   "femaleRatio": 0.6,                    // 或 "maleRatio"，默认 0.5
+ *   "weighted": false,                     // 按内置人口分布抽取地区与出生日期
+ *   "household": {"minSize": 1, "maxSize": 4, "shareSurname": true},  // 或 {"size": 3}
+ *   "corpus": "corpus/"                    // 姓名与地址词表目录（见 NameCorpus.load），相对路径以描述文件所在目录为准
+ * }
+ * </pre>
+ * 未知的键、字段名或取值不合法时抛出 IllegalArgumentException（说明哪一项），JSON 语法错误或词表读取失败抛出 IOException。
+ */
+public final class DatasetSpec {
+    /** 可选字段；household 为从 1 起的家庭序号 */
+    public static final List<String> FIELDS = List.of("id", "name", "gender", "birthDate", "address", "validPeriod", "household");
+    public static final List<String> FORMATS = List.of("csv", "jsonl");
+    private static final Set<String> KEYS = Set.of("count", "seed", "format", "fields", "regions", "birth", "age",
+            "femaleRatio", "maleRatio", "weighted", "household", "reference", "corpus");
+
+    final long count;
+    final long seed;
+    final String format;
+    final List<String> fields;
+    final List<String> regions;
+    final LocalDate from, to;
+    final LocalDate reference;  // 计算年龄与人口加权的参考日期
+    final double maleRatio;
+    final boolean weighted;
+    final int minHousehold, maxHousehold;
+    final boolean shareSurname;
+    final NameCorpus names;
+    final AddressCorpus addresses;
+
+    /** @param base corpus 相对路径的基准目录 */
+    private DatasetSpec(JsonNode root, Path base) throws IOException {
+        if (!root.isObject()) throw new IllegalArgumentException("数据集描述应为 JSON 对象");
+        for (Iterator<String> it = root.fieldNames(); it.hasNext(); ) {
+            String key = it.next();
+            if (!KEYS.contains(key)) throw new IllegalArgumentException("未知的键: " + key + "，可选 " + KEYS);
+        }
+        count = longValue(root, "count", 10);
+        if (count < 0) throw new IllegalArgumentException("count 不能为负: " + count);
+        seed = root.has("seed") ? longValue(root, "seed", 0) : System.nanoTime();
+        format = text(root, "format", "csv");
+        if (!FORMATS.contains(format)) throw new IllegalArgumentException("未知输出格式: " + format + "，可选 " + FORMATS);
+        fields = strings(root, "fields", List.of("id", "name", "address", "validPeriod"));
+        if (fields.isEmpty()) throw new IllegalArgumentException("fields 不能为空");
+        for (String f : fields) {
+            if (!FIELDS.contains(f)) throw new IllegalArgumentException("未知字段: " + f + "，可选 " + FIELDS);
+            if (fields.indexOf(f) != fields.lastIndexOf(f)) throw new IllegalArgumentException("字段重复: " + f);
+        }
+        regions = strings(root, "regions", List.of());
+        reference = root.has("reference") ? date(root, "reference") : LocalDate.now();
+
+        if (root.has("birth") && root.has("age")) throw new IllegalArgumentException("birth 与 age 只能指定一个");
+        if (root.has("age")) {
+            JsonNode age = object(root, "age");
+            int min = (int) longValue(age, "min", 18), max = (int) longValue(age, "max", 70);
+            if (min < 0 || min > max) throw new IllegalArgumentException("年龄区间无效: " + min + "~" + max);
+            from = reference.minusYears(max + 1L).plusDays(1);  // 满 max 周岁的最早出生日
+            to = reference.minusYears(min);
+        } else if (root.has("birth")) {
+            JsonNode birth = object(root, "birth");
+            from = date(birth, "from");
+            to = date(birth, "to");
+        } else {
+            from = LocalDate.of(1950, 1, 1);
+            to = reference.minusYears(18);
+        }
+        if (from.isAfter(to)) throw new IllegalArgumentException("出生日期区间无效: " + from + " > " + to);
+
+        if (root.has("maleRatio") && root.has("femaleRatio")) throw new IllegalArgumentException("maleRatio 与 femaleRatio 只能指定一个");
+        maleRatio = root.has("femaleRatio") ? 1 - ratio(root, "femaleRatio") : root.has("maleRatio") ? ratio(root, "maleRatio") : 0.5;
+        weighted = bool(root, "weighted", false);
+
+        if (root.has("household")) {
+            JsonNode h = object(root, "household");
+            for (Iterator<String> it = h.fieldNames(); it.hasNext(); ) {
+                String key = it.next();
+                if (!Set.of("size", "minSize", "maxSize", "shareSurname").contains(key)) {
+                    throw new IllegalArgumentException("household 中未知的键: " + key);
+                }
+            }
+            if (h.has("size") && (h.has("minSize") || h.has("maxSize"))) {
+                throw new IllegalArgumentException("household 的 size 与 minSize/maxSize 只能指定一种");
+            }
+            int size = (int) longValue(h, "size", 1);
+            minHousehold = (int) longValue(h, "minSize", size);
+            maxHousehold = (int) longValue(h, "maxSize", h.has("minSize") ? minHousehold : size);
+            shareSurname = bool(h, "shareSurname", false);
+            if (minHousehold < 1 || minHousehold > maxHousehold || maxHousehold > 100) {
+                throw new IllegalArgumentException("家庭人数区间无效: " + minHousehold + "~" + maxHousehold + "（1~100）");
+            }
+        } else {
+            minHousehold = maxHousehold = 1;
+            shareSurname = false;
+        }
+
+        String corpus = text(root, "corpus", null);
+        if (corpus == null) {
+            names = NameCorpus.defaults();
+            addresses = AddressCorpus.defaults();
+        } else {
+            Path dir = base.resolve(corpus);
+            if (!Files.isDirectory(dir)) throw new IllegalArgumentException("corpus 目录不存在: " + dir);
+            names = NameCorpus.load(dir);
+            addresses = AddressCorpus.load(dir);
+        }
+    }
+
+    /** 解析 JSON 文本 */
+    public static DatasetSpec parse(String json) throws IOException {
+        return new DatasetSpec(new ObjectMapper().readTree(json), Paths.get(""));
+    }
+
+    /** 读取 UTF-8 JSON 文件 */
+    public static DatasetSpec load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            JsonNode root = new ObjectMapper().readTree(in);
+            Path dir = file.toAbsolutePath().getParent();
+            return new DatasetSpec(root, dir == null ? Paths.get("") : dir);
+        }
+    }
+
+    /** 编译为生成计划（预筛地址码、预编码日期表等，见 GenerationPlan） */
+    public GenerationPlan compile() {
+        return new GenerationPlan(this);
+    }
+
+    public long count() { return count; }
+    public long seed() { return seed; }
+    public String format() { return format; }
+    public List<String> fields() { return fields; }
+    public LocalDate birthFrom() { return from; }
+    public LocalDate birthTo() { return to; }
+    public double maleRatio() { return maleRatio; }
+
+    private static JsonNode object(JsonNode node, String key) {
+        JsonNode v = node.get(key);
+        if (!v.isObject()) throw new IllegalArgumentException(key + " 应为对象");
+        return v;
+    }
+
+    private static long longValue(JsonNode node, String key, long fallback) {
+        JsonNode v = node.get(key);
+        if (v == null) return fallback;
+        if (!v.isIntegralNumber()) throw new IllegalArgumentException(key + " 应为整数: " + v);
+        return v.asLong();
+    }
+
+    private static double ratio(JsonNode node, String key) {
+        JsonNode v = node.get(key);
+        if (!v.isNumber() || v.asDouble() < 0 || v.asDouble() > 1) throw new IllegalArgumentException(key + " 应在 0~1 之间: " + v);
+        return v.asDouble();
+    }
+
+    private static boolean bool(JsonNode node, String key, boolean fallback) {
+        JsonNode v = node.get(key);
+        if (v == null) return fallback;
+        if (!v.isBoolean()) throw new IllegalArgumentException(key + " 应为 true/false: " + v);
+        return v.asBoolean();
+    }
+
+    private static String text(JsonNode node, String key, String fallback) {
+        JsonNode v = node.get(key);
+        if (v == null) return fallback;
+        if (!v.isTextual()) throw new IllegalArgumentException(key + " 应为字符串: " + v);
+        return v.asText();
+    }
+
+    private static LocalDate date(JsonNode node, String key) {
+        String s = text(node, key, null);
+        if (s == null) throw new IllegalArgumentException("缺少 " + key);
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(key + " 应为 yyyy-MM-dd: " + s);
+        }
+    }
+
+    /** 字符串数组；也接受逗号分隔的单个字符串 */
+    private static List<String> strings(JsonNode node, String key, List<String> fallback) {
+        JsonNode v = node.get(key);
+        if (v == null) return fallback;
+        List<String> out = new ArrayList<>();
+        if (v.isTextual()) {
+            for (String s : v.asText().split(",")) if (!s.isBlank()) out.add(s.trim());
+        } else if (v.isArray()) {
+            for (JsonNode e : v) {
+                if (!e.isTextual()) throw new IllegalArgumentException(key + " 的元素应为字符串: " + e);
+                out.add(e.asText().trim());
+            }
+        } else {
+            throw new IllegalArgumentException(key + " 应为字符串数组: " + v);
+        }
+        return List.copyOf(out);
+    }
+}
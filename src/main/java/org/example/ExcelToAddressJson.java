@@ -1,7 +1,22 @@
 package org.example;
 
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.nio.file.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -9,19 +24,62 @@ import java.util.*;
 /**
  * 读取三列xlsx（中文名、区划编号adcode、城市编号citycode），
  * 识别省/市/区层级并导出可供三级联动使用的JSON。
- * 使用方式：java org.example.ExcelToAddressJson input.xlsx output.json
+ * 使用方式：java org.example.ExcelToAddressJson [--stream] input.xlsx output.json
+ * - 默认用 XSSFWorkbook 读入整个工作簿。
+ * - --stream：用 POI 事件模型（XSSFReader + SAX）逐行读取第一个工作表，不构建单元格 DOM；
+ *   只保留 6 位区划编号的行（乡镇级等其余行读过即丢），内存只与县级以上条目数有关，与表格行数无关。
+ * 两种模式输出相同，JSON 均边遍历边写入文件，不在内存中拼出整个字符串。
  */
 public class ExcelToAddressJson {
     public static void main(String[] args) throws Exception {
+        boolean stream = args.length > 0 && "--stream".equals(args[0]);
+        if (stream) args = Arrays.copyOfRange(args, 1, args.length);
         if (args.length < 2) {
-            System.out.println("用法: java org.example.ExcelToAddressJson 输入xlsx 输出json");
+            System.out.println("用法: java org.example.ExcelToAddressJson [--stream] 输入xlsx 输出json");
             return;
         }
         Path in = Paths.get(args[0]);
         Path out = Paths.get(args[1]);
-        Map<String,String> pName = new LinkedHashMap<>();              // 省code->省名
-        Map<String,LinkedHashMap<String,String>> cMap = new LinkedHashMap<>(); // 省code->(市code->市名)
-        Map<String,LinkedHashMap<String,String>> dMap = new LinkedHashMap<>(); // 市code->(区code->区名)
+        Tree tree = new Tree();
+        if (stream) {
+            readStreaming(in, tree);
+        } else {
+            readWorkbook(in, tree);
+        }
+        try (Writer w = new BufferedWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8), 1 << 16)) {
+            writeJson(tree, w);
+        }
+        System.out.println("完成: " + out.toAbsolutePath());
+    }
+
+    /** 省/市/区三级映射（保持首次出现顺序） */
+    static final class Tree {
+        final Map<String,String> pName = new LinkedHashMap<>();              // 省code->省名
+        final Map<String,LinkedHashMap<String,String>> cMap = new LinkedHashMap<>(); // 省code->(市code->市名)
+        final Map<String,LinkedHashMap<String,String>> dMap = new LinkedHashMap<>(); // 市code->(区code->区名)
+
+        /** 处理一行数据（已跳过表头） */
+        void accept(String name, String code) {
+            if (name.isEmpty() || code.length()!=6 || !code.matches("\\d{6}")) return;
+            if ("100000".equals(code)) return; // 国家级，忽略
+            String prov = code.substring(0,2)+"0000";
+            String city = code.substring(0,4)+"00";
+            if (code.endsWith("0000")) { // 省
+                pName.put(prov, name);
+                cMap.putIfAbsent(prov, new LinkedHashMap<>());
+            } else if (code.endsWith("00")) { // 市
+                pName.putIfAbsent(prov, prov);
+                cMap.computeIfAbsent(prov,k->new LinkedHashMap<>()).put(city, name);
+                dMap.putIfAbsent(city, new LinkedHashMap<>());
+            } else { // 区
+                pName.putIfAbsent(prov, prov);
+                cMap.computeIfAbsent(prov,k->new LinkedHashMap<>()).putIfAbsent(city, city);
+                dMap.computeIfAbsent(city,k->new LinkedHashMap<>()).put(code, name);
+            }
+        }
+    }
+
+    private static void readWorkbook(Path in, Tree tree) throws IOException {
         DataFormatter fmt = new DataFormatter();
         try (Workbook wb = new XSSFWorkbook(Files.newInputStream(in))) {
             Sheet sh = wb.getSheetAt(0);
@@ -29,61 +87,85 @@ public class ExcelToAddressJson {
                 if (r.getRowNum() == 0) continue; // 跳过表头
                 String name = fmt.formatCellValue(r.getCell(0)).trim();
                 String code = fmt.formatCellValue(r.getCell(1)).trim();
-                if (name.isEmpty() || code.length()!=6 || !code.matches("\\d{6}")) continue;
-                if ("100000".equals(code)) continue; // 国家级，忽略
-                String prov = code.substring(0,2)+"0000";
-                String city = code.substring(0,4)+"00";
-                if (code.endsWith("0000")) { // 省
-                    pName.put(prov, name);
-                    cMap.putIfAbsent(prov, new LinkedHashMap<>());
-                } else if (code.endsWith("00")) { // 市
-                    pName.putIfAbsent(prov, prov);
-                    cMap.computeIfAbsent(prov,k->new LinkedHashMap<>()).put(city, name);
-                    dMap.putIfAbsent(city, new LinkedHashMap<>());
-                } else { // 区
-                    pName.putIfAbsent(prov, prov);
-                    cMap.computeIfAbsent(prov,k->new LinkedHashMap<>()).putIfAbsent(city, city);
-                    dMap.computeIfAbsent(city,k->new LinkedHashMap<>()).put(code, name);
-                }
+                tree.accept(name, code);
             }
         }
-        String json = buildJson(pName, cMap, dMap);
-        Files.write(out, json.getBytes(StandardCharsets.UTF_8));
-        System.out.println("完成: " + out.toAbsolutePath());
     }
 
-    private static String buildJson(Map<String,String> pName,
-                                    Map<String,LinkedHashMap<String,String>> cMap,
-                                    Map<String,LinkedHashMap<String,String>> dMap) {
-        StringBuilder sb = new StringBuilder(4096);
-        sb.append("{\"provinces\":[");
+    /** 事件模型逐行读取第一个工作表 */
+    static void readStreaming(Path in, Tree tree) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(in.toFile(), PackageAccess.READ)) {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader reader = new XSSFReader(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) return;
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                        new RowCollector(tree), new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    /** 只取每行前两列，行结束时交给 Tree */
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final Tree tree;
+        private String name = "";
+        private String code = "";
+
+        RowCollector(Tree tree) { this.tree = tree; }
+
+        @Override
+        public void startRow(int rowNum) {
+            name = "";
+            code = "";
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) return; // 跳过表头
+            tree.accept(name, code);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (cellReference == null || formattedValue == null) return;
+            int col = new CellReference(cellReference).getCol();
+            if (col == 0) name = formattedValue.trim();
+            else if (col == 1) code = formattedValue.trim();
+        }
+    }
+
+    /** 逐条写出 JSON（紧凑格式） */
+    static void writeJson(Tree tree, Writer w) throws IOException {
+        w.write("{\"provinces\":[");
         boolean fp = true;
-        for (Map.Entry<String,String> pe : pName.entrySet()) {
-            if (!fp) sb.append(','); fp=false;
+        for (Map.Entry<String,String> pe : tree.pName.entrySet()) {
+            if (!fp) w.write(','); fp=false;
             String pCode = pe.getKey(); String pN = pe.getValue();
-            sb.append("{\"name\":\"").append(esc(pN)).append("\",\"code\":\"").append(pCode).append("\",\"cities\":[");
+            w.write("{\"name\":\""); w.write(esc(pN)); w.write("\",\"code\":\""); w.write(pCode); w.write("\",\"cities\":[");
             boolean fc = true;
-            LinkedHashMap<String,String> cities = cMap.get(pCode);
+            LinkedHashMap<String,String> cities = tree.cMap.get(pCode);
             if (cities!=null) {
                 for (Map.Entry<String,String> ce : cities.entrySet()) {
-                    if (!fc) sb.append(','); fc=false;
+                    if (!fc) w.write(','); fc=false;
                     String cCode = ce.getKey(); String cN = ce.getValue();
-                    sb.append("{\"name\":\"").append(esc(cN)).append("\",\"code\":\"").append(cCode).append("\",\"districts\":[");
+                    w.write("{\"name\":\""); w.write(esc(cN)); w.write("\",\"code\":\""); w.write(cCode); w.write("\",\"districts\":[");
                     boolean fd = true;
-                    LinkedHashMap<String,String> dists = dMap.get(cCode);
+                    LinkedHashMap<String,String> dists = tree.dMap.get(cCode);
                     if (dists!=null) {
                         for (Map.Entry<String,String> de : dists.entrySet()) {
-                            if (!fd) sb.append(','); fd=false;
-                            sb.append("{\"name\":\"").append(esc(de.getValue())).append("\",\"code\":\"").append(de.getKey()).append("\"}");
+                            if (!fd) w.write(','); fd=false;
+                            w.write("{\"name\":\""); w.write(esc(de.getValue())); w.write("\",\"code\":\""); w.write(de.getKey()); w.write("\"}");
                         }
                     }
-                    sb.append("]}");
+                    w.write("]}");
                 }
             }
-            sb.append("]}");
+            w.write("]}");
         }
-        sb.append("]}");
-        return sb.toString();
+        w.write("]}");
     }
 
     private static String esc(String s){
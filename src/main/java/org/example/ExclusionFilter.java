@@ -0,0 +1,592 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 号码排除名单：生成时跳过名单中的号码（保留号段、已知真实号码、历史已发放的测试号码等），名单可达数亿条。
+ * - 名单文件每行一项（# 开头为注释）：17/18 位号码（校验码忽略）；“号码-号码” 闭区间；或不足 17 位的数字前缀，
+ *   如 “110101” 排除整个地址码、“11010119900101” 排除某地某日出生的全部号码。
+ * - build 把名单编译为一个映射文件：
+ *   精确部分以 (地址码, 出生日期距 1850-01-01 的天数, 顺序码) 压成 47 位键，每条 6 字节升序存放，另有按高位分桶的目录，查找只在桶内二分；
+ *   其前置寄存器分块布隆过滤器（每键 16 位、6 个哈希位落在同一个 64 位字内，误判率约 0.4%）挡掉绝大多数未命中，
+ *   未命中的号码只需读一个字即可放行；区间与前缀合并后常驻内存、二分判断。
+ * - 名单大到布隆过滤器放不进缓存时，逐个判断受内存延迟所限；retain 按批先算出全部字下标再集中读取，
+ *   让多次缓存未命中重叠进行，BatchGenerator 即按批抽取候选号码后调用它。
+ * - 编译采用外部归并排序：名单按固定大小的段读入，每段排序去重后写入临时文件，再多路归并写出；
+ *   堆内存为一个段（默认约 400 万键，32 MB）加各段的读缓冲，与名单的大小和号码分布无关。
+ * - 出生日期不合法或不在 1850~2208 年的条目无法被生成，编译时跳过并计数。
+ * 打开后只读、线程安全。
+ */
+public final class ExclusionFilter implements Closeable {
+    private static final int MAGIC = 0x49444558; // "IDEX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int BASE_YEAR = 1850;
+    private static final long BASE_DAY = LocalDate.of(BASE_YEAR, 1, 1).toEpochDay();
+    private static final int DAY_BITS = 17;
+    private static final int KEY_BITS = 20 + DAY_BITS + 10;
+    private static final int KEY_BYTES = 6;
+    private static final int MIN_DIR_BITS = 8;
+    /** 编译时每个排序段的键数 */
+    static final int RUN_KEYS = 1 << 22;
+    private static final int BLOOM_BITS_PER_KEY = 16;
+    private static final int HASHES = 6;
+    private static final long MAX_BLOOM_WORDS = 1L << 27;  // 1 GB
+    private static final int KEYS_PER_SEGMENT = 1 << 28;
+    private static final long ID17_PER_CODE = 100_000_000_000L;
+    /** (年 - 1850) * 13 + 月 -> 该月 1 日距 1850-01-01 的天数；热路径查表代替历法换算 */
+    private static final int[] MONTH_START = new int[(1 << DAY_BITS) / 365 * 13];
+
+    static {
+        for (int i = 0; i < MONTH_START.length / 13; i++) {
+            for (int m = 1; m <= 12; m++) {
+                MONTH_START[i * 13 + m] = (int) (LocalDate.of(BASE_YEAR + i, m, 1).toEpochDay() - BASE_DAY);
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final long count;
+    private final long skipped;
+    private final long[] rangeLo;   // 合并后的区间（17 位号码），按下界升序
+    private final long[] rangeHi;
+    private final int dirShift;
+    private final IntBuffer directory;
+    private final LongBuffer bloom;
+    private final long bloomWords;
+    private final ByteBuffer[] keys;
+
+    private ExclusionFilter(FileChannel channel, ByteBuffer header, long[] rangeLo, long[] rangeHi,
+                            LongBuffer bloom, IntBuffer directory, ByteBuffer[] keys) {
+        this.channel = channel;
+        this.count = header.getLong(8);
+        this.skipped = header.getLong(16);
+        this.dirShift = KEY_BITS - header.getInt(28);
+        this.rangeLo = rangeLo;
+        this.rangeHi = rangeHi;
+        this.directory = directory;
+        this.bloom = bloom;
+        this.bloomWords = header.getLong(32);
+        this.keys = keys;
+    }
+
+    /** 精确号码条数（去重后） */
+    public long size() { return count; }
+
+    /** 区间（含前缀）条数（合并后） */
+    public int rangeCount() { return rangeLo.length; }
+
+    /** 编译时跳过的条目数（出生日期不合法或超出范围） */
+    public long skipped() { return skipped; }
+
+    /** 号码（前 17 位或完整 18 位）是否在名单中 */
+    public boolean excludes(CharSequence id) {
+        long v = parseId17(id, 0, id.length());
+        if (v < 0) return false;
+        if (rangeLo.length > 0 && inRange(v)) return true;
+        long key = keyOf(v);
+        return key >= 0 && count > 0 && mightContain(key) && containsKey(key);
+    }
+
+    /**
+     * 地址码、出生日期 yyyyMMdd、顺序码组成的号码是否在名单中（生成热路径）。
+     * 多数号码只需一次布隆字读取即可判定不在名单中；大批量判断用 retain。
+     */
+    public boolean excludes(int addressCode, int birthYmd, int seq) {
+        if (rangeLo.length > 0 && inRange((long) addressCode * ID17_PER_CODE + (long) birthYmd * 1000 + seq)) return true;
+        if (count == 0) return false;
+        long key = keyOf(addressCode, birthYmd, seq);
+        return key >= 0 && mightContain(key) && containsKey(key);
+    }
+
+    /** 把 (地址码, 出生日期 yyyyMMdd, 顺序码) 打包为 address << 37 | birthYmd << 10 | seq，供 retain 批量判断 */
+    static long pack(int addressCode, int birthYmd, int seq) {
+        return (long) addressCode << 37 | (long) birthYmd << 10 | seq;
+    }
+
+    static int packedAddress(long packed) { return (int) (packed >>> 37); }
+
+    static int packedBirth(long packed) { return (int) (packed >>> 10) & 0x7FFFFFF; }
+
+    static int packedSeq(long packed) { return (int) packed & 0x3FF; }
+
+    /**
+     * 批量判断：保留 packed[0, n) 中不在名单里的号码（pack 的格式），原地前移并保持顺序。
+     * 先为每条算出布隆字下标，再集中读取，最后只对布隆命中的少数号码查精确表。
+     * @param hashes 调用方复用的暂存数组，长度不小于 n
+     * @param words  同上
+     * @return 保留的条数
+     */
+    int retain(long[] packed, int n, long[] hashes, int[] words) {
+        if (count == 0 && rangeLo.length == 0) return n;
+        for (int i = 0; i < n; i++) {
+            long key = count == 0 ? -1 : keyOf(packedAddress(packed[i]), packedBirth(packed[i]), packedSeq(packed[i]));
+            hashes[i] = key < 0 ? 0 : IndexPermutation.mix(key);
+            words[i] = key < 0 ? -1 : bloomWord(hashes[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            if (words[i] < 0) continue;
+            long mask = bloomMask(hashes[i]);
+            if ((bloom.get(words[i]) & mask) != mask) words[i] = -1;
+        }
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            long p = packed[i];
+            int address = packedAddress(p), birth = packedBirth(p), seq = packedSeq(p);
+            boolean excluded = rangeLo.length > 0 && inRange((long) address * ID17_PER_CODE + (long) birth * 1000 + seq)
+                    || words[i] >= 0 && containsKey(keyOf(address, birth, seq));
+            if (!excluded) packed[kept++] = p;
+        }
+        return kept;
+    }
+
+    /** 号码的精确键；出生日期超出可表示范围时为 -1（出生日期须合法） */
+    private static long keyOf(int addressCode, int birthYmd, int seq) {
+        long day = dayIndex(birthYmd);
+        if (day < 0 || day >= 1 << DAY_BITS || addressCode < 0 || addressCode >= 1 << 20) return -1;
+        return (long) addressCode << (DAY_BITS + 10) | day << 10 | seq;
+    }
+
+    private boolean inRange(long id17) {
+        int i = Arrays.binarySearch(rangeLo, id17);
+        if (i >= 0) return true;
+        i = -i - 2;  // 下界不大于 id17 的最后一个区间
+        return i >= 0 && id17 <= rangeHi[i];
+    }
+
+    private boolean mightContain(long key) {
+        long h = IndexPermutation.mix(key);
+        long mask = bloomMask(h);
+        return (bloom.get(bloomWord(h)) & mask) == mask;
+    }
+
+    /** 键哈希 h 对应的布隆字下标：取高 28 位按字数缩放（字数不必是 2 的幂），与字内掩码用的低位不重叠 */
+    private int bloomWord(long h) {
+        return bloomWord(h, bloomWords);
+    }
+
+    private static int bloomWord(long h, long words) {
+        return (int) (((h >>> 36) * words) >>> 28);
+    }
+
+    /** 键哈希 h 在字内置位的掩码：低 36 位每 6 位取一个位号 */
+    private static long bloomMask(long h) {
+        long mask = 0;
+        for (int k = 0; k < HASHES; k++) mask |= 1L << (h >>> (k * 6));
+        return mask;
+    }
+
+    private boolean containsKey(long key) {
+        int b = (int) (key >>> dirShift);
+        long lo = directory.get(b) & 0xFFFFFFFFL, hi = (directory.get(b + 1) & 0xFFFFFFFFL) - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            long k = key(mid);
+            if (k < key) lo = mid + 1;
+            else if (k > key) hi = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    private long key(long i) {
+        ByteBuffer seg = keys[(int) (i / KEYS_PER_SEGMENT)];
+        int off = (int) (i % KEYS_PER_SEGMENT) * KEY_BYTES;
+        return (long) (seg.getShort(off) & 0xFFFF) << 32 | (seg.getInt(off + 2) & 0xFFFFFFFFL);
+    }
+
+    /** yyyyMMdd 距 1850-01-01 的天数，年份超出表范围时为 -1（不校验月日，调用方保证日期合法） */
+    static int dayIndex(int ymd) {
+        int y = ymd / 10000 - BASE_YEAR;
+        if (y < 0 || y >= MONTH_START.length / 13) return -1;
+        return MONTH_START[y * 13 + ymd / 100 % 100] + ymd % 100 - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- 打开 ---
+
+    /**
+     * 打开排除名单：已编译的文件（build 的输出）直接映射；否则视为名单文本，编译到同目录的临时文件后映射（退出时删除）。
+     */
+    public static ExclusionFilter load(Path file) throws IOException {
+        if (isCompiled(file)) return open(file);
+        Path compiled = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".excl");
+        compiled.toFile().deleteOnExit();
+        return build(file, compiled);
+    }
+
+    private static boolean isCompiled(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /** 映射已编译的名单文件 */
+    public static ExclusionFilter open(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (ch.size() < HEADER_SIZE) throw new IOException(file + ": 不是排除名单文件");
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) throw new IOException(file + ": 不是排除名单文件");
+            if (header.getInt(4) != VERSION) throw new IOException(file + ": 不支持的版本 " + header.getInt(4));
+            long count = header.getLong(8);
+            int ranges = header.getInt(24), dirBits = header.getInt(28);
+            long bloomWords = header.getLong(32);
+            long pos = HEADER_SIZE;
+            ByteBuffer rb = ch.map(FileChannel.MapMode.READ_ONLY, pos, (long) ranges * 16);
+            long[] lo = new long[ranges], hi = new long[ranges];
+            for (int i = 0; i < ranges; i++) {
+                lo[i] = rb.getLong(i * 16);
+                hi[i] = rb.getLong(i * 16 + 8);
+            }
+            pos += (long) ranges * 16;
+            LongBuffer bloom = ch.map(FileChannel.MapMode.READ_ONLY, pos, bloomWords * 8).asLongBuffer();
+            pos += bloomWords * 8;
+            long dirBytes = ((1L << dirBits) + 1) * 4;
+            IntBuffer dir = ch.map(FileChannel.MapMode.READ_ONLY, pos, dirBytes).asIntBuffer();
+            pos += dirBytes;
+            if (ch.size() < pos + count * KEY_BYTES) throw new IOException(file + ": 文件不完整");
+            ByteBuffer[] keys = new ByteBuffer[(int) ((count + KEYS_PER_SEGMENT - 1) / KEYS_PER_SEGMENT)];
+            for (int s = 0; s < keys.length; s++) {
+                long n = Math.min(KEYS_PER_SEGMENT, count - (long) s * KEYS_PER_SEGMENT);
+                keys[s] = ch.map(FileChannel.MapMode.READ_ONLY, pos + (long) s * KEYS_PER_SEGMENT * KEY_BYTES, n * KEY_BYTES);
+            }
+            return new ExclusionFilter(ch, header, lo, hi, bloom, dir, keys);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    // --- 编译 ---
+
+    /**
+     * 把名单文本 list 编译为 output 并打开。
+     * @throws IOException 读写失败，或某行格式错误（附行号）
+     */
+    public static ExclusionFilter build(Path list, Path output) throws IOException {
+        return build(list, output, RUN_KEYS);
+    }
+
+    /** runKeys 为每个排序段的键数 */
+    static ExclusionFilter build(Path list, Path output, int runKeys) throws IOException {
+        Path tmp = Files.createTempDirectory(output.toAbsolutePath().getParent(), "exclusion");
+        try {
+            List<Path> runs = new ArrayList<>();
+            List<Long> runSizes = new ArrayList<>();
+            long[] buffer = new long[Math.min(runKeys, 1 << 16)];
+            int buffered = 0;
+            List<long[]> ranges = new ArrayList<>();
+            long skipped = 0;
+            try (BufferedReader r = Files.newBufferedReader(list, StandardCharsets.UTF_8)) {
+                String line;
+                long no = 0;
+                while ((line = r.readLine()) != null) {
+                    no++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    int dash = line.indexOf('-');
+                    if (dash > 0) {
+                        long a = parseId17(line, 0, dash), b = parseId17(line, dash + 1, line.length());
+                        if (a < 0 || b < 0 || a > b) throw new IOException(list + " 第 " + no + " 行区间无效: " + line);
+                        ranges.add(new long[]{a, b});
+                    } else if (line.length() < 17 && isDigits(line)) {
+                        long scale = pow10(17 - line.length());
+                        long p = Long.parseLong(line) * scale;
+                        ranges.add(new long[]{p, p + scale - 1});
+                    } else {
+                        long v = parseId17(line, 0, line.length());
+                        if (v < 0) throw new IOException(list + " 第 " + no + " 行格式错误: " + line);
+                        long key = keyOf(v);
+                        if (key < 0) {
+                            skipped++;
+                            continue;
+                        }
+                        if (buffered == buffer.length) {
+                            if (buffered < runKeys) {
+                                buffer = Arrays.copyOf(buffer, (int) Math.min(runKeys, 2L * buffered));
+                            } else {
+                                Path run = tmp.resolve(runs.size() + ".run");
+                                runSizes.add(spill(buffer, buffered, run));
+                                runs.add(run);
+                                buffered = 0;
+                            }
+                        }
+                        buffer[buffered++] = key;
+                    }
+                }
+            }
+            Arrays.sort(buffer, 0, buffered);
+            buffered = dedupe(buffer, buffered);
+            long total = buffered;
+            for (long n : runSizes) total += n;
+            try (RunMerger keys = new RunMerger(runs, runSizes, buffer, buffered)) {
+                return write(output, keys, total, skipped, merge(ranges));
+            }
+        } finally {
+            try (var files = Files.list(tmp)) {
+                for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** 排序去重 keys[0, n) 后写入 run，返回写入的键数 */
+    private static long spill(long[] keys, int n, Path run) throws IOException {
+        Arrays.sort(keys, 0, n);
+        n = dedupe(keys, n);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < n; i++) out.writeLong(keys[i]);
+        }
+        return n;
+    }
+
+    /** 去掉已排序的 keys[0, n) 中的重复项，返回剩余个数 */
+    private static int dedupe(long[] keys, int n) {
+        int m = 0;
+        for (int i = 0; i < n; i++) if (m == 0 || keys[i] != keys[m - 1]) keys[m++] = keys[i];
+        return m;
+    }
+
+    /**
+     * 多个升序段的归并：各段为溢写的临时文件，最后一段在内存中；用以段下标为元素的最小堆，每个键 O(log 段数)。
+     * next() 按升序返回键（不同段间的重复键原样返回），取尽时返回 -1。
+     */
+    private static final class RunMerger implements Closeable {
+        private static final int READ_BUFFER = 1 << 16;
+
+        private final FileChannel[] files;
+        private final ByteBuffer[] buffers;   // 各段的读缓冲，按 8 字节键整块读入
+        private final long[] remaining;
+        private final long[] tail;
+        private final int tailSize;
+        private int tailPos;
+        private final long[] heads;
+        private final int[] heap;
+        private int heapSize;
+
+        RunMerger(List<Path> runs, List<Long> runSizes, long[] tail, int tailSize) throws IOException {
+            int n = runs.size();
+            this.files = new FileChannel[n];
+            this.buffers = new ByteBuffer[n];
+            this.remaining = new long[n];
+            this.tail = tail;
+            this.tailSize = tailSize;
+            this.heads = new long[n + 1];
+            this.heap = new int[n + 1];
+            try {
+                for (int i = 0; i < n; i++) {
+                    files[i] = FileChannel.open(runs.get(i), StandardOpenOption.READ);
+                    buffers[i] = ByteBuffer.allocate(READ_BUFFER).flip();
+                    remaining[i] = runSizes.get(i);
+                }
+                for (int i = 0; i <= n; i++) {
+                    if (advance(i)) heap[heapSize++] = i;
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) siftDown(i);
+        }
+
+        /** 读取第 src 段的下一个键到 heads[src]，该段已取尽时返回 false */
+        private boolean advance(int src) throws IOException {
+            if (src == files.length) {
+                if (tailPos == tailSize) return false;
+                heads[src] = tail[tailPos++];
+                return true;
+            }
+            if (remaining[src] == 0) return false;
+            remaining[src]--;
+            ByteBuffer b = buffers[src];
+            if (!b.hasRemaining()) {
+                b.clear();
+                while (b.position() < 8) {
+                    if (files[src].read(b) < 0) throw new EOFException("临时文件不完整");
+                }
+                b.flip();
+                int partial = b.limit() & 7;  // 不完整的键留到下次重读
+                b.limit(b.limit() - partial);
+                files[src].position(files[src].position() - partial);
+            }
+            heads[src] = b.getLong();
+            return true;
+        }
+
+        long next() throws IOException {
+            if (heapSize == 0) return -1;
+            int src = heap[0];
+            long key = heads[src];
+            if (!advance(src)) heap[0] = heap[--heapSize];
+            siftDown(0);
+            return key;
+        }
+
+        private void siftDown(int i) {
+            int x = heap[i];
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= heapSize) break;
+                if (c + 1 < heapSize && heads[heap[c + 1]] < heads[heap[c]]) c++;
+                if (heads[heap[c]] >= heads[x]) break;
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = x;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (FileChannel ch : files) if (ch != null) ch.close();
+        }
+    }
+
+    private static ExclusionFilter write(Path output, RunMerger keys, long total, long skipped, long[][] ranges) throws IOException {
+        int dirBits = Math.max(MIN_DIR_BITS, Math.min(24, 64 - Long.numberOfLeadingZeros(total / 8)));
+        long bloomWords = Math.max(1, Math.min(MAX_BLOOM_WORDS, (total * BLOOM_BITS_PER_KEY + 63) / 64));
+        int[] dir = new int[(1 << dirBits) + 1];
+        int dirShift = KEY_BITS - dirBits;
+        long bloomPos = HEADER_SIZE + (long) ranges.length * 16;
+        long dirPos = bloomPos + bloomWords * 8;
+        long keyPos = dirPos + (long) dir.length * 4;
+
+        try (FileChannel ch = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            LongBuffer bloom = ch.map(FileChannel.MapMode.READ_WRITE, bloomPos, bloomWords * 8).asLongBuffer();
+            ByteBuffer out = ByteBuffer.allocateDirect(1 << 20);
+            long count = 0, pos = keyPos, prev = -1;
+            int nextBucket = 0;
+            for (long key = keys.next(); key >= 0; key = keys.next()) {
+                if (key == prev) continue;
+                prev = key;
+                int b = (int) (key >>> dirShift);
+                while (nextBucket <= b) dir[nextBucket++] = (int) count;
+                if (out.remaining() < KEY_BYTES) pos += flush(ch, out, pos);
+                out.putShort((short) (key >>> 32)).putInt((int) key);
+                long h = IndexPermutation.mix(key);
+                int w = bloomWord(h, bloomWords);
+                bloom.put(w, bloom.get(w) | bloomMask(h));
+                count++;
+            }
+            pos += flush(ch, out, pos);
+            while (nextBucket < dir.length) dir[nextBucket++] = (int) count;
+
+            ByteBuffer head = ByteBuffer.allocate((int) bloomPos);
+            head.putInt(MAGIC).putInt(VERSION).putLong(count).putLong(skipped).putInt(ranges.length).putInt(dirBits).putLong(bloomWords);
+            head.position(HEADER_SIZE);
+            for (long[] r : ranges) head.putLong(r[0]).putLong(r[1]);
+            head.flip();
+            while (head.hasRemaining()) ch.write(head, head.position());
+            ByteBuffer db = ByteBuffer.allocate(dir.length * 4);
+            db.asIntBuffer().put(dir);
+            long dp = dirPos;
+            while (db.hasRemaining()) dp += ch.write(db, dp);
+            ch.force(false);
+        }
+        return open(output);
+    }
+
+    private static int flush(FileChannel ch, ByteBuffer out, long pos) throws IOException {
+        out.flip();
+        int n = 0;
+        while (out.hasRemaining()) n += ch.write(out, pos + n);
+        out.clear();
+        return n;
+    }
+
+    /** 合并重叠或相邻的区间 */
+    private static long[][] merge(List<long[]> ranges) {
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] r : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && r[0] <= last[1] + 1) last[1] = Math.max(last[1], r[1]);
+            else merged.add(new long[]{r[0], r[1]});
+        }
+        return merged.toArray(new long[0][]);
+    }
+
+    /** 17 位号码转精确键；出生日期不合法或超出范围时为 -1 */
+    private static long keyOf(long id17) {
+        int code = (int) (id17 / ID17_PER_CODE), ymd = (int) (id17 / 1000 % 100_000_000), seq = (int) (id17 % 1000);
+        long day;
+        try {
+            day = LocalDate.of(ymd / 10000, ymd / 100 % 100, ymd % 100).toEpochDay() - BASE_DAY;
+        } catch (DateTimeException e) {
+            return -1;
+        }
+        if (day < 0 || day >= 1 << DAY_BITS) return -1;
+        return (long) code << (DAY_BITS + 10) | day << 10 | seq;
+    }
+
+    /** s[from, to) 为 17 位数字或 17 位数字加校验码时返回前 17 位数值，否则 -1 */
+    private static long parseId17(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') from++;
+        while (to > from && s.charAt(to - 1) == ' ') to--;
+        int len = to - from;
+        if (len != 17 && len != 18) return -1;
+        long v = 0;
+        for (int i = from; i < from + 17; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        if (len == 18) {
+            char c = s.charAt(from + 17);
+            if ((c < '0' || c > '9') && c != 'X' && c != 'x') return -1;
+        }
+        return v;
+    }
+
+    private static boolean isDigits(String s) {
+        for (int i = 0; i < s.length(); i++) if (s.charAt(i) < '0' || s.charAt(i) > '9') return false;
+        return true;
+    }
+
+    private static long pow10(int n) {
+        long v = 1;
+        for (int i = 0; i < n; i++) v *= 10;
+        return v;
+    }
+
+    /** 命令行：java org.example.ExclusionFilter 名单.txt 输出.excl */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法: java org.example.ExclusionFilter 名单文件 输出文件");
+            System.exit(2);
+            return;
+        }
+        long start = System.nanoTime();
+        try (ExclusionFilter f = build(Paths.get(args[0]), Paths.get(args[1]))) {
+            System.err.printf("完成: 精确号码 %d 条, 区间 %d 个, 跳过 %d 条, 用时 %.2f s%n",
+                    f.size(), f.rangeCount(), f.skipped(), (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 由 DatasetSpec 编译得到的生成计划：约束只在编译时处理一次，生成循环里只剩查表和抽样。
+ * - 地址码按前缀预先筛好，每个地址码的 6 位 ASCII、GB 11643 加权和、市级代码与“省市区”文本都预先算好；
+ *   所选地区涉及区划变更（见 RegionHistory）时，地址表含历史代码，并按出生日期分为若干时段，
+ *   每个时段只从当时有效的代码中抽取（同 BatchGenerator），号码中的地址码在出生日期当天有效；
+ * - 出生日期区间展开为日期表，每天的 8 位 ASCII、加权和、所在时段与 yyyy-MM-dd 文本预先编码；
+ *   号码由三段 ASCII 拼接，校验码按三段加权和查表，不再逐位取模；有效期限的 10 种取值也预先编码；
+ * - 只生成 fields 中列出的字段：出生日期只在输出 id、birthDate 或 address 时抽取，地址码只在输出 id 或 address 时抽取，
+ *   其余字段未列出时不抽随机数、不拼字符串；姓名与地址直接从 char[] 编码为 UTF-8 写出；
+ * - 家庭：户主按其出生日期抽取地址码，再抽人数与详细地址（AddressCorpus），成员共用详细地址；
+ *   成员的出生日期、性别、顺序码与姓名各自抽取，地址码取户主代码在成员出生日期当天对应的代码（RegionHistory.codeAt，
+ *   如 2017 年出生的户主在龙华区，其 1990 年出生的成员为宝安区代码）；shareSurname 时成员与户主同姓。
+ * 同一描述与种子得到相同输出；改变 fields 会改变随机数的消耗顺序。
+ */
+public final class GenerationPlan {
+    private static final int ID = 0, NAME = 1, GENDER = 2, BIRTH_DATE = 3, ADDRESS = 4, VALID_PERIOD = 5, HOUSEHOLD = 6;
+    private static final int VALID_PERIOD_CHOICES = 10;  // 起始日期为 1~10 年前，同 Utils.generateValidPeriod
+    private static final byte[] SEQ_DIGITS = new byte[1000 * 3];
+    private static final int[] SEQ_SUMS = new int[1000];
+    private static final byte[] MALE = "男".getBytes(StandardCharsets.UTF_8), FEMALE = "女".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        for (int s = 0; s < 1000; s++) {
+            for (int i = 0, v = s; i < 3; i++, v /= 10) {
+                SEQ_DIGITS[s * 3 + 2 - i] = (byte) ('0' + v % 10);
+                SEQ_SUMS[s] += v % 10 * IdNumberUtil.WEIGHTS[16 - i];
+            }
+        }
+    }
+
+    private final DatasetSpec spec;
+    private final int[] columns;   // 输出列的字段编号，按 fields 顺序
+    private final boolean[] used = new boolean[7];
+    private final boolean needDate, needAddress;
+    private final double maleRatio;
+    private final int minHousehold, maxHousehold;
+    private final boolean shareSurname;
+    // 地址表：下标为地址序号（当前代码与按出生日期使用的历史代码）
+    private final int addressCount;
+    private final byte[] addressDigits;
+    private final int[] addressSums;
+    private final int[] cityCodes;
+    private final char[][] regionTexts;
+    // 时段：epochMembers[e] 为时段 e 可抽取的地址序号，epochWeights[e] 为其别名表（null 表示均匀）
+    private final int[][] epochMembers;
+    private final AliasTable[] epochWeights;
+    private final int[][] codeAt;  // [地址序号][时段] -> 该时段对应的地址序号；只有一个时段时为 null
+    // 日期表：下标为区间内第几天
+    private final int dayCount;
+    private final byte[] dateDigits;
+    private final int[] dateSums;
+    private final int[] dateEpochs;
+    private final byte[] isoDates;
+    private final AliasTable dateWeights;
+    private final byte[][] validPeriods;
+    private final NameCorpus names;
+    private final AddressCorpus addresses;
+
+    GenerationPlan(DatasetSpec spec) {
+        this(spec, RegionHistory.defaults());
+    }
+
+    /** @param history 区划代码有效期，RegionHistory.NONE 表示只用当前代码、不区分出生日期 */
+    GenerationPlan(DatasetSpec spec, RegionHistory history) {
+        this(spec, history, spec.names, spec.addresses);
+    }
+
+    /** @param names 姓名词表 @param addresses 地址词表（默认取描述中 corpus 目录加载的词表） */
+    GenerationPlan(DatasetSpec spec, RegionHistory history, NameCorpus names, AddressCorpus addresses) {
+        this.spec = spec;
+        this.names = names;
+        this.addresses = addresses;
+        columns = new int[spec.fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = DatasetSpec.FIELDS.indexOf(spec.fields.get(i));
+            used[columns[i]] = true;
+        }
+        needDate = used[ID] || used[BIRTH_DATE] || used[ADDRESS];
+        needAddress = used[ID] || used[ADDRESS];
+        maleRatio = spec.maleRatio;
+        minHousehold = spec.minHousehold;
+        maxHousehold = spec.maxHousehold;
+        shareSurname = spec.shareSurname && used[NAME];
+
+        dayCount = (int) (spec.to.toEpochDay() - spec.from.toEpochDay() + 1);
+        int[] ymds = new int[dayCount];
+        dateDigits = new byte[dayCount * 8];
+        dateSums = new int[dayCount];
+        isoDates = new byte[dayCount * 10];
+        for (int t = 0; t < dayCount; t++) {
+            LocalDate date = spec.from.plusDays(t);
+            ymds[t] = IdNumberEncoder.toYmd(date);
+            dateSums[t] = digits(ymds[t], dateDigits, t * 8, 8, 6);
+            System.arraycopy(date.toString().getBytes(StandardCharsets.US_ASCII), 0, isoDates, t * 10, 10);
+        }
+
+        RegionIndex regions = AddressCodeUtil.regionIndex();
+        int[] current = BatchGenerator.collectAddressCodes(spec.regions);
+        if (current.length == 0) throw new IllegalArgumentException("没有匹配的地址码: " + spec.regions);
+        RegionHistory.Timeline timeline = history.timeline(regions, current, spec.regions);
+        // 与出生日期区间相交的时段，及每个时段的首日（下标）
+        List<Integer> codes = new ArrayList<>();
+        List<int[]> members = new ArrayList<>();
+        List<Integer> firstDays = new ArrayList<>();
+        dateEpochs = new int[dayCount];
+        if (timeline == null) {
+            for (int c : current) codes.add(c);
+            int[] all = new int[current.length];
+            for (int i = 0; i < all.length; i++) all[i] = i;
+            members.add(all);
+            firstDays.add(0);
+        } else {
+            for (int c : timeline.codes) codes.add(c);
+            for (int e = 0; e < timeline.starts.length; e++) {
+                int lo = lowerBound(ymds, timeline.starts[e]);
+                int hi = e + 1 == timeline.starts.length ? dayCount : lowerBound(ymds, timeline.starts[e + 1]);
+                if (lo >= hi) continue;
+                for (int t = lo; t < hi; t++) dateEpochs[t] = members.size();
+                members.add(timeline.members[e]);
+                firstDays.add(lo);
+            }
+        }
+        int epochs = members.size();
+        epochMembers = members.toArray(new int[0][]);
+        if (epochs > 1 && maxHousehold > 1) {
+            // 成员出生日期与户主不在同一时段时，按户主代码在该时段对应的代码取地址序号（不在表中的代码追加到表尾）
+            Map<Integer, Integer> index = new HashMap<>();
+            for (int i = 0; i < codes.size(); i++) index.put(codes.get(i), i);
+            codeAt = new int[timeline.codes.length][epochs];
+            for (int i = 0; i < codeAt.length; i++) {
+                for (int e = 0; e < epochs; e++) {
+                    int c = history.codeAt(codes.get(i), ymds[firstDays.get(e)]);
+                    codeAt[i][e] = index.computeIfAbsent(c, x -> {
+                        codes.add(x);
+                        return codes.size() - 1;
+                    });
+                }
+            }
+        } else {
+            codeAt = null;
+        }
+
+        addressCount = codes.size();
+        addressDigits = new byte[addressCount * 6];
+        addressSums = new int[addressCount];
+        cityCodes = new int[addressCount];
+        regionTexts = new char[addressCount][];
+        int[] resolved = new int[addressCount];   // 历史代码并入的当前区县代码，用于取名称与人口权重
+        for (int a = 0; a < addressCount; a++) {
+            int code = codes.get(a);
+            addressSums[a] = digits(code, addressDigits, a * 6, 6, 0);
+            int d = history.resolveNearest(regions, code);
+            resolved[a] = d < 0 ? code : regions.districtCode(d);
+            cityCodes[a] = RecordGenerator.cityCode(regions, d, code);
+            String[] parts = d < 0 ? RecordGenerator.UNKNOWN_REGION : RecordGenerator.addressParts(regions, d);
+            regionTexts[a] = (parts[0] + parts[1] + parts[2]).toCharArray();
+        }
+
+        epochWeights = new AliasTable[epochs];
+        if (spec.weighted) {
+            PopulationModel model = PopulationModel.defaults();
+            double[] rw = model.districtWeights(regions, resolved), dw = model.birthDateWeights(ymds, spec.reference);
+            if (isAllZero(rw)) throw new IllegalArgumentException("所选地区在人口模型中没有权重");
+            if (isAllZero(dw)) throw new IllegalArgumentException("出生日期区间在人口模型中没有权重");
+            for (int e = 0; e < epochs; e++) {
+                int[] m = epochMembers[e];
+                double[] w = new double[m.length];
+                for (int i = 0; i < m.length; i++) w[i] = rw[m[i]];
+                epochWeights[e] = isAllZero(w) ? null : new AliasTable(w);
+            }
+            dateWeights = new AliasTable(dw);
+        } else {
+            dateWeights = null;
+        }
+
+        DateTimeFormatter f = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+        validPeriods = new byte[VALID_PERIOD_CHOICES][];
+        for (int i = 0; i < VALID_PERIOD_CHOICES; i++) {
+            LocalDate start = spec.reference.minusYears(i + 1);
+            validPeriods[i] = (start.format(f) + "-" + start.plusYears(20).format(f)).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /** a 中第一个不小于 key 的下标 */
+    private static int lowerBound(int[] a, int key) {
+        int i = Arrays.binarySearch(a, key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /** 把 v 的 n 位数字写入 dst[off...]，返回其加权和（第一位对应号码第 first 位） */
+    private static int digits(int v, byte[] dst, int off, int n, int first) {
+        int sum = 0;
+        for (int i = n - 1; i >= 0; i--, v /= 10) {
+            dst[off + i] = (byte) ('0' + v % 10);
+            sum += v % 10 * IdNumberUtil.WEIGHTS[first + i];
+        }
+        return sum;
+    }
+
+    private static boolean isAllZero(double[] weights) {
+        for (double w : weights) if (w > 0) return false;
+        return true;
+    }
+
+    public DatasetSpec spec() { return spec; }
+
+    /** 输出列名（即描述中的 fields） */
+    public List<String> columns() { return spec.fields; }
+
+    /** 地址表中的地址码数量（预筛后的当前代码，以及按出生日期使用的历史代码） */
+    public int addressCount() { return addressCount; }
+
+    /** 出生日期表的天数 */
+    public int dayCount() { return dayCount; }
+
+    /** 按描述的人数与种子写入文件 */
+    public long writeTo(Path file) throws IOException {
+        return write(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE),
+                spec.count, spec.seed);
+    }
+
+    /** 按描述的人数与种子写入 out（写完后关闭） */
+    public long writeTo(OutputStream out) throws IOException {
+        return write(Channels.newChannel(out), spec.count, spec.seed);
+    }
+
+    /**
+     * 生成 count 人写入 channel（写完后关闭，出错时也关闭），最后一户人数不足时截断。
+     * @return 写入行数
+     */
+    public long write(WritableByteChannel channel, long count, long seed) throws IOException {
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0, a0 = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] id = new byte[IdNumberEncoder.LENGTH];
+        char[] name = new char[names.maxLength()];
+        int maxRegion = 0;
+        for (char[] r : regionTexts) maxRegion = Math.max(maxRegion, r.length);
+        char[] address = new char[maxRegion + addresses.maxDetailLength()];
+        int addressLen = 0;
+        long written = 0, household = 0;
+        try (WritableByteChannel ch = channel; RowSink out = new RowSink(ch, "csv".equals(spec.format), spec.fields)) {
+            while (written < count) {
+                household++;
+                int size = minHousehold == maxHousehold ? minHousehold : minHousehold + random.nextInt(maxHousehold - minHousehold + 1);
+                size = (int) Math.min(size, count - written);
+                int home = 0, homeEpoch = 0;   // 户主的地址序号与时段
+                long surname = 0;
+                for (int m = 0; m < size; m++) {
+                    int t = !needDate ? 0 : dateWeights == null ? random.nextInt(dayCount) : dateWeights.sample(random);
+                    int a = 0;
+                    if (needAddress) {
+                        int e = dateEpochs[t];
+                        if (m == 0) {
+                            int[] candidates = epochMembers[e];
+                            AliasTable w = epochWeights[e];
+                            home = candidates[w == null ? random.nextInt(candidates.length) : w.sample(random)];
+                            homeEpoch = e;
+                            if (used[ADDRESS]) {
+                                char[] region = regionTexts[home];
+                                System.arraycopy(region, 0, address, 0, region.length);
+                                addressLen = addresses.detail(random, cityCodes[home], address, region.length);
+                            }
+                        }
+                        a = e == homeEpoch ? home : codeAt[home][e];
+                    }
+                    boolean male = false;
+                    int seq = 0;
+                    if (used[ID]) {
+                        seq = random.nextInt(1000);
+                        male = random.nextDouble() < maleRatio;
+                        seq = male ? (seq | 1) : (seq & ~1); // 奇数男、偶数女
+                    } else if (used[GENDER]) {
+                        male = random.nextDouble() < maleRatio;
+                    }
+                    int nameLen = 0;
+                    if (used[NAME]) {
+                        long code = names.sample(random);
+                        if (shareSurname) {
+                            if (m == 0) surname = code;
+                            else code = NameCorpus.withSurname(code, surname);
+                        }
+                        nameLen = names.name(code, name, 0);
+                    }
+                    int valid = used[VALID_PERIOD] ? random.nextInt(VALID_PERIOD_CHOICES) : 0;
+
+                    for (int c = 0; c < columns.length; c++) {
+                        out.beginColumn(c);
+                        switch (columns[c]) {
+                            case ID:
+                                System.arraycopy(addressDigits, a * 6, id, 0, 6);
+                                System.arraycopy(dateDigits, t * 8, id, 6, 8);
+                                System.arraycopy(SEQ_DIGITS, seq * 3, id, 14, 3);
+                                id[17] = (byte) IdNumberUtil.CHECK_CODES[(addressSums[a] + dateSums[t] + SEQ_SUMS[seq]) % 11];
+                                out.string(id, 0, id.length);
+                                break;
+                            case NAME: out.text(name, 0, nameLen); break;
+                            case GENDER: out.string(male ? MALE : FEMALE, 0, 3); break;
+                            case BIRTH_DATE: out.string(isoDates, t * 10, 10); break;
+                            case ADDRESS: out.text(address, 0, addressLen); break;
+                            case VALID_PERIOD: out.string(validPeriods[valid], 0, validPeriods[valid].length); break;
+                            case HOUSEHOLD: out.number(household); break;
+                        }
+                    }
+                    out.endRow();
+                    written++;
+                }
+            }
+        }
+        if (Metrics.ENABLED) Metrics.batch("plan_write", "生成计划写出", t0, a0, written);
+        return written;
+    }
+
+    /**
+     * 按列写出的文本输出：csv 首行为列名，含逗号、引号或换行的文本加双引号；jsonl 每行一个对象，household 为数字。
+     * 与 RecordSink 共用 Utf8ChannelWriter 的缓冲区与 UTF-8 编码，不经过 IdentityRecord。
+     */
+    private static final class RowSink implements Closeable {
+        private static final byte[] QUOTE = {'"'};
+
+        private final Utf8ChannelWriter out;
+        private final boolean csv;
+        private final byte[][] prefixes;   // 每列之前的分隔符（jsonl 含键名）
+        private final byte[] rowEnd;
+        private final byte[] digits = new byte[20];
+
+        RowSink(WritableByteChannel channel, boolean csv, List<String> fields) throws IOException {
+            this.out = new Utf8ChannelWriter(channel, csv ? CsvRecordSink.ESCAPES : JsonlRecordSink.ESCAPES);
+            this.csv = csv;
+            prefixes = new byte[fields.size()][];
+            for (int c = 0; c < prefixes.length; c++) {
+                String p = csv ? (c == 0 ? "" : ",") : (c == 0 ? "{" : ",") + "\"" + fields.get(c) + "\":";
+                prefixes[c] = p.getBytes(StandardCharsets.US_ASCII);
+            }
+            rowEnd = (csv ? "\n" : "}\n").getBytes(StandardCharsets.US_ASCII);
+            if (csv) out.putAscii(String.join(",", fields) + "\n");
+        }
+
+        void beginColumn(int c) throws IOException {
+            out.putBytes(prefixes[c], 0, prefixes[c].length);
+        }
+
+        void endRow() throws IOException {
+            out.putBytes(rowEnd, 0, rowEnd.length);
+        }
+
+        /** 无需转义的字符串值（号码、日期、性别等） */
+        void string(byte[] b, int off, int len) throws IOException {
+            out.ensure(len + 2);
+            if (!csv) out.buf.put((byte) '"');
+            out.buf.put(b, off, len);
+            if (!csv) out.buf.put((byte) '"');
+        }
+
+        /** 可能需要转义的文本值（姓名、地址） */
+        void text(char[] s, int from, int to) throws IOException {
+            boolean quote = !csv || needsQuote(s, from, to);
+            if (quote) out.putBytes(QUOTE, 0, 1);
+            out.putText(s, from, to);
+            if (quote) out.putBytes(QUOTE, 0, 1);
+        }
+
+        void number(long v) throws IOException {
+            int i = digits.length;
+            do {
+                digits[--i] = (byte) ('0' + v % 10);
+                v /= 10;
+            } while (v > 0);
+            out.putBytes(digits, i, digits.length - i);
+        }
+
+        private static boolean needsQuote(char[] s, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = s[i];
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** 命令行：java org.example.GenerationPlan 描述.json [-n 人数] [--seed 种子] [-o 输出文件] */
+    public static void main(String[] args) throws IOException {
+        String specPath = null, outPath = null;
+        Long count = null, seed = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-n": case "--count": count = Long.parseLong(args[++i]); break;
+                    case "--seed": seed = Long.parseLong(args[++i]); break;
+                    case "-o": case "--out": outPath = args[++i]; break;
+                    default:
+                        if (specPath != null || args[i].startsWith("-")) throw new IllegalArgumentException("未知参数: " + args[i]);
+                        specPath = args[i];
+                }
+            }
+            if (specPath == null) throw new IllegalArgumentException("缺少数据集描述文件");
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("用法: java org.example.GenerationPlan 描述.json [-n 人数] [--seed 种子] [-o 输出文件]");
+            System.exit(2);
+            return;
+        }
+        GenerationPlan plan;
+        try {
+            plan = DatasetSpec.load(Paths.get(specPath)).compile();
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(specPath + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        long n = count == null ? plan.spec.count : count, s = seed == null ? plan.spec.seed : seed;
+        long start = System.nanoTime();
+        WritableByteChannel ch = outPath == null ? Channels.newChannel(System.out)
+                : FileChannel.open(Paths.get(outPath), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        long written = plan.write(ch, n, s);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.err.printf("完成: %d 条, 用时 %.2f s, %.0f 条/秒%n", written, secs, written / Math.max(secs, 1e-9));
+    }
+}
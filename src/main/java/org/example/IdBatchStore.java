@@ -0,0 +1,100 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.IntStream;
+
+/**
+ * 界面批量预览用的紧凑号码存储：号码以 18 字节 ASCII 连续存放在按页分配的 byte[] 中（每页 65536 条），
+ * 一百万条约 18 MB，不为每行创建对象。姓名、住址等其余字段由 IdentityRecords 按下标随用随算。
+ * - 单个写线程调用 fillPage 逐页追加，size 为 volatile，读线程（如 EDT）只读取 [0, size()) 的行。
+ * - 页内号码由并行流生成；记录只取决于种子与下标，生成结果与线程数无关。
+ */
+public final class IdBatchStore {
+    static final int PAGE_BITS = 16;
+    static final int PAGE_ROWS = 1 << PAGE_BITS;
+    private static final int L = IdNumberEncoder.LENGTH;
+
+    private final IdentityRecords records;
+    private final long capacity;
+    private final byte[][] pages;
+    private volatile long size;
+
+    /**
+     * @param records 记录来源（第 i 行即 records.get(i)）
+     * @param capacity 最大行数
+     */
+    public IdBatchStore(IdentityRecords records, long capacity) {
+        if (capacity < 0 || capacity > (long) Integer.MAX_VALUE * PAGE_ROWS) throw new IllegalArgumentException("条数超出范围: " + capacity);
+        this.records = records;
+        this.capacity = capacity;
+        this.pages = new byte[(int) ((capacity + PAGE_ROWS - 1) >>> PAGE_BITS)][];
+    }
+
+    public IdentityRecords records() { return records; }
+    public long capacity() { return capacity; }
+    public long size() { return size; }
+    public boolean isFull() { return size == capacity; }
+
+    /**
+     * 生成下一页并追加（仅由一个写线程调用）。
+     * @return 本次追加的行数，已满时为 0
+     */
+    public int fillPage() {
+        long base = size;
+        int n = (int) Math.min(PAGE_ROWS, capacity - base);
+        if (n <= 0) return 0;
+        byte[] page = new byte[n * L];
+        IntStream.range(0, n).parallel().forEach(i -> records.writeId(base + i, page, i * L));
+        pages[(int) (base >>> PAGE_BITS)] = page;
+        size = base + n;  // volatile 写：页内容先于行数对读线程可见
+        return n;
+    }
+
+    /** 第 row 行号码 */
+    public String id(long row) {
+        byte[] p = page(row);
+        int off = offset(row);
+        char[] c = new char[L];
+        for (int i = 0; i < L; i++) c[i] = (char) p[off + i];
+        return new String(c);
+    }
+
+    /** 第 row 行出生日期 yyyyMMdd */
+    public int birthYmd(long row) {
+        byte[] p = page(row);
+        int off = offset(row) + 6, v = 0;
+        for (int i = 0; i < 8; i++) v = v * 10 + (p[off + i] - '0');
+        return v;
+    }
+
+    /** 第 row 行是否男性（顺序码末位奇数） */
+    public boolean isMale(long row) {
+        return ((page(row)[offset(row) + 16] - '0') & 1) == 1;
+    }
+
+    /** 把 [from, to) 行号码每行一条写入 out（直接写页内字节） */
+    public void writeLines(long from, long to, OutputStream out) throws IOException {
+        byte[] buf = new byte[(L + 1) * 4096];
+        int pos = 0;
+        for (long r = from; r < to; r++) {
+            System.arraycopy(page(r), offset(r), buf, pos, L);
+            pos += L;
+            buf[pos++] = '\n';
+            if (pos == buf.length) {
+                out.write(buf, 0, pos);
+                pos = 0;
+            }
+        }
+        if (pos > 0) out.write(buf, 0, pos);
+    }
+
+    private byte[] page(long row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("行号超出范围: " + row + " / " + size);
+        return pages[(int) (row >>> PAGE_BITS)];
+    }
+
+    private static int offset(long row) {
+        return (int) (row & (PAGE_ROWS - 1)) * L;
+    }
+}
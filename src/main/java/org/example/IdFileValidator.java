@@ -0,0 +1,381 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 大文件身份证号审计：每行一个号码，或 CSV 的某一列。
+ * - 文件按行边界切成若干段，各段由工作线程以 FileChannel 内存映射读取，直接在字节上解析，不创建 String。
+ * - 每行按 IdNumberValidator 分类（长度、格式、校验码、出生日期、地址码），另统计重复号码。
+ * - 重复检测以前 17 位数字为 long 键，存入按哈希分片、分片加锁的 LongIntHashMap，值为该号码最早出现的段号
+ *   （每个号码约 24 字节内存）。同一号码多次出现时，文件中最早的一行保留其分类，其余各行记为“重复”，与线程调度无关：
+ *   段内按行序判定；若靠前的段晚于靠后的段写入同一号码，靠后的段被标记，全部段扫描完后按最终段号重扫这些段。
+ * - 只为报告中的样例行（默认每类前 20 条）创建字符串。
+ * 使用方式：java org.example.IdFileValidator [-c 列号] [-d 分隔符] [--header] [--no-dedup] [-t 线程数] [--samples 20] 文件
+ */
+public class IdFileValidator {
+    /** 重复号码（在 IdNumberValidator 的状态码之后） */
+    public static final int DUPLICATE = IdNumberValidator.REGION_NOT_IN_EFFECT + 1;
+    private static final int CATEGORIES = DUPLICATE + 1;
+    /** 单段映射上限（MappedByteBuffer 不能超过 2 GB） */
+    private static final long MAX_SEGMENT = 1L << 30;
+    private static final int SHARDS = 64;
+
+    private final IdNumberValidator validator;
+    private final int column;
+    private final byte delimiter;
+    private final boolean header;
+    private final boolean dedup;
+    private final int maxSamples;
+
+    /**
+     * @param validator 单条校验器
+     * @param column CSV 列号（从 1 开始）；0 表示整行即号码
+     * @param delimiter 列分隔符
+     * @param header 首行为表头时跳过
+     * @param dedup 是否检测重复
+     * @param maxSamples 每类最多报告的样例行数
+     */
+    public IdFileValidator(IdNumberValidator validator, int column, char delimiter, boolean header, boolean dedup, int maxSamples) {
+        if (column < 0) throw new IllegalArgumentException("列号不能为负: " + column);
+        if (delimiter > 0x7F) throw new IllegalArgumentException("分隔符必须是 ASCII 字符: " + delimiter);
+        this.validator = validator;
+        this.column = column;
+        this.delimiter = (byte) delimiter;
+        this.header = header;
+        this.dedup = dedup;
+        this.maxSamples = Math.max(0, maxSamples);
+    }
+
+    public static String categoryName(int category) {
+        return category == DUPLICATE ? "DUPLICATE" : IdNumberValidator.statusName(category);
+    }
+
+    /** 用 threads 个线程扫描文件 */
+    public Report scan(Path file, int threads) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("线程数必须为正: " + threads);
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0, a0 = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            List<Segment> segments = split(ch, size, (int) Math.max(threads * 4L, (size + MAX_SEGMENT - 1) / MAX_SEGMENT));
+            LongIntHashMap[] seen = null;
+            if (dedup) {
+                seen = new LongIntHashMap[SHARDS];
+                int expected = (int) Math.min(1 << 20, size / IdNumberEncoder.LENGTH / SHARDS + 1);
+                for (int i = 0; i < SHARDS; i++) seen[i] = new LongIntHashMap(expected);
+            }
+            boolean[] stale = new boolean[segments.size()];
+            ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "id-file-validator");
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                LongIntHashMap[] shards = seen;
+                List<Future<?>> futures = new ArrayList<>(segments.size());
+                for (Segment s : segments) futures.add(pool.submit(() -> { scanSegment(ch, s, shards, stale); return null; }));
+                for (Future<?> f : futures) f.get();
+                // 段号已确定，重扫被更靠前的段抢先记录了号码的段
+                futures.clear();
+                for (Segment s : segments) {
+                    if (!stale[s.index]) continue;
+                    s.reset();
+                    futures.add(pool.submit(() -> { scanSegment(ch, s, shards, null); return null; }));
+                }
+                for (Future<?> f : futures) f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("文件校验被中断", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                throw new IOException("文件校验失败", e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+            Report report = merge(segments);
+            if (Metrics.ENABLED) Metrics.batch("file_scan", "文件校验", t0, a0, report.lines());
+            return report;
+        }
+    }
+
+    /** 按大致等长切分，每个切点后移到下一行行首 */
+    private static List<Segment> split(FileChannel ch, long size, int parts) throws IOException {
+        List<Segment> segments = new ArrayList<>(parts);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        for (int i = 1; i <= parts && start < size; i++) {
+            long end = i == parts ? size : Math.max(start, size / parts * i);
+            if (end < size) end = nextLineStart(ch, end, size, probe);
+            if (end <= start) continue;
+            if (end - start > Integer.MAX_VALUE) throw new IOException("单行过长，无法映射: 偏移 " + start);
+            segments.add(new Segment(segments.size(), start, end));
+            start = end;
+        }
+        return segments;
+    }
+
+    private static long nextLineStart(FileChannel ch, long pos, long size, ByteBuffer probe) throws IOException {
+        if (pos == 0) return 0;
+        long p = pos - 1; // 切点恰在行首时不后移
+        while (p < size) {
+            probe.clear();
+            int n = ch.read(probe, p);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') return p + i + 1;
+            }
+            p += n;
+        }
+        return size;
+    }
+
+    /** stale 为 null 时是重扫：号码只在映射表记录的段号为本段、且在本段首次出现时保留分类 */
+    private void scanSegment(FileChannel ch, Segment s, LongIntHashMap[] seen, boolean[] stale) throws IOException {
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, s.start, s.end - s.start);
+        byte[] id = new byte[IdNumberEncoder.LENGTH];
+        LongHashSet local = stale == null && seen != null ? new LongHashSet(1024) : null;
+        int limit = buf.limit();
+        int pos = 0;
+        long line = 0;
+        while (pos < limit) {
+            int end = pos;
+            while (end < limit && buf.get(end) != '\n') end++;
+            int category = header && s.index == 0 && line == 0 ? -1 : classify(buf, pos, end, id, s.index, seen, stale, local);
+            if (category >= 0) {
+                s.counts[category]++;
+                if (category != IdNumberValidator.VALID && s.sampleCount[category] < maxSamples) {
+                    s.sampleCount[category]++;
+                    s.samples.add(new Sample(line, category, text(buf, pos, end)));
+                }
+            }
+            line++;
+            pos = end + 1;
+        }
+        s.lines = line;
+    }
+
+    /** @return 分类；空行返回 -1 */
+    private int classify(ByteBuffer buf, int from, int to, byte[] id, int segment, LongIntHashMap[] seen, boolean[] stale, LongHashSet local) {
+        if (to > from && buf.get(to - 1) == '\r') to--;
+        if (to == from) return -1;
+        if (column > 0) {
+            int col = 1;
+            int p = from;
+            while (col < column && p < to) {
+                if (buf.get(p++) == delimiter) col++;
+            }
+            if (col < column) return IdNumberValidator.BAD_LENGTH;
+            int q = p;
+            while (q < to && buf.get(q) != delimiter) q++;
+            from = p;
+            to = q;
+        }
+        while (from < to && isBlank(buf.get(from))) from++;
+        while (to > from && isBlank(buf.get(to - 1))) to--;
+        if (to - from >= 2 && buf.get(from) == '"' && buf.get(to - 1) == '"') {
+            from++;
+            to--;
+        }
+        if (to - from != IdNumberEncoder.LENGTH) return IdNumberValidator.BAD_LENGTH;
+        buf.get(from, id);
+        int status = validator.validate(id, 0);
+        if (seen == null || status == IdNumberValidator.BAD_FORMAT || status == IdNumberValidator.BAD_CHECKSUM) return status;
+        long key = 0;
+        for (int i = 0; i < 17; i++) key = key * 10 + (id[i] - '0');
+        LongIntHashMap shard = seen[(int) IndexPermutation.mix(key) >>> 26];
+        if (local != null) return shard.get(key) == segment && local.add(key) ? status : DUPLICATE;
+        int first;
+        synchronized (shard) {
+            first = shard.putMin(key, segment);
+        }
+        if (first >= 0 && first <= segment) return DUPLICATE;
+        if (first > segment) stale[first] = true;  // 靠后的段已把这一号码计为首次出现
+        return status;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static String text(ByteBuffer buf, int from, int to) {
+        if (to > from && buf.get(to - 1) == '\r') to--;
+        byte[] b = new byte[Math.min(to - from, 200)];
+        buf.get(from, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** 汇总各段：样例行号换算成全文件行号（从 1 开始），每类保留行号最小的 maxSamples 条 */
+    private Report merge(List<Segment> segments) {
+        Report report = new Report();
+        int[] kept = new int[CATEGORIES];
+        List<Sample> all = new ArrayList<>();
+        long base = 0;
+        for (Segment s : segments) {
+            for (int i = 0; i < CATEGORIES; i++) report.counts[i] += s.counts[i];
+            for (Sample sample : s.samples) all.add(new Sample(base + sample.line + 1, sample.category, sample.text));
+            base += s.lines;
+        }
+        report.lines = base;
+        all.sort(Comparator.comparingLong(Sample::line));
+        for (Sample sample : all) {
+            if (kept[sample.category]++ < maxSamples) report.samples.add(sample);
+        }
+        return report;
+    }
+
+    /** 一段行对齐的文件区间及其局部统计 */
+    private static final class Segment {
+        final int index;
+        final long start;
+        final long end;
+        final long[] counts = new long[CATEGORIES];
+        final int[] sampleCount = new int[CATEGORIES];
+        final List<Sample> samples = new ArrayList<>();
+        long lines;
+
+        Segment(int index, long start, long end) {
+            this.index = index;
+            this.start = start;
+            this.end = end;
+        }
+
+        void reset() {
+            Arrays.fill(counts, 0);
+            Arrays.fill(sampleCount, 0);
+            samples.clear();
+            lines = 0;
+        }
+    }
+
+    /** 有问题的一行 */
+    public static final class Sample {
+        private final long line;
+        private final int category;
+        private final String text;
+
+        Sample(long line, int category, String text) {
+            this.line = line;
+            this.category = category;
+            this.text = text;
+        }
+
+        /** 行号（从 1 开始） */
+        public long line() { return line; }
+        public int category() { return category; }
+        /** 原始行内容（最多 200 字节） */
+        public String text() { return text; }
+    }
+
+    /** 扫描结果 */
+    public static final class Report {
+        private final long[] counts = new long[CATEGORIES];
+        private final List<Sample> samples = new ArrayList<>();
+        private long lines;
+
+        /** 文件总行数（含空行与表头） */
+        public long lines() { return lines; }
+        /** 某一类的行数；category 为 IdNumberValidator 状态码或 DUPLICATE */
+        public long count(int category) { return counts[category]; }
+        /** 参与校验的行数 */
+        public long checked() {
+            long n = 0;
+            for (long c : counts) n += c;
+            return n;
+        }
+        /** 有问题的行数 */
+        public long problems() { return checked() - counts[IdNumberValidator.VALID]; }
+        /** 样例行，按行号排序 */
+        public List<Sample> samples() { return samples; }
+
+        public void print(PrintStream out) {
+            out.printf("总行数: %d, 校验: %d, 有效: %d, 问题: %d%n", lines, checked(), counts[IdNumberValidator.VALID], problems());
+            for (int i = 1; i < CATEGORIES; i++) {
+                if (counts[i] > 0) out.printf("  %-15s %d%n", categoryName(i), counts[i]);
+            }
+            for (Sample s : samples) out.printf("第 %d 行 %s: %s%n", s.line, categoryName(s.category), s.text);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int column = 0;
+        char delimiter = ',';
+        boolean header = false;
+        boolean dedup = true;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int samples = 20;
+        String file = null;
+        String regionsFile = null;
+        String historyFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-c": case "--column": column = Integer.parseInt(args[++i]); break;
+                    case "-d": case "--delimiter":
+                        String d = args[++i];
+                        delimiter = "\\t".equals(d) ? '\t' : d.charAt(0);
+                        break;
+                    case "--header": header = true; break;
+                    case "--no-dedup": dedup = false; break;
+                    case "-t": case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--samples": samples = Integer.parseInt(args[++i]); break;
+                    case "--regions": regionsFile = args[++i]; break;
+                    case "--history": historyFile = args[++i]; break;
+                    default:
+                        if (args[i].startsWith("-") || file != null) throw new IllegalArgumentException("未知参数: " + args[i]);
+                        file = args[i];
+                }
+            }
+            if (file == null) throw new IllegalArgumentException("缺少输入文件");
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("用法: java org.example.IdFileValidator [-c 列号] [-d 分隔符] [--header] [--no-dedup] [-t 线程数] [--samples 20] [--regions 区划文件] [--history 历史文件|none] 文件");
+            System.exit(2);
+            return;
+        }
+        if (regionsFile != null) {
+            try {
+                AddressCodeUtil.load(Paths.get(regionsFile));
+            } catch (IOException e) {
+                System.err.println("未能加载区划文件: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (AddressCodeUtil.PROVINCES.isEmpty()) {
+            System.err.println("未能加载地址数据，请检查 resources/output.json");
+            System.exit(1);
+        }
+        IdNumberValidator validator = IdNumberValidator.defaultValidator();
+        if (historyFile != null) {
+            try {
+                RegionHistory history = "none".equals(historyFile) ? RegionHistory.NONE : RegionHistory.load(Paths.get(historyFile));
+                validator = new IdNumberValidator(AddressCodeUtil.regionIndex(), history, LocalDate.of(1900, 1, 1), LocalDate.now());
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(2);
+            }
+        }
+        long start = System.nanoTime();
+        IdFileValidator scanner = new IdFileValidator(validator, column, delimiter, header, dedup, samples);
+        Report report = scanner.scan(Paths.get(file), threads);
+        report.print(System.out);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.err.printf("完成: %d 行, 用时 %.2f s, %.0f 行/秒%n", report.lines(), secs, report.lines() / Math.max(secs, 1e-9));
+        if (report.problems() > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,317 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 无界面服务模式：基于 JDK 自带的 com.sun.net.httpserver 提供号码生成与校验接口。
+ * - GET /generate?count=1000&format=jsonl：生成号码（format=txt）或完整记录（csv / jsonl / pgcopy），
+ *   可选参数 region（地址码前缀或“省市区”全名，逗号分隔）、from、to、male-ratio、seed、weighted=true、unique=true（仅 txt）。
+ * - POST /validate（请求体每行一个号码）或 GET /validate?id=...：逐行返回校验结果，format=jsonl（默认）或 csv。
+ * - GET /metrics：Prometheus 文本格式的统计（见 Metrics，需 -Didgen.metrics=true，否则为空）。
+ * - 响应一律分块传输（chunked），边生成边写出，内存占用与条数无关；客户端断开时停止生成。
+ * - 每个请求一个线程：运行在 Java 21+ 时使用虚拟线程（反射调用 Executors.newVirtualThreadPerTaskExecutor），
+ *   否则退回守护线程的缓存线程池。
+ * - 命令行：java org.example.IdGenServer [-p 8080] [--host 127.0.0.1] [--max-count 10000000]
+ */
+public final class IdGenServer implements Closeable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_MAX_COUNT = 10_000_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long maxCount;
+
+    /**
+     * @param address 监听地址，端口为 0 时自动分配（见 port()）
+     * @param maxCount 单次请求允许的最大条数
+     */
+    public IdGenServer(InetSocketAddress address, long maxCount) throws IOException {
+        this.maxCount = maxCount;
+        this.server = HttpServer.create(address, 0);
+        this.executor = newExecutor();
+        server.setExecutor(executor);
+        server.createContext("/generate", this::handleGenerate);
+        server.createContext("/validate", this::handleValidate);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /** 虚拟线程执行器（Java 21+），不可用时为缓存线程池 */
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "idgen-http-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public IdGenServer start() {
+        server.start();
+        return this;
+    }
+
+    /** 实际监听的端口 */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleGenerate(HttpExchange ex) throws IOException {
+        try (ex) {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                sendError(ex, 405, "仅支持 GET");
+                return;
+            }
+            Map<String, String> q = query(ex);
+            String format = q.getOrDefault("format", "jsonl");
+            long count, seed;
+            BatchGenerator template;
+            IdSource unique = null;
+            try {
+                if (!"txt".equals(format) && (!RecordSink.FORMATS.contains(format) || "columnar".equals(format))) {
+                    throw new IllegalArgumentException("未知格式: " + format + "，可选 txt, csv, jsonl, pgcopy");
+                }
+                count = Long.parseLong(q.getOrDefault("count", "10"));
+                if (count < 0 || count > maxCount) throw new IllegalArgumentException("count 应在 0~" + maxCount + " 之间");
+                List<String> prefixes = regionPrefixes(q.get("region"));
+                LocalDate from = LocalDate.parse(q.getOrDefault("from", "1950-01-01"));
+                LocalDate to = q.containsKey("to") ? LocalDate.parse(q.get("to")) : LocalDate.now().minusYears(18);
+                double maleRatio = Double.parseDouble(q.getOrDefault("male-ratio", "0.5"));
+                seed = q.containsKey("seed") ? Long.parseLong(q.get("seed")) : System.nanoTime();
+                template = new BatchGenerator(prefixes, from, to, maleRatio, seed);
+                if ("true".equals(q.get("unique"))) {
+                    if (!"txt".equals(format)) throw new IllegalArgumentException("unique 仅支持 format=txt");
+                    UniqueIdGenerator u = new UniqueIdGenerator(prefixes, from, to, maleRatio, seed);
+                    // 响应头发出后无法再报错：数量不超过单一性别空间时任一性别都不会耗尽
+                    if (count > u.capacity()) throw new IllegalArgumentException("count 超过所选地区与日期的唯一号码空间 " + u.capacity());
+                    unique = u;
+                }
+                if ("true".equals(q.get("weighted"))) template = template.weighted(PopulationModel.defaults(), LocalDate.now());
+            } catch (RuntimeException e) {
+                sendError(ex, 400, e.getMessage());
+                return;
+            }
+            ex.getResponseHeaders().set("Content-Type", contentType(format));
+            ex.sendResponseHeaders(200, 0);  // 0 表示分块传输
+            OutputStream body = ex.getResponseBody();
+            if ("txt".equals(format)) {
+                (unique != null ? unique : template).writeLines(count, body);
+            } else {
+                try (RecordSink sink = RecordSink.create(format, Channels.newChannel(body))) {
+                    new RecordGenerator(template, seed).writeTo(sink, count);
+                }
+            }
+        }
+    }
+
+    private void handleValidate(HttpExchange ex) throws IOException {
+        try (ex) {
+            String method = ex.getRequestMethod();
+            if (!"GET".equals(method) && !"POST".equals(method)) {
+                sendError(ex, 405, "仅支持 GET / POST");
+                return;
+            }
+            Map<String, String> q = query(ex);
+            String format = q.getOrDefault("format", "jsonl");
+            if (!"jsonl".equals(format) && !"csv".equals(format)) {
+                sendError(ex, 400, "未知格式: " + format + "，可选 jsonl, csv");
+                return;
+            }
+            IdNumberValidator validator = IdNumberValidator.defaultValidator();
+            IdNumberValidator.ParsedId parsed = new IdNumberValidator.ParsedId();
+            ex.getResponseHeaders().set("Content-Type", contentType(format));
+            ex.sendResponseHeaders(200, 0);
+            try (OutputStream out = new BufferedOutputStream(ex.getResponseBody(), 1 << 16)) {
+                StringBuilder sb = new StringBuilder(128);
+                if ("csv".equals(format)) out.write("line,id,status,birth,gender\n".getBytes(StandardCharsets.US_ASCII));
+                if ("GET".equals(method)) {
+                    String id = q.get("id");
+                    if (id != null) writeResult(out, sb, format, 1, id.trim(), validator.parse(id.trim(), parsed), parsed);
+                    return;
+                }
+                BufferedReader in = new BufferedReader(new InputStreamReader(ex.getRequestBody(), StandardCharsets.UTF_8));
+                String line;
+                long no = 0;
+                while ((line = in.readLine()) != null) {
+                    no++;
+                    String id = line.trim();
+                    if (id.isEmpty()) continue;
+                    writeResult(out, sb, format, no, id, validator.parse(id, parsed), parsed);
+                }
+            }
+        }
+    }
+
+    private void handleMetrics(HttpExchange ex) throws IOException {
+        try (ex) {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                sendError(ex, 405, "仅支持 GET");
+                return;
+            }
+            byte[] b = Metrics.prometheus().getBytes(StandardCharsets.UTF_8);
+            ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            ex.sendResponseHeaders(200, b.length == 0 ? -1 : b.length);
+            if (b.length > 0) ex.getResponseBody().write(b);
+        }
+    }
+
+    private static void writeResult(OutputStream out, StringBuilder sb, String format, long line, String id,
+                                    int status, IdNumberValidator.ParsedId parsed) throws IOException {
+        sb.setLength(0);
+        boolean fields = status == IdNumberValidator.VALID;
+        if ("csv".equals(format)) {
+            sb.append(line).append(',');
+            appendCsv(sb, id);
+            sb.append(',').append(IdNumberValidator.statusName(status)).append(',');
+            if (fields) sb.append(parsed.birthDate()).append(',').append(parsed.isMale() ? "男" : "女");
+            else sb.append(',');
+        } else {
+            sb.append("{\"line\":").append(line).append(",\"id\":");
+            appendJson(sb, id);
+            sb.append(",\"status\":\"").append(IdNumberValidator.statusName(status)).append('"');
+            if (fields) {
+                sb.append(",\"birth\":\"").append(parsed.birthDate())
+                        .append("\",\"gender\":\"").append(parsed.isMale() ? "男" : "女").append('"');
+            }
+            sb.append('}');
+        }
+        sb.append('\n');
+        out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** 用户输入原样回显，含逗号、引号或换行时加引号 */
+    private static void appendCsv(StringBuilder sb, String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static void appendJson(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    /**
+     * region 参数：逗号分隔，每项为地址码前缀（如 44、4401）或可由 AddressCodeUtil.getAddressCodeByPath 解析的全名
+     * （如“广东省广州市天河区”），后者换成对应地址码。
+     */
+    static List<String> regionPrefixes(String region) {
+        List<String> prefixes = new ArrayList<>();
+        if (region == null) return prefixes;
+        for (String p : region.split(",")) {
+            p = p.trim();
+            if (p.isEmpty()) continue;
+            if (!p.chars().allMatch(Character::isDigit)) {
+                String code = AddressCodeUtil.getAddressCodeByPath(p);
+                if (code == null) {
+                    // 只有省名时取省级前缀
+                    String province = AddressCodeUtil.getProvinceCode(p);
+                    if (province == null) throw new IllegalArgumentException("未知地区: " + p);
+                    code = province.substring(0, 2);
+                }
+                p = code;
+            }
+            prefixes.add(p);
+        }
+        return prefixes;
+    }
+
+    private static String contentType(String format) {
+        switch (format) {
+            case "jsonl": return "application/x-ndjson; charset=utf-8";
+            case "csv": return "text/csv; charset=utf-8";
+            default: return "text/plain; charset=utf-8";
+        }
+    }
+
+    private static void sendError(HttpExchange ex, int code, String message) throws IOException {
+        byte[] b = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        ex.sendResponseHeaders(code, b.length);
+        ex.getResponseBody().write(b);
+    }
+
+    static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> m = new HashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return m;
+        for (String kv : raw.split("&")) {
+            if (kv.isEmpty()) continue;
+            int eq = kv.indexOf('=');
+            String k = URLDecoder.decode(eq < 0 ? kv : kv.substring(0, eq), StandardCharsets.UTF_8);
+            String v = eq < 0 ? "" : URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8);
+            m.put(k, v);
+        }
+        return m;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String host = "127.0.0.1";
+        long maxCount = DEFAULT_MAX_COUNT;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-p": case "--port": port = Integer.parseInt(args[++i]); break;
+                    case "--host": host = args[++i]; break;
+                    case "--max-count": maxCount = Long.parseLong(args[++i]); break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("用法: java org.example.IdGenServer [-p 8080] [--host 127.0.0.1] [--max-count 10000000]");
+            System.exit(2);
+            return;
+        }
+        if (AddressCodeUtil.PROVINCES.isEmpty()) {
+            System.err.println("未能加载地址数据，请检查 resources/output.json");
+            System.exit(1);
+        }
+        IdGenServer s = new IdGenServer(new InetSocketAddress(host, port), maxCount).start();
+        System.err.println("服务已启动: http://" + host + ":" + s.port() + "/generate?count=10 , /validate");
+    }
+}
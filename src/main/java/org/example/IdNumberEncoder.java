@@ -0,0 +1,130 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * 无分配的身份证号编码器：把 地址码(6) + 生日(8) + 顺序码(3) + 校验码(1) 共 18 个 ASCII 字符
+ * 直接写入调用方提供的 byte[] / char[] / ByteBuffer 指定偏移处。
+ * - 所有参数均为 int（地址码如 440106，生日如 19900101，顺序码 0-999），写入过程中同步累加 GB 11643 加权和。
+ * - 不做合法性校验（调用方已在批量循环外校验），每条号码零对象分配。
+ */
+public final class IdNumberEncoder {
+    /** 18 位身份证号长度 */
+    public static final int LENGTH = 18;
+
+    private IdNumberEncoder() {}
+
+    /**
+     * 写入 dst[off, off+18)。
+     * @return 写入后的偏移
+     */
+    public static int encode(byte[] dst, int off, int addressCode, int birthYmd, int seq) {
+        int sum = 0;
+        for (int i = 5; i >= 0; i--) {
+            int d = addressCode % 10;
+            addressCode /= 10;
+            dst[off + i] = (byte) ('0' + d);
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        for (int i = 13; i >= 6; i--) {
+            int d = birthYmd % 10;
+            birthYmd /= 10;
+            dst[off + i] = (byte) ('0' + d);
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        for (int i = 16; i >= 14; i--) {
+            int d = seq % 10;
+            seq /= 10;
+            dst[off + i] = (byte) ('0' + d);
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        dst[off + 17] = (byte) IdNumberUtil.CHECK_CODES[sum % 11];
+        return off + LENGTH;
+    }
+
+    /**
+     * 写入 dst[off, off+18)。
+     * @return 写入后的偏移
+     */
+    public static int encode(char[] dst, int off, int addressCode, int birthYmd, int seq) {
+        int sum = 0;
+        for (int i = 5; i >= 0; i--) {
+            int d = addressCode % 10;
+            addressCode /= 10;
+            dst[off + i] = (char) ('0' + d);
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        for (int i = 13; i >= 6; i--) {
+            int d = birthYmd % 10;
+            birthYmd /= 10;
+            dst[off + i] = (char) ('0' + d);
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        for (int i = 16; i >= 14; i--) {
+            int d = seq % 10;
+            seq /= 10;
+            dst[off + i] = (char) ('0' + d);
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        dst[off + 17] = IdNumberUtil.CHECK_CODES[sum % 11];
+        return off + LENGTH;
+    }
+
+    /**
+     * 以绝对下标写入 dst[index, index+18)，不改变 position（适用于直接缓冲区）。
+     * @return 写入后的下标
+     */
+    public static int encode(ByteBuffer dst, int index, int addressCode, int birthYmd, int seq) {
+        int sum = 0;
+        for (int i = 5; i >= 0; i--) {
+            int d = addressCode % 10;
+            addressCode /= 10;
+            dst.put(index + i, (byte) ('0' + d));
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        for (int i = 13; i >= 6; i--) {
+            int d = birthYmd % 10;
+            birthYmd /= 10;
+            dst.put(index + i, (byte) ('0' + d));
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        for (int i = 16; i >= 14; i--) {
+            int d = seq % 10;
+            seq /= 10;
+            dst.put(index + i, (byte) ('0' + d));
+            sum += d * IdNumberUtil.WEIGHTS[i];
+        }
+        dst.put(index + 17, (byte) IdNumberUtil.CHECK_CODES[sum % 11]);
+        return index + LENGTH;
+    }
+
+    /** 在 position 处写入 18 字节并前移 position */
+    public static void put(ByteBuffer dst, int addressCode, int birthYmd, int seq) {
+        int pos = dst.position();
+        dst.position(encode(dst, pos, addressCode, birthYmd, seq));
+    }
+
+    /** 计算校验码（与 IdNumberUtil.calculateCheckCode 等价） */
+    public static char checkCode(int addressCode, int birthYmd, int seq) {
+        int sum = 0;
+        for (int i = 5; i >= 0; i--) {
+            sum += addressCode % 10 * IdNumberUtil.WEIGHTS[i];
+            addressCode /= 10;
+        }
+        for (int i = 13; i >= 6; i--) {
+            sum += birthYmd % 10 * IdNumberUtil.WEIGHTS[i];
+            birthYmd /= 10;
+        }
+        for (int i = 16; i >= 14; i--) {
+            sum += seq % 10 * IdNumberUtil.WEIGHTS[i];
+            seq /= 10;
+        }
+        return IdNumberUtil.CHECK_CODES[sum % 11];
+    }
+
+    /** LocalDate 转 yyyyMMdd 整数 */
+    public static int toYmd(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+}
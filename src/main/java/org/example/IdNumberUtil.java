@@ -2,59 +2,102 @@ package org.example;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 身份证号生成工具：18 位号码按 GB 11643 校验码规则。
  * 结构：地址码(6) + 生日(yyyyMMdd) + 顺序码(3，奇数男/偶数女) + 校验码(1)
+ * 批量场景请使用 IdNumberEncoder 直接写入缓冲区。
  */
 public class IdNumberUtil {
+    /** 前 17 位加权因子 */
+    static final int[] WEIGHTS = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+    /** 加权和模 11 后对应的校验码 */
+    static final char[] CHECK_CODES = {'1','0','X','9','8','7','6','5','4','3','2'};
+    private static final DateTimeFormatter BIRTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
 
     /**
      * 生成 18 位身份证号。
-     * @param addressCode 6 位地址码
+     * @param addressCode 6 位地址码，按原样写入（出生日期当天未生效的代码可先用 RegionHistory.codeAt 换算）
      * @param birth yyyyMMdd 格式生日
      * @param male 是否男性（奇数）
      * @param seqInput 可选顺序码（1-999），为 null/空则自动生成并按性别修正奇偶
      */
     public static String generateIdNumber(String addressCode, String birth, boolean male, String seqInput) {
-        String seq = seqInput;
-        if (seq == null || seq.isEmpty()) {
-            int r = new Random().nextInt(1000); // 0-999
-            r = male ? (r | 1) : (r & ~1);       // 奇数男、偶数女
-            seq = String.format("%03d", r);
+        if (!Metrics.ENABLED) return generate(addressCode, birth, male, seqInput);
+        long t0 = System.nanoTime();
+        String id = generate(addressCode, birth, male, seqInput);
+        GENERATE_TIMER.stop(t0);
+        return id;
+    }
+
+    /** 统计关闭时不注册，/metrics 与 JMX 中不出现 */
+    private static final Metrics.Timer GENERATE_TIMER = Metrics.ENABLED ? Metrics.timer("generate_id", "generateIdNumber 单次耗时") : null;
+
+    private static String generate(String addressCode, String birth, boolean male, String seqInput) {
+        int seq;
+        if (seqInput == null || seqInput.isEmpty()) {
+            int r = ThreadLocalRandom.current().nextInt(1000); // 0-999
+            seq = male ? (r | 1) : (r & ~1);                   // 奇数男、偶数女
         } else {
             try {
-                int v = Integer.parseInt(seq);
+                int v = Integer.parseInt(seqInput);
                 if (v < 1 || v > 999) throw new NumberFormatException();
                 boolean isOdd = (v % 2) == 1;
                 if (male && !isOdd) v += 1; // 调整为奇数
                 if (!male && isOdd) v += 1; // 调整为偶数
                 if (v > 999) v -= 2; // 边界修正
-                seq = String.format("%03d", v);
+                seq = v;
             } catch (NumberFormatException ex) {
-                seq = male ? "001" : "002";
+                seq = male ? 1 : 2;
             }
         }
 
-        String base = addressCode + birth + seq;
+        if (addressCode.length() == 6 && birth.length() == 8) {
+            // 常规路径：直接拼入 char[18]，避免字符串拼接与 String.format
+            char[] id = new char[18];
+            addressCode.getChars(0, 6, id, 0);
+            birth.getChars(0, 8, id, 6);
+            id[14] = (char) ('0' + seq / 100);
+            id[15] = (char) ('0' + seq / 10 % 10);
+            id[16] = (char) ('0' + seq % 10);
+            int sum = 0;
+            for (int i = 0; i < 17; i++) {
+                sum += (id[i] - '0') * WEIGHTS[i];
+            }
+            id[17] = CHECK_CODES[sum % 11];
+            return new String(id);
+        }
+        String base = addressCode + birth + String.format("%03d", seq);
         char check = calculateCheckCode(base);
         return base + check;
     }
 
     /** GB 11643 校验码计算 */
     public static char calculateCheckCode(String base17) {
-        int[] weights = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
-        char[] codes = {'1','0','X','9','8','7','6','5','4','3','2'};
         int sum = 0;
         for (int i = 0; i < base17.length(); i++) {
-            sum += (base17.charAt(i) - '0') * weights[i];
+            sum += (base17.charAt(i) - '0') * WEIGHTS[i];
         }
-        return codes[sum % 11];
+        return CHECK_CODES[sum % 11];
+    }
+
+    /** GB 11643 校验码计算：直接读取 ASCII 字节中从 off 开始的 17 位数字（批量生成用，不创建字符串） */
+    public static char calculateCheckCode(byte[] base17, int off) {
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (base17[off + i] - '0') * WEIGHTS[i];
+        }
+        return CHECK_CODES[sum % 11];
+    }
+
+    /** 校验 18 位身份证号：格式、校验码、出生日期与地址码（含地址码在出生日期是否有效，详细状态见 IdNumberValidator） */
+    public static boolean isValidIdNumber(String id) {
+        return IdNumberValidator.defaultValidator().validate(id) == IdNumberValidator.VALID;
     }
 
     /** 将 LocalDate 转 yyyyMMdd 字符串（辅助） */
     public static String formatBirth(LocalDate date) {
-        return date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        return date.format(BIRTH_FORMAT);
     }
 }
\ No newline at end of file
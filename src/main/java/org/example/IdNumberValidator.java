@@ -0,0 +1,249 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * 18 位身份证号校验与解析：格式、GB 11643 校验码、出生日期合法性、地址码是否存在于区划数据。
+ * - 结果用 int 状态码表示（VALID / BAD_LENGTH / ...），解析结果写入调用方复用的 ParsedId，单条校验零对象分配。
+ * - 地址码存在性用覆盖 000000-999999 的位图判断（128 KB），O(1)；省、市、区任一级代码均视为存在。
+ * - 给定 RegionHistory 时，历史代码也视为存在，但须在出生日期当天有效，否则为 REGION_NOT_IN_EFFECT
+ *   （如 2010 年后出生却使用已并入东城区的 110103 崇文区）；没有历史记录的代码只做一次位图判断。
+ * - 批量接口对定长记录做固定 17 次迭代的直线循环，无字符串、无对象创建，便于 JIT 展开和向量化。
+ * - 校验码末位接受大写 X 与小写 x。
+ */
+public final class IdNumberValidator {
+    public static final int VALID = 0;
+    public static final int BAD_LENGTH = 1;
+    public static final int BAD_FORMAT = 2;
+    public static final int BAD_CHECKSUM = 3;
+    public static final int BAD_DATE = 4;
+    public static final int UNKNOWN_REGION = 5;
+    /** 地址码存在，但出生日期当天尚未设立或已撤销 */
+    public static final int REGION_NOT_IN_EFFECT = 6;
+
+    private static final String[] STATUS_NAMES = {"VALID", "BAD_LENGTH", "BAD_FORMAT", "BAD_CHECKSUM", "BAD_DATE", "UNKNOWN_REGION",
+            "REGION_NOT_IN_EFFECT"};
+
+    /** 加权和模 11 -> 期望的校验字符 */
+    private static final byte[] CHECK_BYTES = new byte[11];
+    static {
+        for (int i = 0; i < 11; i++) CHECK_BYTES[i] = (byte) IdNumberUtil.CHECK_CODES[i];
+    }
+
+    private static volatile IdNumberValidator defaultValidator;
+
+    private final RegionIndex regions;
+    private final RegionHistory history;
+    private final long[] regionBits = new long[1_000_000 / 64 + 1];
+    private final int minYmd;
+    private final int maxYmd;
+    long rebuildAt = Long.MAX_VALUE;  // 默认校验器到这一时刻（次日零点，毫秒）后重建，使“今天”随日期推移
+
+    /**
+     * @param regions 区划索引
+     * @param minBirth 允许的最早出生日期（含）
+     * @param maxBirth 允许的最晚出生日期（含）
+     */
+    public IdNumberValidator(RegionIndex regions, LocalDate minBirth, LocalDate maxBirth) {
+        this(regions, RegionHistory.NONE, minBirth, maxBirth);
+    }
+
+    /**
+     * @param history 区划代码有效期，地址码须在出生日期当天有效
+     */
+    public IdNumberValidator(RegionIndex regions, RegionHistory history, LocalDate minBirth, LocalDate maxBirth) {
+        this.regions = regions;
+        this.history = history;
+        for (int i = 0; i < regions.provinceCount(); i++) mark(regions.provinceCode(i));
+        for (int i = 0; i < regions.cityCount(); i++) mark(regions.cityCode(i));
+        for (int i = 0; i < regions.districtCount(); i++) mark(regions.districtCode(i));
+        for (int code : history.codes()) mark(code);
+        this.minYmd = IdNumberEncoder.toYmd(minBirth);
+        this.maxYmd = IdNumberEncoder.toYmd(maxBirth);
+    }
+
+    /** 出生日期范围 1900-01-01 至今天 */
+    public IdNumberValidator(RegionIndex regions) {
+        this(regions, LocalDate.of(1900, 1, 1), LocalDate.now());
+    }
+
+    /**
+     * 基于 AddressCodeUtil 当前区划数据与内置区划历史的校验器，出生日期范围 1900-01-01 至今天。
+     * 区划数据重新加载后、或跨过零点后自动重建（长期运行的服务中当天出生的号码不会被判为日期无效）。
+     */
+    public static IdNumberValidator defaultValidator() {
+        IdNumberValidator v = defaultValidator;
+        RegionIndex current = AddressCodeUtil.regionIndex();
+        if (v == null || v.regions != current || System.currentTimeMillis() >= v.rebuildAt) {
+            LocalDate today = LocalDate.now();
+            v = new IdNumberValidator(current, RegionHistory.defaults(), LocalDate.of(1900, 1, 1), today);
+            v.rebuildAt = today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            defaultValidator = v;
+        }
+        return v;
+    }
+
+    private void mark(int code) {
+        regionBits[code >>> 6] |= 1L << code;
+    }
+
+    /** 地址码是否存在 */
+    public boolean isKnownRegion(int code) {
+        return code >= 0 && code < 1_000_000 && (regionBits[code >>> 6] & (1L << code)) != 0;
+    }
+
+    public static String statusName(int status) {
+        return status >= 0 && status < STATUS_NAMES.length ? STATUS_NAMES[status] : "UNKNOWN";
+    }
+
+    public int validate(CharSequence id) {
+        return parse(id, null);
+    }
+
+    /** 校验 buf[off, off+18) 的 ASCII 号码 */
+    public int validate(byte[] buf, int off) {
+        return parse(buf, off, null);
+    }
+
+    /**
+     * 校验并解析；out 不为 null 时写入各字段（仅当格式与校验码通过时字段有意义）。
+     * @return 状态码
+     */
+    public int parse(CharSequence id, ParsedId out) {
+        if (id == null || id.length() != IdNumberEncoder.LENGTH) return BAD_LENGTH;
+        int sum = 0, bad = 0;
+        int address = 0, birth = 0, seq = 0;
+        for (int i = 0; i < 17; i++) {
+            int d = id.charAt(i) - '0';
+            bad |= d | (9 - d);          // 非数字时出现负数，符号位置 1
+            sum += d * IdNumberUtil.WEIGHTS[i];
+            if (i < 6) address = address * 10 + d;
+            else if (i < 14) birth = birth * 10 + d;
+            else seq = seq * 10 + d;
+        }
+        char last = id.charAt(17);
+        return finish(bad, sum, last == 'x' ? 'X' : last, address, birth, seq, out);
+    }
+
+    /** 同 parse(CharSequence, ParsedId)，输入为 ASCII 字节 */
+    public int parse(byte[] buf, int off, ParsedId out) {
+        if (buf.length - off < IdNumberEncoder.LENGTH) return BAD_LENGTH;
+        int sum = 0, bad = 0;
+        int address = 0, birth = 0, seq = 0;
+        for (int i = 0; i < 17; i++) {
+            int d = buf[off + i] - '0';
+            bad |= d | (9 - d);
+            sum += d * IdNumberUtil.WEIGHTS[i];
+            if (i < 6) address = address * 10 + d;
+            else if (i < 14) birth = birth * 10 + d;
+            else seq = seq * 10 + d;
+        }
+        int last = buf[off + 17];
+        return finish(bad, sum, last == 'x' ? 'X' : last, address, birth, seq, out);
+    }
+
+    private int finish(int bad, int sum, int last, int address, int birth, int seq, ParsedId out) {
+        if (bad < 0 || (last != 'X' && (last < '0' || last > '9'))) return BAD_FORMAT;
+        if (CHECK_BYTES[sum % 11] != last) return BAD_CHECKSUM;
+        if (out != null) {
+            out.addressCode = address;
+            out.birthYmd = birth;
+            out.seq = seq;
+            out.checkCode = (char) last;
+        }
+        if (!isValidDate(birth)) return BAD_DATE;
+        if (!isKnownRegion(address)) return UNKNOWN_REGION;
+        if (!history.isInEffect(address, birth)) return REGION_NOT_IN_EFFECT;
+        return VALID;
+    }
+
+    private boolean isValidDate(int ymd) {
+        if (ymd < minYmd || ymd > maxYmd) return false;
+        int month = ymd / 100 % 100;
+        int day = ymd % 100;
+        return month >= 1 && month <= 12 && day >= 1 && day <= IdRangeCursor.lengthOfMonth(ymd / 10000, month);
+    }
+
+    /**
+     * 批量校验定长记录：第 i 条位于 data[off + i*stride, off + i*stride + 18)，状态写入 results[i]。
+     * 每条记录先用固定 17 次、无分支的直线循环得到格式标记与加权和，通过后再判定日期与地址码。
+     * @return 有效条数
+     */
+    public int validateBatch(byte[] data, int off, int stride, int count, byte[] results) {
+        int valid = 0;
+        for (int r = 0; r < count; r++) {
+            int p = off + r * stride;
+            int sum = 0, bad = 0;
+            for (int i = 0; i < 17; i++) {
+                int d = data[p + i] - '0';
+                bad |= d | (9 - d);
+                sum += d * IdNumberUtil.WEIGHTS[i];
+            }
+            int last = data[p + 17];
+            if (last == 'x') last = 'X';
+            int status;
+            if (bad < 0 || (last != 'X' && (last < '0' || last > '9'))) {
+                status = BAD_FORMAT;
+            } else if (CHECK_BYTES[sum % 11] != last) {
+                status = BAD_CHECKSUM;
+            } else {
+                status = checkFields(data, p);
+            }
+            results[r] = (byte) status;
+            if (status == VALID) valid++;
+        }
+        return valid;
+    }
+
+    /** 批量校验 ids[from, to)，状态写入 results[i - from] */
+    public int validateBatch(CharSequence[] ids, int from, int to, byte[] results) {
+        int valid = 0;
+        for (int i = from; i < to; i++) {
+            int status = parse(ids[i], null);
+            results[i - from] = (byte) status;
+            if (status == VALID) valid++;
+        }
+        return valid;
+    }
+
+    private int checkFields(byte[] data, int p) {
+        int address = 0, birth = 0;
+        for (int i = 0; i < 6; i++) address = address * 10 + (data[p + i] - '0');
+        for (int i = 6; i < 14; i++) birth = birth * 10 + (data[p + i] - '0');
+        if (!isValidDate(birth)) return BAD_DATE;
+        if (!isKnownRegion(address)) return UNKNOWN_REGION;
+        if (!history.isInEffect(address, birth)) return REGION_NOT_IN_EFFECT;
+        return VALID;
+    }
+
+    /**
+     * 可复用的解析结果（调用方持有一个实例反复传入，避免每条记录分配对象）。
+     */
+    public static final class ParsedId {
+        int addressCode;
+        int birthYmd;
+        int seq;
+        char checkCode;
+
+        public int addressCode() { return addressCode; }
+        public int birthYmd() { return birthYmd; }
+        public int birthYear() { return birthYmd / 10000; }
+        public int birthMonth() { return birthYmd / 100 % 100; }
+        public int birthDay() { return birthYmd % 100; }
+        public int seq() { return seq; }
+        /** 顺序码奇数为男 */
+        public boolean isMale() { return (seq & 1) == 1; }
+        public char checkCode() { return checkCode; }
+
+        /** 地址码在区划索引中的区级下标，非区级代码返回 -1 */
+        public int districtIndex(RegionIndex regions) {
+            return regions.districtIndexOf(addressCode);
+        }
+
+        /** 出生日期（会创建 LocalDate，仅在需要时调用） */
+        public LocalDate birthDate() {
+            return LocalDate.of(birthYear(), birthMonth(), birthDay());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.example;
+
+import java.time.LocalDate;
+
+/**
+ * 顺序遍历 地址码 × 出生日期 × 顺序码 空间的游标，按 地址 → 日期 → 顺序码（最内层）的次序前进。
+ * - 内部维护当前号码的 17 位 ASCII 数字及其 GB 11643 加权和；前进时只改写发生变化的数字并按权重修正加权和，
+ *   顺序码、日期（含跨月/跨年/闰年）与地址切换都是 O(1)，不会为每条号码重算 17 位加权和。
+ * - 日期按年/月/日整数递增，不创建 LocalDate。
+ * - 用法：{@code while (cursor.next()) off = cursor.write(buf, off);}
+ */
+public final class IdRangeCursor {
+    private final int[] addresses;
+    private final int fromYmd;
+    private final int days;
+    private final int seqFrom;
+    private final int seqStep;
+    private final int seqCount;
+    private final long size;
+
+    private final byte[] digits = new byte[IdNumberEncoder.LENGTH];
+    private int sum;                 // 前 17 位加权和
+    private int ai, di, si;          // 当前 地址/日期/顺序码 下标
+    private int year, month, day;
+    private boolean started;
+
+    /**
+     * @param addresses 6 位地址码（最外层）
+     * @param from 出生日期起（含）
+     * @param to 出生日期止（含）
+     * @param seqFrom 顺序码起（0-999）
+     * @param seqTo 顺序码止（含）
+     * @param seqStep 顺序码步长（1 为全部，2 为只取同奇偶，即单一性别）
+     */
+    public IdRangeCursor(int[] addresses, LocalDate from, LocalDate to, int seqFrom, int seqTo, int seqStep) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("出生日期区间无效: " + from + " > " + to);
+        if (seqFrom < 0 || seqTo > 999 || seqFrom > seqTo || seqStep < 1) {
+            throw new IllegalArgumentException("顺序码区间无效: " + seqFrom + "-" + seqTo + "/" + seqStep);
+        }
+        this.addresses = addresses.clone();
+        this.fromYmd = IdNumberEncoder.toYmd(from);
+        this.days = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        this.seqFrom = seqFrom;
+        this.seqStep = seqStep;
+        this.seqCount = (seqTo - seqFrom) / seqStep + 1;
+        this.size = (long) this.addresses.length * days * seqCount;
+        for (int i = 0; i < 17; i++) digits[i] = '0';
+    }
+
+    /** 单一地址码、单一性别（男奇女偶）的全部顺序码 */
+    public static IdRangeCursor forGender(int address, LocalDate from, LocalDate to, boolean male) {
+        return new IdRangeCursor(new int[]{address}, from, to, male ? 1 : 0, male ? 999 : 998, 2);
+    }
+
+    /** 遍历空间总条数 */
+    public long size() {
+        return size;
+    }
+
+    /** 前进到下一条号码；遍历结束返回 false */
+    public boolean next() {
+        if (!started) {
+            started = true;
+            if (size == 0) return false;
+            seek(0);
+            return true;
+        }
+        if (ai >= addresses.length) return false;
+        if (++si < seqCount) {
+            setSeq(seqFrom + si * seqStep);
+            return true;
+        }
+        si = 0;
+        setSeq(seqFrom);
+        if (++di < days) {
+            nextDay();
+            return true;
+        }
+        di = 0;
+        if (++ai < addresses.length) {
+            setAddress(addresses[ai]);
+            setDate(fromYmd);
+            return true;
+        }
+        return false;
+    }
+
+    /** 跳到第 index 条（0 起，按遍历次序），下一次 next() 返回其后一条 */
+    public void seek(long index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + " / " + size);
+        started = true;
+        si = (int) (index % seqCount);
+        long rest = index / seqCount;
+        di = (int) (rest % days);
+        ai = (int) (rest / days);
+        setAddress(addresses[ai]);
+        setDate(addDays(fromYmd, di));
+        setSeq(seqFrom + si * seqStep);
+    }
+
+    /** 当前号码写入 dst[off, off+18)，返回写入后的偏移 */
+    public int write(byte[] dst, int off) {
+        System.arraycopy(digits, 0, dst, off, 17);
+        dst[off + 17] = (byte) checkCode();
+        return off + IdNumberEncoder.LENGTH;
+    }
+
+    /** 当前号码的校验码 */
+    public char checkCode() {
+        return IdNumberUtil.CHECK_CODES[sum % 11];
+    }
+
+    public int addressCode() {
+        return addresses[ai];
+    }
+
+    public int birthYmd() {
+        return year * 10000 + month * 100 + day;
+    }
+
+    public int seq() {
+        return seqFrom + si * seqStep;
+    }
+
+    /** 当前号码（字符串形式，便于少量调用与调试） */
+    @Override
+    public String toString() {
+        byte[] id = new byte[IdNumberEncoder.LENGTH];
+        write(id, 0);
+        return new String(id, java.nio.charset.StandardCharsets.US_ASCII);
+    }
+
+    // --- 增量更新：只改写变化的数字，并按权重修正加权和 ---
+
+    private void setDigits(int pos, int len, int value) {
+        for (int i = pos + len - 1; i >= pos; i--) {
+            int d = value % 10;
+            value /= 10;
+            int old = digits[i] - '0';
+            if (d != old) {
+                digits[i] = (byte) ('0' + d);
+                sum += (d - old) * IdNumberUtil.WEIGHTS[i];
+            }
+        }
+    }
+
+    private void setAddress(int address) {
+        setDigits(0, 6, address);
+    }
+
+    private void setDate(int ymd) {
+        year = ymd / 10000;
+        month = ymd / 100 % 100;
+        day = ymd % 100;
+        setDigits(6, 8, ymd);
+    }
+
+    private void setSeq(int seq) {
+        setDigits(14, 3, seq);
+    }
+
+    private void nextDay() {
+        if (++day > lengthOfMonth(year, month)) {
+            day = 1;
+            if (++month > 12) {
+                month = 1;
+                year++;
+                setDigits(6, 4, year);
+            }
+            setDigits(10, 2, month);
+        }
+        setDigits(12, 2, day);
+    }
+
+    private static int addDays(int ymd, int n) {
+        if (n == 0) return ymd;
+        LocalDate d = LocalDate.of(ymd / 10000, ymd / 100 % 100, ymd % 100).plusDays(n);
+        return IdNumberEncoder.toYmd(d);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2: return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4: case 6: case 9: case 11: return 30;
+            default: return 31;
+        }
+    }
+}
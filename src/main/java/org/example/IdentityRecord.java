@@ -0,0 +1,31 @@
+package org.example;
+
+/**
+ * 一条完整的身份信息：号码、姓名、详细地址、有效期限。
+ * IdentityRecords 产生的记录是按需计算字段的子类，读取字段一律通过 getter。
+ */
+public class IdentityRecord {
+    private final String id;
+    private final String name;
+    private final String address;
+    private final String validPeriod;
+
+    public IdentityRecord(String id, String name, String address, String validPeriod) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.validPeriod = validPeriod;
+    }
+
+    /** 18 位身份证号 */
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public String getAddress() { return address; }
+    /** 形如 2015.06.01-2035.06.01 */
+    public String getValidPeriod() { return validPeriod; }
+
+    @Override
+    public String toString() {
+        return getId() + " " + getName() + " " + getAddress() + " " + getValidPeriod();
+    }
+}
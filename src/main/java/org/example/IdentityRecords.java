@@ -0,0 +1,201 @@
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 按下标确定的身份记录序列，供测试夹具、消息生产者等直接消费，无需先写文件。
+ * - 第 i 条记录的每个字段使用由 (种子, i, 字段) 派生的独立随机源，结果只取决于种子与下标：
+ *   get(i) 可随机访问，串行、并行或任意切分方式得到的记录完全相同。
+ * - 记录字段按需计算并缓存：只读 getId() 时不生成姓名、地址与有效期限字符串；
+ *   读 getAddress() 只需抽取地址码，不创建号码字符串。
+ * - stream() 的 Spliterator 是 SIZED | SUBSIZED 的下标区间，trySplit 对半切分，.parallel() 可按核数扩展。
+ * 实例不可变、线程安全；记录对象本身只应在单线程中读取。
+ */
+public final class IdentityRecords {
+    private static final int ID = 0, NAME = 1, ADDRESS = 2, VALID_PERIOD = 3;
+    /** 小于该长度的区间不再切分 */
+    private static final long MIN_SPLIT = 1024;
+
+    private final BatchGenerator ids;
+    private final RegionIndex regions;
+    private final NameCorpus names;
+    private final AddressCorpus addresses;
+    private final String[][] addressParts;  // 区级下标 -> {省, 市, 区}
+    private final long seed;
+
+    /** 参数含义同 BatchGenerator */
+    public IdentityRecords(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed) {
+        this(regionPrefixes, from, to, maleRatio, seed, NameCorpus.defaults(), AddressCorpus.defaults());
+    }
+
+    /** 姓名与详细地址取自给定词表（NameCorpus.load / AddressCorpus.load），其余参数同上 */
+    public IdentityRecords(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed,
+                           NameCorpus names, AddressCorpus addresses) {
+        this.ids = new BatchGenerator(regionPrefixes, from, to, maleRatio, seed);
+        this.names = names;
+        this.addresses = addresses;
+        this.regions = AddressCodeUtil.regionIndex();
+        this.addressParts = new String[regions.districtCount()][];
+        for (int d = 0; d < addressParts.length; d++) addressParts[d] = RecordGenerator.addressParts(regions, d);
+        this.seed = seed;
+    }
+
+    /** 第 index 条记录（index >= 0） */
+    public IdentityRecord get(long index) {
+        if (index < 0) throw new IndexOutOfBoundsException("下标不能为负: " + index);
+        return new LazyRecord(index);
+    }
+
+    /**
+     * 只把第 index 条记录的号码写入 dst[off, off+18)，不创建记录对象；与 get(index).getId() 一致。
+     * @return 写入后的偏移
+     */
+    public int writeId(long index, byte[] dst, int off) {
+        if (index < 0) throw new IndexOutOfBoundsException("下标不能为负: " + index);
+        return ids.next(random(index, ID), dst, off);
+    }
+
+    /** 第 index 条记录姓名的词表编码（见 NameCorpus.sample），names().name(编码) 即 get(index).getName() */
+    long nameCode(long index) {
+        return names.sample(random(index, NAME));
+    }
+
+    NameCorpus names() {
+        return names;
+    }
+
+    /** 地址码对应的当前区级下标（历史代码取其并入的区县），与 getAddress() 所用一致 */
+    int districtIndex(int addressCode) {
+        return ids.history().resolve(regions, addressCode);
+    }
+
+    RegionIndex regionIndex() {
+        return regions;
+    }
+
+    /** 第 0 ~ count-1 条记录组成的有序流 */
+    public Stream<IdentityRecord> stream(long count) {
+        return stream(0, count);
+    }
+
+    /** 第 from ~ to-1 条记录组成的有序流 */
+    public Stream<IdentityRecord> stream(long from, long to) {
+        return StreamSupport.stream(spliterator(from, to), false);
+    }
+
+    public Spliterator<IdentityRecord> spliterator(long from, long to) {
+        if (from < 0 || from > to) throw new IllegalArgumentException("下标区间无效: [" + from + ", " + to + ")");
+        return new RecordSpliterator(from, to);
+    }
+
+    /** 第 index 条记录第 field 个字段的随机源 */
+    private SplittableRandom random(long index, int field) {
+        return new SplittableRandom(IndexPermutation.mix(seed + IndexPermutation.mix(index)) + field);
+    }
+
+    /** 按需计算字段的记录 */
+    private final class LazyRecord extends IdentityRecord {
+        private final long index;
+        private byte[] idBytes;
+        private String id;
+        private String name;
+        private String address;
+        private String validPeriod;
+
+        LazyRecord(long index) {
+            super(null, null, null, null);
+            this.index = index;
+        }
+
+        private byte[] idBytes() {
+            if (idBytes == null) {
+                idBytes = new byte[IdNumberEncoder.LENGTH];
+                writeId(index, idBytes, 0);
+            }
+            return idBytes;
+        }
+
+        @Override
+        public String getId() {
+            if (id == null) id = new String(idBytes(), StandardCharsets.US_ASCII);
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            if (name == null) name = names.name(random(index, NAME));
+            return name;
+        }
+
+        @Override
+        public String getAddress() {
+            if (address == null) {
+                byte[] b = idBytes();
+                int code = 0;
+                for (int i = 0; i < 6; i++) code = code * 10 + (b[i] - '0');
+                int d = ids.history().resolveNearest(regions, code);
+                String[] n = d < 0 ? RecordGenerator.UNKNOWN_REGION : addressParts[d];
+                address = addresses.address(random(index, ADDRESS), RecordGenerator.cityCode(regions, d, code), n[0], n[1], n[2]);
+            }
+            return address;
+        }
+
+        @Override
+        public String getValidPeriod() {
+            if (validPeriod == null) validPeriod = Utils.generateValidPeriod(random(index, VALID_PERIOD));
+            return validPeriod;
+        }
+    }
+
+    /** 下标区间 [next, end) */
+    private final class RecordSpliterator implements Spliterator<IdentityRecord> {
+        private long next;
+        private final long end;
+
+        RecordSpliterator(long from, long to) {
+            this.next = from;
+            this.end = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super IdentityRecord> action) {
+            if (next >= end) return false;
+            action.accept(new LazyRecord(next++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super IdentityRecord> action) {
+            long i = next, e = end;
+            next = e;
+            for (; i < e; i++) action.accept(new LazyRecord(i));
+        }
+
+        @Override
+        public Spliterator<IdentityRecord> trySplit() {
+            long remaining = end - next;
+            if (remaining < MIN_SPLIT * 2) return null;
+            long mid = next + remaining / 2;
+            RecordSpliterator prefix = new RecordSpliterator(next, mid);
+            next = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - next;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import java.util.SplittableRandom;
+
+/**
+ * [0, size) 上由种子决定的伪随机双射（平衡 Feistel 网络 + 循环行走）。
+ * - 对 0,1,2,... 依次调用 apply 得到互不重复、顺序打乱的下标，只保存几个轮密钥，内存 O(1)。
+ * - 定义域取不小于 size 的最小 4 的幂，越界结果继续迭代（期望不超过 4 次）。
+ */
+public final class IndexPermutation {
+    private static final int ROUNDS = 4;
+
+    private final long size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] keys = new long[ROUNDS];
+
+    public IndexPermutation(long size, long seed) {
+        if (size <= 0) throw new IllegalArgumentException("size 必须为正: " + size);
+        this.size = size;
+        int bits = 64 - Long.numberOfLeadingZeros(size - 1);
+        this.halfBits = Math.max(1, (bits + 1) / 2);
+        this.halfMask = (1L << halfBits) - 1;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < ROUNDS; i++) keys[i] = random.nextLong();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /** 第 index 个输出（index 必须在 [0, size) 内） */
+    public long apply(long index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + " / " + size);
+        long x = index;
+        do {
+            x = encrypt(x);
+        } while (x >= size);
+        return x;
+    }
+
+    private long encrypt(long x) {
+        long left = x >>> halfBits;
+        long right = x & halfMask;
+        for (int i = 0; i < ROUNDS; i++) {
+            long next = left ^ (mix(right ^ keys[i]) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    /** SplitMix64 终结函数 */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
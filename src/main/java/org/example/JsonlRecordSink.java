@@ -0,0 +1,48 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * JSON Lines 输出：每行 {"id":...,"name":...,"address":...,"validPeriod":...}，null 字段写为 null。
+ */
+public class JsonlRecordSink extends ChannelRecordSink {
+    static final String[] ESCAPES = new String[128];
+    static {
+        for (int c = 0; c < 0x20; c++) ESCAPES[c] = String.format("\\u%04x", c);
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+    }
+
+    public JsonlRecordSink(WritableByteChannel channel) {
+        super(channel, ESCAPES);
+    }
+
+    @Override
+    void writeRecord(IdentityRecord r) throws IOException {
+        putAscii("{\"id\":");
+        value(r.getId());
+        putAscii(",\"name\":");
+        value(r.getName());
+        putAscii(",\"address\":");
+        value(r.getAddress());
+        putAscii(",\"validPeriod\":");
+        value(r.getValidPeriod());
+        putAscii("}\n");
+    }
+
+    private void value(String s) throws IOException {
+        if (s == null) {
+            putAscii("null");
+            return;
+        }
+        putAscii("\"");
+        putText(s);
+        putAscii("\"");
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * long 开放寻址哈希集合（线性探测），不装箱，每个元素 8 字节 / 负载因子 0.5。
+ * 非线程安全；多线程场景由调用方分片加锁。
+ */
+final class LongHashSet {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean hasEmptyKey;
+
+    LongHashSet(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        table = new long[cap];
+        Arrays.fill(table, EMPTY);
+        mask = cap - 1;
+    }
+
+    /** @return 原先不存在时 true */
+    boolean add(long key) {
+        if (key == EMPTY) {
+            if (hasEmptyKey) return false;
+            hasEmptyKey = true;
+            size++;
+            return true;
+        }
+        int i = (int) IndexPermutation.mix(key) & mask;
+        while (true) {
+            long k = table[i];
+            if (k == EMPTY) break;
+            if (k == key) return false;
+            i = (i + 1) & mask;
+        }
+        table[i] = key;
+        if (++size * 2 > table.length) grow();
+        return true;
+    }
+
+    boolean contains(long key) {
+        if (key == EMPTY) return hasEmptyKey;
+        int i = (int) IndexPermutation.mix(key) & mask;
+        while (true) {
+            long k = table[i];
+            if (k == EMPTY) return false;
+            if (k == key) return true;
+            i = (i + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        Arrays.fill(table, EMPTY);
+        mask = table.length - 1;
+        for (long k : old) {
+            if (k == EMPTY) continue;
+            int i = (int) IndexPermutation.mix(k) & mask;
+            while (table[i] != EMPTY) i = (i + 1) & mask;
+            table[i] = k;
+        }
+    }
+}
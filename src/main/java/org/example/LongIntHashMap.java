@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * long → int 开放寻址哈希表（线性探测），不装箱，每个条目 12 字节 / 负载因子 0.5。
+ * 只支持保留最小值的写入（putMin），用于记录每个键最早出现的位置。
+ * 非线程安全；多线程场景由调用方分片加锁。
+ */
+final class LongIntHashMap {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean hasEmptyKey;
+    private int emptyKeyValue;
+
+    LongIntHashMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[cap];
+        values = new int[cap];
+        Arrays.fill(keys, EMPTY);
+        mask = cap - 1;
+    }
+
+    /**
+     * 键不存在时写入 value；已存在时保留原值与 value 中较小的一个。value 须非负。
+     * @return 原值；原先不存在时 -1
+     */
+    int putMin(long key, int value) {
+        if (key == EMPTY) {
+            if (hasEmptyKey) {
+                int old = emptyKeyValue;
+                emptyKeyValue = Math.min(old, value);
+                return old;
+            }
+            hasEmptyKey = true;
+            emptyKeyValue = value;
+            size++;
+            return -1;
+        }
+        int i = (int) IndexPermutation.mix(key) & mask;
+        while (true) {
+            long k = keys[i];
+            if (k == EMPTY) break;
+            if (k == key) {
+                int old = values[i];
+                values[i] = Math.min(old, value);
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) grow();
+        return -1;
+    }
+
+    /** @return 键对应的值；不存在时 -1 */
+    int get(long key) {
+        if (key == EMPTY) return hasEmptyKey ? emptyKeyValue : -1;
+        int i = (int) IndexPermutation.mix(key) & mask;
+        while (true) {
+            long k = keys[i];
+            if (k == EMPTY) return -1;
+            if (k == key) return values[i];
+            i = (i + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k == EMPTY) continue;
+            int i = (int) IndexPermutation.mix(k) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = oldValues[j];
+        }
+    }
+}
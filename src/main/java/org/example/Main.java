@@ -3,6 +3,8 @@ package org.example;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -18,16 +20,26 @@ import java.time.format.DateTimeFormatter;
  * - 出生日期改用 LGoodDatePicker（基于 java.time.LocalDate）。
  * - 默认日期为“当前日期减 8 年”，更贴近“刚成年”场景；范围限制 1900-01-01 至 2099-12-31；不允许空日期。
  * - 布局：主面板使用 GridLayout(6,1)，每一行使用 FlowLayout 左对齐；窗口高度加至 650 以给日历弹窗足够空间。
- * - 地址数据：从类路径 resources/output.json 加载，提供省/市/区三级联动。
+ * - 地址数据：从类路径 resources/output.json 加载，提供省/市/区三级联动；
+ *   指定 -Didgen.regions=外部文件 时改用该文件，并在文件变化时热加载（见 RegionWatcher）。
  * - 生成规则：地址码(6) + 生日(yyyyMMdd) + 顺序码(3 位，奇数男/偶数女) + 校验码(GB 11643)。
  * - 支持“复制”按钮，直接放入系统剪贴板。
  * - 支持“生成图片”按钮，点击后弹出新窗口显示 src/fonts/empty.png 图片。
+ * - “批量生成”页（BatchPanel）：后台生成 N 条记录并在虚拟表格中预览、导出，地址取自本页的选择。
  */
 public class Main {
     private static JComboBox<Integer> yearCombo;
     private static JComboBox<Integer> monthCombo;
     private static JComboBox<Integer> dayCombo;
     public static void main(String[] args) {
+        String regions = System.getProperty("idgen.regions");
+        if (regions != null) {
+            try {
+                RegionWatcher.start(Paths.get(regions));
+            } catch (IOException e) {
+                System.err.println("未能加载区划文件，使用内置数据: " + e.getMessage());
+            }
+        }
         SwingUtilities.invokeLater(Main::createAndShowGUI);
     }
 
@@ -80,7 +92,10 @@ public class Main {
         panel.add(copyPanel);
         panel.add(imagePanel);
         panel.add(tipPanel);
-        frame.setContentPane(panel);
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("单个生成", panel);
+        tabs.addTab("批量生成", new BatchPanel(regionSelector));
+        frame.setContentPane(tabs);
         frame.setVisible(true);
 
         // 生成逻辑
@@ -106,6 +121,8 @@ public class Main {
                 JOptionPane.showMessageDialog(frame, "地址码无效，请检查 output.json", "地址错误", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            // 出生时该区县尚未设立或已撤并时，改用当时有效的代码（见 RegionHistory.codeAt）
+            addressCode = String.format("%06d", RegionHistory.defaults().codeAt(Integer.parseInt(addressCode), IdNumberEncoder.toYmd(selected)));
             String birthStr = IdNumberUtil.formatBirth(selected);
             String id = IdNumberUtil.generateIdNumber(addressCode, birthStr, male, null);
             resultField.setText(id);
@@ -145,8 +162,11 @@ public class Main {
             // 生成随机姓名
             String name = Utils.generateRandomName();
             
-            // 生成详细地址
-            String address = Utils.generateDetailedAddress(provinceName, cityName, districtName);
+            // 生成详细地址（街道取自所选城市的街道表）
+            String cityCode = AddressCodeUtil.getCityCode(
+                    AddressCodeUtil.getProvinceCode(regionSelector.getProvinceName()), regionSelector.getCityName());
+            String address = Utils.generateDetailedAddress(cityCode == null ? 0 : Integer.parseInt(cityCode),
+                    provinceName, cityName, districtName);
             
             // 创建新窗口显示图片
             JFrame imageFrame = new JFrame("生成图片");
@@ -0,0 +1,334 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 生成热路径的计数与耗时统计。
+ * - 开关：-Didgen.metrics=true。ENABLED 为 static final，调用方以 if (Metrics.ENABLED) 包住打点代码，
+ *   关闭时 JIT 把整段当作死代码消除，热路径不多一条指令。
+ * - Counter 基于 LongAdder（多线程累加无争用）；Timer 另带对数-线性分桶的耗时直方图（类似 HdrHistogram：
+ *   每个 2 的幂区间再等分 32 桶，相对误差约 3%），可取任意分位数。
+ * - 分配量：批量接口前后读取当前线程已分配字节数（com.sun.management.ThreadMXBean），计入 *_alloc_bytes 计数器。
+ * - 输出：JMX（org.example:type=Metrics，见 MetricsMXBean）、Prometheus 文本格式（prometheus()，服务模式下为 GET /metrics），
+ *   以及 -Didgen.metrics.dump=文件 时按 -Didgen.metrics.interval 秒（默认 60）周期写出同样的文本。
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("idgen.metrics");
+    public static final String OBJECT_NAME = "org.example:type=Metrics";
+    private static final String PREFIX = "idgen_";
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    static {
+        if (ENABLED) {
+            registerMBean();
+            String dump = System.getProperty("idgen.metrics.dump");
+            if (dump != null) startDump(Paths.get(dump), Long.getLong("idgen.metrics.interval", 60));
+        }
+    }
+
+    private Metrics() {}
+
+    /** 取得（必要时创建）计数器；名称为 Prometheus 指标名中 idgen_ 之后的部分 */
+    public static Counter counter(String name, String help) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter(n, help));
+    }
+
+    /** 取得（必要时创建）计时器 */
+    public static Timer timer(String name, String help) {
+        return TIMERS.computeIfAbsent(name, n -> new Timer(n, help));
+    }
+
+    /** 当前线程累计分配的字节数；JVM 不支持时为 0 */
+    public static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * 批量接口收尾：记录一次调用的耗时、处理条数（name_items）与调用线程期间分配的字节数（name_alloc_bytes）。
+     * 工作线程内的分配不计入。
+     */
+    public static void batch(String name, String help, long startNanos, long startAlloc, long items) {
+        timer(name, help).stop(startNanos);
+        counter(name + "_items", help + "：条数").add(items);
+        counter(name + "_alloc_bytes", help + "：调用线程分配字节数").add(allocatedBytes() - startAlloc);
+    }
+
+    /** 注册 JMX MBean（重复调用无副作用） */
+    public static synchronized ObjectName registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name)) server.registerMBean(new MBean(), name);
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("无法注册 JMX MBean", e);
+        }
+    }
+
+    /**
+     * 每 periodSeconds 秒把 Prometheus 文本写入 file，JVM 退出时再写一次。
+     * 先写临时文件再替换，读取方不会看到写了一半的内容。
+     */
+    public static ScheduledExecutorService startDump(Path file, long periodSeconds) {
+        ScheduledExecutorService s = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        s.scheduleAtFixedRate(() -> dump(file), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(file), "metrics-dump-exit"));
+        return s;
+    }
+
+    private static synchronized void dump(Path file) {
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, prometheus().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("写出统计失败: " + e.getMessage());
+        }
+    }
+
+    /** Prometheus 文本格式（计数器为 counter，计时器为以秒为单位的 summary） */
+    public static String prometheus() {
+        StringBuilder sb = new StringBuilder(1024);
+        for (Counter c : sorted(COUNTERS).values()) {
+            String n = PREFIX + c.name + "_total";
+            sb.append("# HELP ").append(n).append(' ').append(c.help).append('\n');
+            sb.append("# TYPE ").append(n).append(" counter\n");
+            sb.append(n).append(' ').append(c.sum()).append('\n');
+        }
+        for (Timer t : sorted(TIMERS).values()) {
+            String n = PREFIX + t.name + "_seconds";
+            sb.append("# HELP ").append(n).append(' ').append(t.help).append('\n');
+            sb.append("# TYPE ").append(n).append(" summary\n");
+            for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+                sb.append(n).append("{quantile=\"").append(q).append("\"} ").append(seconds(t.histogram.percentile(q))).append('\n');
+            }
+            sb.append(n).append("_sum ").append(seconds(t.totalNanos.sum())).append('\n');
+            sb.append(n).append("_count ").append(t.count.sum()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** 文本摘要：每行一个指标 */
+    public static void print(PrintStream out) {
+        for (Counter c : sorted(COUNTERS).values()) out.printf("%-24s %d%n", c.name, c.sum());
+        for (Timer t : sorted(TIMERS).values()) {
+            out.printf(Locale.ROOT, "%-24s n=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms%n", t.name, t.count(),
+                    t.meanNanos() / 1e6, t.histogram.percentile(0.5) / 1e6, t.histogram.percentile(0.99) / 1e6, t.histogram.max() / 1e6);
+        }
+    }
+
+    /** 清零全部指标 */
+    public static void reset() {
+        COUNTERS.values().forEach(c -> c.adder.reset());
+        TIMERS.values().forEach(Timer::reset);
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9g", nanos / 1e9);
+    }
+
+    private static <V> Map<String, V> sorted(Map<String, V> m) {
+        Map<String, V> s = new LinkedHashMap<>();
+        m.keySet().stream().sorted().forEach(k -> s.put(k, m.get(k)));
+        return s;
+    }
+
+    /** 累加计数器 */
+    public static final class Counter {
+        final String name;
+        final String help;
+        final LongAdder adder = new LongAdder();
+
+        Counter(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        public void increment() { adder.increment(); }
+        public void add(long n) { adder.add(n); }
+        public long sum() { return adder.sum(); }
+    }
+
+    /**
+     * 计时器：long t0 = System.nanoTime(); ...; timer.stop(t0);
+     */
+    public static final class Timer {
+        final String name;
+        final String help;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        Timer(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        /** 记录从 startNanos（System.nanoTime()）到现在的耗时 */
+        public void stop(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            count.increment();
+            totalNanos.add(nanos);
+            histogram.record(nanos);
+        }
+
+        public long count() { return count.sum(); }
+        public double meanNanos() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) totalNanos.sum() / n;
+        }
+        /** 分位数（纳秒），q 取 0~1 */
+        public long percentile(double q) { return histogram.percentile(q); }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            histogram.reset();
+        }
+    }
+
+    /**
+     * 对数-线性分桶直方图：小于 32 的值各占一桶；其余值按最高位所在的 2 的幂区间再等分 32 桶。
+     * 覆盖整个非负 long 范围，共 (64 - 5 + 1) * 32 桶，记录一次为一次原子加。
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB = 1 << SUB_BITS;
+        private final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BITS + 1) * SUB);
+
+        static int bucketOf(long v) {
+            if (v < SUB) return (int) v;
+            int exp = 63 - Long.numberOfLeadingZeros(v);          // >= SUB_BITS
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+            return (exp - SUB_BITS + 1) * SUB + sub;
+        }
+
+        /** 桶的下界 */
+        static long lowerBound(int bucket) {
+            if (bucket < SUB) return bucket;
+            int exp = bucket / SUB + SUB_BITS - 1;
+            long sub = bucket % SUB;
+            return (1L << exp) | (sub << (exp - SUB_BITS));
+        }
+
+        /** 桶的上界（不含），末桶为 Long.MAX_VALUE */
+        static long upperBound(int bucket) {
+            if (bucket < SUB) return bucket + 1;
+            int exp = bucket / SUB + SUB_BITS - 1;
+            long next = lowerBound(bucket) + (1L << (exp - SUB_BITS));
+            return next < 0 ? Long.MAX_VALUE : next;
+        }
+
+        void record(long v) {
+            buckets.incrementAndGet(bucketOf(v));
+        }
+
+        long count() {
+            long n = 0;
+            for (int i = 0; i < buckets.length(); i++) n += buckets.get(i);
+            return n;
+        }
+
+        /** 分位数：取落点所在桶的中点 */
+        long percentile(double q) {
+            long total = count();
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * total));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) return lowerBound(i) + (upperBound(i) - 1 - lowerBound(i)) / 2;
+            }
+            return max();
+        }
+
+        /** 最大值所在桶的上界 */
+        long max() {
+            for (int i = buckets.length() - 1; i >= 0; i--) {
+                if (buckets.get(i) > 0) return upperBound(i) - 1;
+            }
+            return 0;
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+        }
+    }
+
+    /** JMX 视图 */
+    public interface MetricsMXBean {
+        /** 计数器当前值 */
+        Map<String, Long> getCounters();
+        /** 各计时器的调用次数 */
+        Map<String, Long> getTimerCounts();
+        /** 各计时器的平均耗时（毫秒） */
+        Map<String, Double> getMeanMillis();
+        /** 各计时器的 p99 耗时（毫秒） */
+        Map<String, Double> getP99Millis();
+        /** Prometheus 文本 */
+        String getPrometheusText();
+        void reset();
+    }
+
+    private static final class MBean implements MetricsMXBean {
+        @Override public Map<String, Long> getCounters() {
+            Map<String, Long> m = new LinkedHashMap<>();
+            sorted(COUNTERS).forEach((k, c) -> m.put(k, c.sum()));
+            return m;
+        }
+
+        @Override public Map<String, Long> getTimerCounts() {
+            Map<String, Long> m = new LinkedHashMap<>();
+            sorted(TIMERS).forEach((k, t) -> m.put(k, t.count()));
+            return m;
+        }
+
+        @Override public Map<String, Double> getMeanMillis() {
+            Map<String, Double> m = new LinkedHashMap<>();
+            sorted(TIMERS).forEach((k, t) -> m.put(k, t.meanNanos() / 1e6));
+            return m;
+        }
+
+        @Override public Map<String, Double> getP99Millis() {
+            Map<String, Double> m = new LinkedHashMap<>();
+            sorted(TIMERS).forEach((k, t) -> m.put(k, t.percentile(0.99) / 1e6));
+            return m;
+        }
+
+        @Override public String getPrometheusText() { return prometheus(); }
+        @Override public void reset() { Metrics.reset(); }
+    }
+}
@@ -0,0 +1,169 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.random.RandomGenerator;
+
+/**
+ * 按频率加权的姓名词表：姓氏（含复姓）、名字用字、常见双字名。
+ * - 单字名占 15%；双字名中 40% 取自常见双字名表，其余由两个名字用字组合，组合空间远大于固定列表。
+ * - 词表以 WeightedStringPool 紧凑存放；生成姓名是把切片复制进调用方的 char 缓冲区，不做字符串拼接。
+ * - 内置词表位于类路径 corpus/ 下；load(目录) 可用同名文件（surnames.txt、given_chars.txt、given_names.txt）替换，
+ *   缺少的文件沿用内置词表。文件格式：每行 “条目,权重”，# 开头为注释。
+ */
+public final class NameCorpus {
+    public static final String RESOURCE_DIR = "corpus/";
+    static final String SURNAMES = "surnames.txt";
+    static final String GIVEN_CHARS = "given_chars.txt";
+    static final String GIVEN_NAMES = "given_names.txt";
+    private static final double SINGLE_CHAR_RATIO = 0.15;
+    private static final double LISTED_RATIO = 0.4;
+    static final int SINGLE = 0, LISTED = 1, DOUBLE = 2;
+
+    private static volatile NameCorpus defaults;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    private final WeightedStringPool surnames;
+    private final WeightedStringPool givenChars;
+    private final WeightedStringPool givenNames;
+    private final int maxLength;
+
+    NameCorpus(WeightedStringPool surnames, WeightedStringPool givenChars, WeightedStringPool givenNames) {
+        this.surnames = surnames;
+        this.givenChars = givenChars;
+        this.givenNames = givenNames;
+        this.maxLength = surnames.maxLength() + Math.max(givenChars.maxLength() * 2, givenNames.maxLength());
+    }
+
+    /** 内置词表 */
+    public static NameCorpus defaults() {
+        NameCorpus c = defaults;
+        if (c == null) {
+            try {
+                c = new NameCorpus(resource(SURNAMES), resource(GIVEN_CHARS), resource(GIVEN_NAMES));
+            } catch (IOException e) {
+                throw new IllegalStateException("无法读取内置姓名词表", e);
+            }
+            defaults = c;
+        }
+        return c;
+    }
+
+    /** 从目录加载词表，缺少的文件使用内置词表 */
+    public static NameCorpus load(Path dir) throws IOException {
+        NameCorpus base = defaults();
+        return new NameCorpus(file(dir, SURNAMES, base.surnames), file(dir, GIVEN_CHARS, base.givenChars),
+                file(dir, GIVEN_NAMES, base.givenNames));
+    }
+
+    static WeightedStringPool resource(String name) throws IOException {
+        InputStream is = NameCorpus.class.getClassLoader().getResourceAsStream(RESOURCE_DIR + name);
+        if (is == null) throw new IOException("找不到资源: " + RESOURCE_DIR + name);
+        try (Reader r = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+            return WeightedStringPool.read(r);
+        }
+    }
+
+    static WeightedStringPool file(Path dir, String name, WeightedStringPool fallback) throws IOException {
+        Path p = dir.resolve(name);
+        if (!Files.exists(p)) return fallback;
+        try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+            return WeightedStringPool.read(r);
+        } catch (IOException e) {
+            throw new IOException(p + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** 一个姓名最多占用的字符数（name(random, dst, pos) 需要的缓冲区空间） */
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * 生成一个姓名写入 dst[pos...]。
+     * @return 写入后的位置
+     */
+    public int name(RandomGenerator random, char[] dst, int pos) {
+        return name(sample(random), dst, pos);
+    }
+
+    /**
+     * 抽取一个姓名，返回其词表下标编码而不复制字符（见 name(long, char[], int)），
+     * 与 name(random, dst, pos) 消耗相同的随机数，同一随机源得到同一姓名。
+     * 编码：姓氏下标 << 40 | 类型 << 32 | 名 1 下标 << 16 | 名 2 下标；
+     * 类型 SINGLE 为单字名（名 1 取自名字用字），LISTED 为常见双字名（名 1 取自双字名表），DOUBLE 为两个名字用字。
+     */
+    public long sample(RandomGenerator random) {
+        long surname = surnames.sample(random);
+        double kind = random.nextDouble();
+        if (kind < SINGLE_CHAR_RATIO) {
+            return code(surname, SINGLE, givenChars.sample(random), 0);
+        }
+        if (kind < SINGLE_CHAR_RATIO + (1 - SINGLE_CHAR_RATIO) * LISTED_RATIO) {
+            return code(surname, LISTED, givenNames.sample(random), 0);
+        }
+        int first = givenChars.sample(random);
+        return code(surname, DOUBLE, first, givenChars.sample(random));
+    }
+
+    private static long code(long surname, int kind, int first, int second) {
+        return surname << 40 | (long) kind << 32 | (long) first << 16 | second;
+    }
+
+    /** 把 code 的姓氏换成 surnameOf 的姓氏（名不变），用于同姓的家庭成员 */
+    static long withSurname(long code, long surnameOf) {
+        return surnameOf >>> 40 << 40 | code & ((1L << 40) - 1);
+    }
+
+    /** 按 sample 的编码把姓名写入 dst[pos...]，返回写入后的位置 */
+    public int name(long code, char[] dst, int pos) {
+        pos = surnames.copy((int) (code >>> 40), dst, pos);
+        int first = (int) (code >>> 16) & 0xFFFF, kind = (int) (code >>> 32) & 0xFF;
+        switch (kind) {
+            case SINGLE: return givenChars.copy(first, dst, pos);
+            case LISTED: return givenNames.copy(first, dst, pos);
+            default:
+                pos = givenChars.copy(first, dst, pos);
+                return givenChars.copy((int) code & 0xFFFF, dst, pos);
+        }
+    }
+
+    /** 按 sample 的编码还原姓名 */
+    public String name(long code) {
+        char[] buf = buffer();
+        return new String(buf, 0, name(code, buf, 0));
+    }
+
+    /** 各词表的条目数与内容摘要，用于确认持久化的姓名编码与当前词表一致 */
+    public long fingerprint() {
+        long h = surnames.fingerprint();
+        h = h * 1_000_003 + givenChars.fingerprint();
+        return h * 1_000_003 + givenNames.fingerprint();
+    }
+
+    /** 编码中各词表下标的上限（16 位） */
+    boolean fitsCode() {
+        return surnames.size() <= 0xFFFF && givenChars.size() <= 0xFFFF && givenNames.size() <= 0xFFFF;
+    }
+
+    /** 生成一个姓名 */
+    public String name(RandomGenerator random) {
+        char[] buf = buffer();
+        int len = name(random, buf, 0);
+        return new String(buf, 0, len);
+    }
+
+    private char[] buffer() {
+        char[] buf = BUFFER.get();
+        if (buf.length < maxLength) {
+            buf = new char[maxLength];
+            BUFFER.set(buf);
+        }
+        return buf;
+    }
+}
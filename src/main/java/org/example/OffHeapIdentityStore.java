@@ -0,0 +1,429 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.stream.LongStream;
+
+/**
+ * 堆外身份记录存储：供集成测试在进程内保存上亿条合成记录并按号码查找，堆上不保留任何 String。
+ * - 每条记录定长 24 字节，存放在直接内存（allocate）或内存映射文件（create / open）中：
+ *   号码前 17 位（long）、校验码（1 字节）、姓名类型（1 字节）、当前区级下标（2 字节，见 RegionIndex）、
+ *   出生日期（epoch day，4 字节）、姓名词表下标（姓、名 1、名 2 各 2 字节，见 NameCorpus.sample）。2 亿条约 4.8 GB。
+ * - 主索引：堆外开放寻址哈希表，每槽 4 字节存“记录号 + 1”，键即记录中的号码，不另存；装载因子不超过 0.75。
+ *   同一号码出现多次时索引指向最早的一条。
+ * - 文件布局：64 字节头 | capacity 条记录 | 索引槽。create 的文件关闭后可用 open 直接映射复用，无需重新生成或重建索引；
+ *   transferTo 把同样的映像原样写出（文件存储经 FileChannel.transferTo 由内核直接拷贝，直接内存只写出缓冲区本身）。
+ * - 直接内存与映射都按段（默认 1 GB）分配，突破单个 ByteBuffer 2 GB 的限制；直接内存总量受 -XX:MaxDirectMemorySize 约束，
+ *   超大数据集建议用 create 映射文件。
+ * - 区级下标与姓名编码依赖区划数据与姓名词表，头部记录两者的摘要，open 时不一致即报错。
+ * 写入（fill / append）须单线程调用，写入完成后可多线程并发读取。
+ */
+public final class OffHeapIdentityStore implements Closeable {
+    public static final int RECORD_SIZE = 24;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x49444853; // "IDHS"
+    private static final int VERSION = 1;
+    private static final int DEFAULT_SEGMENT_BITS = 30;
+    private static final long MAX_CAPACITY = Integer.MAX_VALUE - 1;
+    private static final long ID_DIVISOR = 100_000_000_000L;  // 号码前 17 位除以它得地址码
+    private static final int NO_DISTRICT = 0xFFFF;
+    // 头部字段偏移
+    private static final int H_CAPACITY = 16, H_COUNT = 24, H_SLOTS = 32, H_REGIONS = 40, H_NAMES = 48;
+    // 记录字段偏移
+    private static final int ID = 0, CHECK = 8, NAME_KIND = 9, DISTRICT = 10, BIRTH = 12, SURNAME = 16, FIRST = 18, SECOND = 20;
+
+    private static final ThreadLocal<byte[]> ID_BUFFER = ThreadLocal.withInitial(() -> new byte[IdNumberEncoder.LENGTH]);
+
+    private final ByteBuffer header;
+    private final ByteBuffer[] recordSegments;
+    private final ByteBuffer[] slotSegments;
+    private final int recordShift;
+    private final int slotShift;
+    private final long capacity;
+    private final long slotMask;
+    private final RegionIndex regions;
+    private final NameCorpus names = NameCorpus.defaults();
+    private final RegionHistory history = RegionHistory.defaults();
+    private final FileChannel channel;  // 直接内存时为 null
+    private final boolean writable;
+    private long count;
+
+    private OffHeapIdentityStore(ByteBuffer header, ByteBuffer[] recordSegments, int recordShift,
+                                 ByteBuffer[] slotSegments, int slotShift, RegionIndex regions,
+                                 FileChannel channel, boolean writable) {
+        this.header = header;
+        this.recordSegments = recordSegments;
+        this.recordShift = recordShift;
+        this.slotSegments = slotSegments;
+        this.slotShift = slotShift;
+        this.capacity = header.getLong(H_CAPACITY);
+        this.slotMask = header.getLong(H_SLOTS) - 1;
+        this.count = header.getLong(H_COUNT);
+        this.regions = regions;
+        this.channel = channel;
+        this.writable = writable;
+    }
+
+    /** 在直接内存中分配最多 capacity 条记录的存储（区级下标对应当前区划数据） */
+    public static OffHeapIdentityStore allocate(long capacity) {
+        return allocate(capacity, AddressCodeUtil.regionIndex(), DEFAULT_SEGMENT_BITS);
+    }
+
+    static OffHeapIdentityStore allocate(long capacity, RegionIndex regions, int segmentBits) {
+        Layout l = new Layout(capacity, segmentBits);
+        ByteBuffer header = ByteBuffer.allocateDirect(HEADER_SIZE);
+        writeHeader(header, capacity, l.slots, regions);
+        ByteBuffer[] records = new ByteBuffer[l.recordSegments];
+        for (int i = 0; i < records.length; i++) records[i] = ByteBuffer.allocateDirect((int) l.segmentBytes(i, capacity, l.recordShift, RECORD_SIZE));
+        ByteBuffer[] slots = new ByteBuffer[l.slotSegments];
+        for (int i = 0; i < slots.length; i++) slots[i] = ByteBuffer.allocateDirect((int) l.segmentBytes(i, l.slots, l.slotShift, 4));
+        return new OffHeapIdentityStore(header, records, l.recordShift, slots, l.slotShift, regions, null, true);
+    }
+
+    /** 创建（覆盖）映射文件存储，最多 capacity 条记录 */
+    public static OffHeapIdentityStore create(Path file, long capacity) throws IOException {
+        return create(file, capacity, AddressCodeUtil.regionIndex(), DEFAULT_SEGMENT_BITS);
+    }
+
+    static OffHeapIdentityStore create(Path file, long capacity, RegionIndex regions, int segmentBits) throws IOException {
+        Layout l = new Layout(capacity, segmentBits);
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            writeHeader(header, capacity, l.slots, regions);
+            return map(ch, header, l, capacity, regions, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 映射已有的存储文件（create 创建或 transferTo 导出的映像），只读。
+     * @throws IOException 格式不符，或区划数据、姓名词表与写入时不同
+     */
+    public static OffHeapIdentityStore open(Path file) throws IOException {
+        return open(file, AddressCodeUtil.regionIndex(), DEFAULT_SEGMENT_BITS);
+    }
+
+    static OffHeapIdentityStore open(Path file, RegionIndex regions, int segmentBits) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (ch.size() < HEADER_SIZE) throw new IOException(file + ": 不是身份记录存储文件");
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) throw new IOException(file + ": 不是身份记录存储文件");
+            if (header.getInt(4) != VERSION) throw new IOException(file + ": 不支持的版本 " + header.getInt(4));
+            if (header.getInt(8) != RECORD_SIZE) throw new IOException(file + ": 记录长度不符");
+            if (header.getLong(H_REGIONS) != fingerprint(regions)) throw new IOException(file + ": 区划数据与写入时不同");
+            if (header.getLong(H_NAMES) != NameCorpus.defaults().fingerprint()) throw new IOException(file + ": 姓名词表与写入时不同");
+            long capacity = header.getLong(H_CAPACITY);
+            Layout l = new Layout(capacity, segmentBits);
+            if (l.slots != header.getLong(H_SLOTS) || ch.size() < l.fileSize(capacity)) throw new IOException(file + ": 文件不完整");
+            return map(ch, header, l, capacity, regions, FileChannel.MapMode.READ_ONLY);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    private static OffHeapIdentityStore map(FileChannel ch, ByteBuffer header, Layout l, long capacity, RegionIndex regions,
+                                            FileChannel.MapMode mode) throws IOException {
+        ByteBuffer[] records = new ByteBuffer[l.recordSegments];
+        long pos = HEADER_SIZE;
+        for (int i = 0; i < records.length; i++) {
+            long size = l.segmentBytes(i, capacity, l.recordShift, RECORD_SIZE);
+            records[i] = ch.map(mode, pos, size);
+            pos += size;
+        }
+        ByteBuffer[] slots = new ByteBuffer[l.slotSegments];
+        for (int i = 0; i < slots.length; i++) {
+            long size = l.segmentBytes(i, l.slots, l.slotShift, 4);
+            slots[i] = ch.map(mode, pos, size);
+            pos += size;
+        }
+        return new OffHeapIdentityStore(header, records, l.recordShift, slots, l.slotShift, regions, ch,
+                mode == FileChannel.MapMode.READ_WRITE);
+    }
+
+    private static void writeHeader(ByteBuffer header, long capacity, long slots, RegionIndex regions) {
+        header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE)
+                .putLong(H_CAPACITY, capacity).putLong(H_COUNT, 0).putLong(H_SLOTS, slots)
+                .putLong(H_REGIONS, fingerprint(regions)).putLong(H_NAMES, NameCorpus.defaults().fingerprint());
+    }
+
+    /** 区级代码序列的摘要 */
+    private static long fingerprint(RegionIndex regions) {
+        long h = regions.districtCount();
+        for (int d = 0; d < regions.districtCount(); d++) h = h * 1_000_003 + regions.districtCode(d);
+        return h;
+    }
+
+    public long capacity() { return capacity; }
+    public long size() { return count; }
+
+    /** 存储映像的总字节数（头 + 全部记录槽位 + 索引） */
+    public long byteSize() {
+        return HEADER_SIZE + capacity * RECORD_SIZE + (slotMask + 1) * 4;
+    }
+
+    /**
+     * 追加 records 的第 size() ~ size()+n-1 条记录并建立索引：记录字段多线程并行计算、直接写入堆外存储，
+     * 完成后第 i 条与 records.get(i) 的号码、姓名、出生日期与住址区县一致。
+     */
+    public void fill(IdentityRecords records, long n) {
+        checkWritable(n);
+        if (fingerprint(records.regionIndex()) != header.getLong(H_REGIONS)) throw new IllegalArgumentException("记录来源的区划数据与存储不同");
+        if (records.names().fingerprint() != header.getLong(H_NAMES)) throw new IllegalArgumentException("记录来源的姓名词表与存储不同");
+        if (!names.fitsCode()) throw new IllegalStateException("姓名词表超过 65535 条，无法编码");
+        long base = count;
+        LongStream.range(base, base + n).parallel().forEach(i -> {
+            byte[] id = ID_BUFFER.get();
+            records.writeId(i, id, 0);
+            long digits = 0;
+            for (int k = 0; k < 17; k++) digits = digits * 10 + (id[k] - '0');
+            put(i, digits, (char) id[17], records.districtIndex((int) (digits / ID_DIVISOR)), epochDayOf(digits), records.nameCode(i));
+        });
+        for (long i = base; i < base + n; i++) index(i);
+        count = base + n;
+        header.putLong(H_COUNT, count);
+    }
+
+    /**
+     * 追加一条记录（号码须为 18 位且前 17 位为数字）；区级下标取号码地址码对应的当前区县（已撤并的代码按内置沿革
+     * 取其并入的区县，与 fill 相同），未知地址码记为 -1。
+     * @param nameCode 姓名编码（NameCorpus.sample）
+     * @return 记录号
+     */
+    public long append(String id, long nameCode) {
+        checkWritable(1);
+        long digits = digits(id);
+        if (digits < 0) throw new IllegalArgumentException("号码格式错误: " + id);
+        long i = count;
+        int epochDay;
+        try {
+            epochDay = epochDayOf(digits);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("出生日期无效: " + id);
+        }
+        put(i, digits, Character.toUpperCase(id.charAt(17)), history.resolve(regions, (int) (digits / ID_DIVISOR)), epochDay, nameCode);
+        index(i);
+        count = i + 1;
+        header.putLong(H_COUNT, count);
+        return i;
+    }
+
+    private void checkWritable(long n) {
+        if (!writable) throw new IllegalStateException("只读存储");
+        if (n < 0 || count + n > capacity) throw new IllegalStateException("超出容量: " + count + " + " + n + " > " + capacity);
+    }
+
+    private void put(long i, long digits, char check, int district, int epochDay, long nameCode) {
+        ByteBuffer b = recordSegments[(int) (i >>> recordShift)];
+        int off = recordOffset(i);
+        b.putLong(off + ID, digits);
+        b.put(off + CHECK, (byte) check);
+        b.put(off + NAME_KIND, (byte) (nameCode >>> 32));
+        b.putShort(off + DISTRICT, (short) (district < 0 ? NO_DISTRICT : district));
+        b.putInt(off + BIRTH, epochDay);
+        b.putShort(off + SURNAME, (short) (nameCode >>> 40));
+        b.putShort(off + FIRST, (short) (nameCode >>> 16));
+        b.putShort(off + SECOND, (short) nameCode);
+    }
+
+    /** 号码前 17 位中的出生日期（第 7~14 位）转为 epoch day */
+    private static int epochDayOf(long digits) {
+        int ymd = (int) (digits / 1000 % 100_000_000);
+        return (int) LocalDate.of(ymd / 10000, ymd / 100 % 100, ymd % 100).toEpochDay();
+    }
+
+    private void index(long i) {
+        long key = rawDigits(i);
+        long h = IndexPermutation.mix(key) & slotMask;
+        while (true) {
+            int v = slot(h);
+            if (v == 0) {
+                slotSegments[(int) (h >>> slotShift)].putInt(slotOffset(h), (int) (i + 1));
+                return;
+            }
+            if (rawDigits(v - 1) == key) return;  // 已有同号记录，索引保留最早一条
+            h = (h + 1) & slotMask;
+        }
+    }
+
+    /** 按 18 位号码查找记录号（校验码不区分 x 大小写），不存在时为 -1 */
+    public long find(CharSequence id) {
+        long digits = digits(id);
+        if (digits < 0) return -1;
+        long i = find(digits);
+        return i >= 0 && checkCode(i) == Character.toUpperCase(id.charAt(17)) ? i : -1;
+    }
+
+    /** 按号码前 17 位查找记录号，不存在时为 -1 */
+    public long find(long idDigits) {
+        long h = IndexPermutation.mix(idDigits) & slotMask;
+        while (true) {
+            int v = slot(h);
+            if (v == 0) return -1;
+            if (rawDigits(v - 1) == idDigits) return v - 1;
+            h = (h + 1) & slotMask;
+        }
+    }
+
+    /** 18 位号码的前 17 位数值，格式不符时为 -1 */
+    private static long digits(CharSequence id) {
+        if (id == null || id.length() != IdNumberEncoder.LENGTH) return -1;
+        long v = 0;
+        for (int k = 0; k < 17; k++) {
+            char c = id.charAt(k);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    // --- 按记录号读取 ---
+
+    /** 号码前 17 位 */
+    public long idDigits(long i) {
+        return rawDigits(check(i));
+    }
+
+    /** 不检查记录号（写入过程中索引尚未计入 count 的记录） */
+    private long rawDigits(long i) {
+        return recordSegments[(int) (i >>> recordShift)].getLong(recordOffset(i) + ID);
+    }
+
+    public char checkCode(long i) {
+        return (char) recordSegments[(int) (i >>> recordShift)].get(recordOffset(check(i)) + CHECK);
+    }
+
+    /** 18 位号码 */
+    public String id(long i) {
+        long digits = idDigits(i);
+        char[] c = new char[IdNumberEncoder.LENGTH];
+        c[17] = checkCode(i);
+        for (int k = 16; k >= 0; k--) {
+            c[k] = (char) ('0' + digits % 10);
+            digits /= 10;
+        }
+        return new String(c);
+    }
+
+    /** 6 位地址码（号码前 6 位） */
+    public int addressCode(long i) {
+        return (int) (idDigits(i) / ID_DIVISOR);
+    }
+
+    /** 当前区级下标（RegionIndex），地址码未知时为 -1 */
+    public int districtIndex(long i) {
+        int d = recordSegments[(int) (i >>> recordShift)].getShort(recordOffset(check(i)) + DISTRICT) & 0xFFFF;
+        return d == NO_DISTRICT ? -1 : d;
+    }
+
+    public int birthEpochDay(long i) {
+        return recordSegments[(int) (i >>> recordShift)].getInt(recordOffset(check(i)) + BIRTH);
+    }
+
+    public LocalDate birthDate(long i) {
+        return LocalDate.ofEpochDay(birthEpochDay(i));
+    }
+
+    public boolean isMale(long i) {
+        return (idDigits(i) & 1) == 1;
+    }
+
+    /** 姓名编码（NameCorpus.sample 的格式） */
+    public long nameCode(long i) {
+        ByteBuffer b = recordSegments[(int) (i >>> recordShift)];
+        int off = recordOffset(check(i));
+        return (long) (b.getShort(off + SURNAME) & 0xFFFF) << 40 | (long) (b.get(off + NAME_KIND) & 0xFF) << 32
+                | (long) (b.getShort(off + FIRST) & 0xFFFF) << 16 | (b.getShort(off + SECOND) & 0xFFFF);
+    }
+
+    public String name(long i) {
+        return names.name(nameCode(i));
+    }
+
+    /**
+     * 把存储映像（与 create 的文件布局相同，可用 open 映射）写入 out，不经过堆内缓冲。
+     * @return 写出的字节数
+     */
+    public long transferTo(WritableByteChannel out) throws IOException {
+        long size = byteSize();
+        if (channel != null) {
+            if (writable) channel.force(false);
+            long pos = 0;
+            while (pos < size) pos += channel.transferTo(pos, size - pos, out);
+            return size;
+        }
+        writeFully(header.duplicate().clear(), out);
+        for (ByteBuffer b : recordSegments) writeFully(b.duplicate().clear(), out);
+        for (ByteBuffer b : slotSegments) writeFully(b.duplicate().clear(), out);
+        return size;
+    }
+
+    private static void writeFully(ByteBuffer b, WritableByteChannel out) throws IOException {
+        while (b.hasRemaining()) out.write(b);
+    }
+
+    /** 文件存储：把修改刷回磁盘并关闭通道（映射在被回收前仍可读）；直接内存存储无操作 */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) return;
+        if (writable) channel.force(false);
+        channel.close();
+    }
+
+    private long check(long i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("记录号超出范围: " + i + " / " + count);
+        return i;
+    }
+
+    private int recordOffset(long i) {
+        return (int) (i & ((1L << recordShift) - 1)) * RECORD_SIZE;
+    }
+
+    private int slot(long h) {
+        return slotSegments[(int) (h >>> slotShift)].getInt(slotOffset(h));
+    }
+
+    private int slotOffset(long h) {
+        return (int) (h & ((1L << slotShift) - 1)) * 4;
+    }
+
+    /** 分段与索引规模 */
+    private static final class Layout {
+        final long slots;
+        final int recordShift;
+        final int slotShift;
+        final int recordSegments;
+        final int slotSegments;
+
+        Layout(long capacity, int segmentBits) {
+            if (capacity < 1 || capacity > MAX_CAPACITY) throw new IllegalArgumentException("容量超出范围: " + capacity);
+            long s = Long.highestOneBit(Math.max(16, capacity * 4 / 3));
+            slots = s < capacity * 4 / 3 ? s << 1 : s;
+            recordShift = 63 - Long.numberOfLeadingZeros((1L << segmentBits) / RECORD_SIZE);
+            slotShift = segmentBits - 2;
+            recordSegments = (int) ((capacity + (1L << recordShift) - 1) >>> recordShift);
+            slotSegments = (int) ((slots + (1L << slotShift) - 1) >>> slotShift);
+        }
+
+        /** 第 i 段的字节数（末段可能不满） */
+        long segmentBytes(int i, long total, int shift, int unit) {
+            return Math.min(1L << shift, total - ((long) i << shift)) * unit;
+        }
+
+        long fileSize(long capacity) {
+            return HEADER_SIZE + capacity * RECORD_SIZE + slots * 4;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 多线程批量生成，输出只由主种子决定，与线程数和调度无关。
+ * - 输出按固定大小分块（默认 65536 条）；第 k 块的随机源是主种子 SplittableRandom 第 k 次 split() 的结果，
+ *   分块在调用线程中按顺序 split，因此同一主种子、同一参数总得到逐字节相同的结果。
+ * - 每个工作线程持有自己的 BatchGenerator 副本（共享只读的地址码与日期表），线程间没有共享的随机状态。
+ * - 调用线程按块序写出，同时最多有 2 × 线程数 个块在生成，内存有界；块缓冲区循环复用。
+ */
+public class ParallelBatchGenerator {
+    public static final int DEFAULT_CHUNK = 1 << 16;
+
+    private final BatchGenerator template;
+    private final int threads;
+    private final int chunkSize;
+
+    /** 参数含义同 BatchGenerator；threads 为工作线程数 */
+    public ParallelBatchGenerator(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, int threads) {
+        this(new BatchGenerator(regionPrefixes, from, to, maleRatio, 0L), threads, DEFAULT_CHUNK);
+    }
+
+    /** 以 template 的地址码、日期表与权重为准（其自身随机状态不被使用） */
+    public ParallelBatchGenerator(BatchGenerator template, int threads) {
+        this(template, threads, DEFAULT_CHUNK);
+    }
+
+    ParallelBatchGenerator(BatchGenerator template, int threads, int chunkSize) {
+        if (threads < 1) throw new IllegalArgumentException("线程数必须为正: " + threads);
+        if (chunkSize < 1) throw new IllegalArgumentException("分块大小必须为正: " + chunkSize);
+        this.template = template;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 生成 count 条号码，每行一条按顺序写入 out（调用方负责关闭 out）。
+     * @return 实际写入条数
+     */
+    public long generate(long count, long masterSeed, OutputStream out) throws IOException {
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0, a0 = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+        SplittableRandom root = new SplittableRandom(masterSeed);
+        int window = threads * 2;
+        BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(window);
+        for (int i = 0; i < window; i++) buffers.add(new byte[chunkSize * BatchGenerator.LINE_LENGTH]);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "id-batch-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+        try {
+            long submitted = 0;
+            while (submitted < count || !pending.isEmpty()) {
+                while (submitted < count && pending.size() < window) {
+                    int n = (int) Math.min(chunkSize, count - submitted);
+                    BatchGenerator chunk = template.fork(root.split());
+                    byte[] buf = buffers.remove();
+                    pending.add(pool.submit(() -> fill(chunk, buf, n)));
+                    submitted += n;
+                }
+                Chunk done = pending.remove().get();
+                out.write(done.buf, 0, done.length);
+                buffers.add(done.buf);
+            }
+            out.flush();
+            if (Metrics.ENABLED) Metrics.batch("parallel_write", "多线程批量写出", t0, a0, count);
+            return count;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("批量生成被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("批量生成失败", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Chunk fill(BatchGenerator generator, byte[] buf, int n) {
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            pos = generator.next(buf, pos);
+            buf[pos++] = '\n';
+        }
+        return new Chunk(buf, pos);
+    }
+
+    /** 已填充的块：缓冲区及有效字节数 */
+    private static final class Chunk {
+        final byte[] buf;
+        final int length;
+
+        Chunk(byte[] buf, int length) {
+            this.buf = buf;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * PostgreSQL COPY 文本格式：列以制表符分隔，反斜杠、制表符与换行转义，null 写为 \N。
+ * 导入：COPY person(id, name, address, valid_period) FROM '/path/file' 或 psql 的 \copy ... FROM STDIN。
+ */
+public class PgCopyRecordSink extends ChannelRecordSink {
+    private static final String[] ESCAPES = new String[128];
+    static {
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+    }
+
+    public PgCopyRecordSink(WritableByteChannel channel) {
+        super(channel, ESCAPES);
+    }
+
+    @Override
+    void writeRecord(IdentityRecord r) throws IOException {
+        column(r.getId());
+        buf.put((byte) '\t');
+        column(r.getName());
+        buf.put((byte) '\t');
+        column(r.getAddress());
+        buf.put((byte) '\t');
+        column(r.getValidPeriod());
+        buf.put((byte) '\n');
+    }
+
+    /** 写出列值，之后保证还有 1 字节空间给分隔符 */
+    private void column(String s) throws IOException {
+        if (s == null) putAscii("\\N");
+        else putText(s);
+        ensure(1);
+    }
+}
@@ -0,0 +1,198 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 人口分布模型：地区权重 + 年龄结构，用于让批量号码的地址码和出生日期接近真实人口分布。
+ * <p>
+ * 地区权重文件每行 “区划代码,权重”，代码可以是省、市或区级；每个区县取覆盖它的最具体一条，
+ * 该条权重在它覆盖且没有更具体条目的区县之间平均分配；没有任何条目覆盖的区县权重为 0。
+ * <p>
+ * 年龄结构文件每行 “年龄,权重” 或 “起-止,权重”（区间含两端，权重在区间内各年龄平均分配）。
+ * <p>
+ * 两种文件均为 UTF-8，# 开头为注释。内置默认值（regions_population.csv、age_pyramid.csv）取自
+ * 第七次全国人口普查的省级人口与 5 岁分组年龄结构（近似值）。
+ */
+public final class PopulationModel {
+    public static final String REGION_RESOURCE = "regions_population.csv";
+    public static final String AGE_RESOURCE = "age_pyramid.csv";
+    public static final int MAX_AGE = 120;
+
+    private static volatile PopulationModel defaults;
+
+    private final Map<Integer, Double> regionWeights;
+    private final double[] ageWeights;  // 下标为周岁
+
+    PopulationModel(Map<Integer, Double> regionWeights, double[] ageWeights) {
+        this.regionWeights = regionWeights;
+        this.ageWeights = ageWeights;
+    }
+
+    /** 内置的默认模型 */
+    public static PopulationModel defaults() {
+        PopulationModel m = defaults;
+        if (m == null) {
+            try (Reader regions = resource(REGION_RESOURCE); Reader ages = resource(AGE_RESOURCE)) {
+                m = new PopulationModel(readRegionWeights(regions), readAgeWeights(ages));
+            } catch (IOException e) {
+                throw new IllegalStateException("无法读取内置人口分布数据", e);
+            }
+            defaults = m;
+        }
+        return m;
+    }
+
+    /**
+     * 从文件加载；任一路径为 null 时该部分使用默认值。
+     */
+    public static PopulationModel load(Path regionFile, Path ageFile) throws IOException {
+        PopulationModel base = regionFile == null || ageFile == null ? defaults() : null;
+        Map<Integer, Double> regions;
+        double[] ages;
+        if (regionFile == null) {
+            regions = base.regionWeights;
+        } else {
+            try (Reader r = Files.newBufferedReader(regionFile, StandardCharsets.UTF_8)) {
+                regions = readRegionWeights(r);
+            }
+        }
+        if (ageFile == null) {
+            ages = base.ageWeights;
+        } else {
+            try (Reader r = Files.newBufferedReader(ageFile, StandardCharsets.UTF_8)) {
+                ages = readAgeWeights(r);
+            }
+        }
+        return new PopulationModel(regions, ages);
+    }
+
+    private static Reader resource(String name) throws IOException {
+        InputStream is = PopulationModel.class.getClassLoader().getResourceAsStream(name);
+        if (is == null) throw new IOException("找不到资源: " + name);
+        return new InputStreamReader(is, StandardCharsets.UTF_8);
+    }
+
+    static Map<Integer, Double> readRegionWeights(Reader reader) throws IOException {
+        Map<Integer, Double> weights = new HashMap<>();
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int no = 0;
+        while ((line = br.readLine()) != null) {
+            no++;
+            String[] f = fields(line, no);
+            if (f == null) continue;
+            if (!f[0].matches("\\d{6}")) throw new IOException("第 " + no + " 行区划代码应为 6 位数字: " + f[0]);
+            weights.put(Integer.parseInt(f[0]), weight(f[1], no));
+        }
+        return weights;
+    }
+
+    static double[] readAgeWeights(Reader reader) throws IOException {
+        double[] weights = new double[MAX_AGE + 1];
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int no = 0;
+        while ((line = br.readLine()) != null) {
+            no++;
+            String[] f = fields(line, no);
+            if (f == null) continue;
+            int dash = f[0].indexOf('-');
+            int from, to;
+            try {
+                from = Integer.parseInt(dash < 0 ? f[0] : f[0].substring(0, dash).trim());
+                to = dash < 0 ? from : Integer.parseInt(f[0].substring(dash + 1).trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("第 " + no + " 行年龄格式错误: " + f[0]);
+            }
+            if (from < 0 || to > MAX_AGE || from > to) throw new IOException("第 " + no + " 行年龄超出 0-" + MAX_AGE + ": " + f[0]);
+            double w = weight(f[1], no) / (to - from + 1);
+            for (int a = from; a <= to; a++) weights[a] += w;
+        }
+        return weights;
+    }
+
+    /** 拆出 “键,权重”；空行与注释返回 null */
+    private static String[] fields(String line, int no) throws IOException {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) return null;
+        int comma = line.indexOf(',');
+        if (comma < 0) throw new IOException("第 " + no + " 行缺少逗号: " + line);
+        return new String[]{line.substring(0, comma).trim(), line.substring(comma + 1).trim()};
+    }
+
+    private static double weight(String s, int no) throws IOException {
+        try {
+            double w = Double.parseDouble(s);
+            if (w >= 0 && !Double.isInfinite(w)) return w;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IOException("第 " + no + " 行权重无效: " + s);
+    }
+
+    /**
+     * 各地址码的权重（与 codes 一一对应，codes 为区级代码，见 RegionIndex.districtCodes）。
+     * 条目覆盖的区县数按 regions 中全部区县计（与 codes 选了哪些无关），每个区县得到一份；
+     * 同一代码在 codes 中出现多次时每次都是这一份，不在 regions 中的代码各自另算一份。
+     */
+    public double[] districtWeights(RegionIndex regions, int[] codes) {
+        // 每个条目覆盖的区县数
+        Map<Integer, Integer> shares = new HashMap<>();
+        for (int d = 0; d < regions.districtCount(); d++) {
+            int owner = owner(regions, regions.districtCode(d));
+            if (owner >= 0) shares.merge(owner, 1, Integer::sum);
+        }
+        int[] owner = new int[codes.length];
+        Set<Integer> unknown = new HashSet<>();
+        for (int i = 0; i < codes.length; i++) {
+            owner[i] = owner(regions, codes[i]);
+            if (owner[i] >= 0 && regions.districtIndexOf(codes[i]) < 0 && unknown.add(codes[i])) shares.merge(owner[i], 1, Integer::sum);
+        }
+        double[] weights = new double[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            if (owner[i] >= 0) weights[i] = regionWeights.get(owner[i]) / shares.get(owner[i]);
+        }
+        return weights;
+    }
+
+    /** 覆盖区县 code 的最具体条目；没有时 -1 */
+    private int owner(RegionIndex regions, int code) {
+        int city = code / 100 * 100, province = code / 10000 * 10000;
+        int d = regions.districtIndexOf(code);
+        if (d >= 0) city = regions.cityCode(regions.districtCity(d));
+        return regionWeights.containsKey(code) ? code
+                : regionWeights.containsKey(city) ? city
+                : regionWeights.containsKey(province) ? province : -1;
+    }
+
+    /**
+     * 各出生日期的权重（与 birthYmd 一一对应）：按 reference 当天的周岁取年龄权重，同一周岁内每天相同。
+     */
+    public double[] birthDateWeights(int[] birthYmd, LocalDate reference) {
+        double[] weights = new double[birthYmd.length];
+        for (int i = 0; i < birthYmd.length; i++) {
+            int ymd = birthYmd[i];
+            LocalDate birth = LocalDate.of(ymd / 10000, ymd / 100 % 100, ymd % 100);
+            long age = ChronoUnit.YEARS.between(birth, reference);
+            weights[i] = age >= 0 && age <= MAX_AGE ? ageWeights[(int) age] : 0;
+        }
+        return weights;
+    }
+
+    /** 某一周岁的权重 */
+    public double ageWeight(int age) {
+        return age >= 0 && age <= MAX_AGE ? ageWeights[age] : 0;
+    }
+}
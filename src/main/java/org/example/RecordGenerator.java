@@ -0,0 +1,94 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 生成完整身份记录：号码取自 BatchGenerator，姓名与详细地址取自词表（默认内置词表，可传入 load 的词表），有效期限取自 Utils，
+ * 地址的省/市/区部分由号码中的地址码反查区划索引（与界面一致：省名简化、“市辖区”等名称置空），
+ * 已撤销的历史代码取其并入的当前区县。
+ * 号码与其余字段使用同一种子派生的两个独立随机源，同一参数与种子得到相同结果。
+ */
+public class RecordGenerator {
+    /** 地址码在区划数据中找不到时的省/市/区名称（地址只有详细部分） */
+    static final String[] UNKNOWN_REGION = {"", "", ""};
+
+    private final BatchGenerator ids;
+    private final SplittableRandom random;
+    private final RegionIndex regions;
+    private final NameCorpus names;
+    private final AddressCorpus addresses;
+    private final String[][] regionNames;   // 区级下标 -> {省, 市, 区}，首次用到时填充
+    private final byte[] line = new byte[IdNumberEncoder.LENGTH];
+
+    /** 参数含义同 BatchGenerator */
+    public RecordGenerator(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed) {
+        this(new BatchGenerator(regionPrefixes, from, to, maleRatio, seed), seed);
+    }
+
+    /** 号码按 template 的地址码、日期表与权重生成（其自身随机状态不被使用） */
+    public RecordGenerator(BatchGenerator template, long seed) {
+        this(template, seed, NameCorpus.defaults(), AddressCorpus.defaults());
+    }
+
+    /** 姓名与详细地址取自给定词表（NameCorpus.load / AddressCorpus.load） */
+    public RecordGenerator(BatchGenerator template, long seed, NameCorpus names, AddressCorpus addresses) {
+        SplittableRandom root = new SplittableRandom(seed);
+        this.ids = template.fork(root.split());
+        this.random = root.split();
+        this.regions = AddressCodeUtil.regionIndex();
+        this.names = names;
+        this.addresses = addresses;
+        this.regionNames = new String[regions.districtCount()][];
+    }
+
+    public IdentityRecord next() {
+        ids.next(line, 0);
+        int address = 0;
+        for (int i = 0; i < 6; i++) address = address * 10 + (line[i] - '0');
+        int d = ids.history().resolveNearest(regions, address);  // 历史代码取其并入的当前区县名称
+        String[] n = d < 0 ? UNKNOWN_REGION : regionNames(d);
+        return new IdentityRecord(new String(line, StandardCharsets.US_ASCII),
+                names.name(random),
+                addresses.address(random, cityCode(regions, d, address), n[0], n[1], n[2]),
+                Utils.generateValidPeriod(random));
+    }
+
+    /**
+     * 生成 count 条记录写入 sink（调用方负责关闭 sink）。
+     * @return 写入条数
+     */
+    public long writeTo(RecordSink sink, long count) throws IOException {
+        long t0 = Metrics.ENABLED ? System.nanoTime() : 0, a0 = Metrics.ENABLED ? Metrics.allocatedBytes() : 0;
+        for (long i = 0; i < count; i++) sink.write(next());
+        if (Metrics.ENABLED) Metrics.batch("record_write", "记录导出", t0, a0, count);
+        return count;
+    }
+
+    private String[] regionNames(int d) {
+        String[] n = regionNames[d];
+        if (n == null) {
+            n = addressParts(regions, d);
+            regionNames[d] = n;
+        }
+        return n;
+    }
+
+    /** 区级下标 d 所属市的代码；d 为 -1（地址码在区划数据中找不到）时取地址码的前 4 位 */
+    static int cityCode(RegionIndex regions, int d, int address) {
+        return d < 0 ? address / 100 * 100 : regions.cityCode(regions.districtCity(d));
+    }
+
+    /** 区级下标 d 对应的 {省, 市, 区} 名称，按界面规则处理（省名简化、“市辖区”置空、不设区的市区名为空） */
+    static String[] addressParts(RegionIndex regions, int d) {
+        int c = regions.districtCity(d);
+        String district = regions.districtCode(d) == regions.cityCode(c) ? "" : regions.districtName(d);
+        return new String[]{
+                Utils.simplifyProvinceName(regions.provinceName(regions.cityProvince(c))),
+                Utils.handleRegionName(regions.cityName(c)),
+                Utils.handleRegionName(district)};
+    }
+}
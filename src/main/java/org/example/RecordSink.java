@@ -0,0 +1,60 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 批量记录输出目标。实现均经 1 MB 直接缓冲区写入通道，字符串手工编码为 UTF-8，不经过 Writer/CharsetEncoder。
+ * 格式：csv（带表头）、jsonl（每行一个 JSON 对象）、pgcopy（PostgreSQL COPY 文本格式）、columnar（分组列存二进制，见 ColumnarRecordSink）。
+ */
+public interface RecordSink extends Closeable {
+    List<String> FORMATS = List.of("csv", "jsonl", "pgcopy", "columnar");
+
+    void write(IdentityRecord record) throws IOException;
+
+    /** 已写入条数 */
+    long count();
+
+    /**
+     * 按格式名创建输出；通道由返回的 RecordSink 负责关闭。
+     * @throws IllegalArgumentException 格式未知
+     */
+    static RecordSink create(String format, WritableByteChannel channel) throws IOException {
+        switch (format) {
+            case "csv": return new CsvRecordSink(channel);
+            case "jsonl": return new JsonlRecordSink(channel);
+            case "pgcopy": return new PgCopyRecordSink(channel);
+            case "columnar": return new ColumnarRecordSink(channel);
+            default: throw new IllegalArgumentException("未知输出格式: " + format + "，可选 " + FORMATS);
+        }
+    }
+
+    /** 写入文件（FileChannel）；gzip 为 true 时外加 gzip 压缩 */
+    static RecordSink open(String format, Path file, boolean gzip) throws IOException {
+        if (!FORMATS.contains(format)) throw new IllegalArgumentException("未知输出格式: " + format + "，可选 " + FORMATS);
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            return create(format, gzip ? gzip(Channels.newOutputStream(ch)) : ch);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** 写入输出流（如标准输出）；关闭 RecordSink 时一并关闭 out */
+    static RecordSink open(String format, OutputStream out, boolean gzip) throws IOException {
+        return create(format, gzip ? gzip(out) : Channels.newChannel(out));
+    }
+
+    private static WritableByteChannel gzip(OutputStream out) throws IOException {
+        return Channels.newChannel(new GZIPOutputStream(out, 1 << 16));
+    }
+}
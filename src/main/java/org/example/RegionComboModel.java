@@ -0,0 +1,81 @@
+package org.example;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+
+/**
+ * 省/市/区下拉框的数据模型：RegionIndex 中某一级的连续下标区间 [start, end) 的只读视图。
+ * - 由于每个省的市、每个市的区在 RegionIndex 中连续，切换上级时只需 setRange 改两个整数，
+ *   整体只触发一次 contentsChanged，不再逐项 removeAllItems / addItem 产生事件风暴。
+ * - 选中项以 RegionIndex 下标保存，getSelectedItem 返回名称，与原先的字符串条目兼容。
+ */
+public class RegionComboModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+    public enum Level { PROVINCE, CITY, DISTRICT }
+
+    private final RegionIndex index;
+    private final Level level;
+    private int start;
+    private int end;
+    private int selected = -1;  // RegionIndex 下标，-1 表示未选
+
+    public RegionComboModel(RegionIndex index, Level level) {
+        this.index = index;
+        this.level = level;
+    }
+
+    /** 显示 [start, end) 区间并选中首项（区间为空时无选中项） */
+    public void setRange(int start, int end) {
+        this.start = start;
+        this.end = Math.max(start, end);
+        this.selected = start < this.end ? start : -1;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    public int start() { return start; }
+    public int end() { return end; }
+
+    /** 选中项的 RegionIndex 下标，未选时为 -1 */
+    public int selectedIndex() { return selected; }
+
+    /** 按 RegionIndex 下标选中；不在当前区间时忽略 */
+    public void select(int regionIndex) {
+        if (regionIndex < start || regionIndex >= end || regionIndex == selected) return;
+        selected = regionIndex;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public int getSize() {
+        return end - start;
+    }
+
+    @Override
+    public String getElementAt(int i) {
+        return name(start + i);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selected < 0 ? null : name(selected);
+    }
+
+    /** 按名称选中（JComboBox 在用户点选时调用）；区间内没有该名称时忽略 */
+    @Override
+    public void setSelectedItem(Object item) {
+        if (item == null) return;
+        for (int i = start; i < end; i++) {
+            if (name(i).equals(item)) {
+                select(i);
+                return;
+            }
+        }
+    }
+
+    private String name(int i) {
+        switch (level) {
+            case PROVINCE: return index.provinceName(i);
+            case CITY: return index.cityName(i);
+            default: return index.districtName(i);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 行政区划代码的有效期：每个代码可有若干有效区间，用于按出生日期判断当时是否存在该地址码。
+ * <p>
+ * 文件每行 “代码,名称,起始日期,终止日期,关联代码”：起始日期含、终止日期不含，留空表示无下限/仍然有效；
+ * 关联代码对已终止的条目是并入的代码，对新设的条目是此前所属的代码。未列出的代码视为始终有效。
+ * 内置数据（region_history.csv）收录部分主要城市近几十年的撤并与撤县设区。
+ * <p>
+ * 区间索引：有记录的代码升序存放，每个代码的区间按起始日期连续存放在 int 数组中（日期以 yyyyMMdd 整数比较）；
+ * 查询先用位图排除没有记录的代码，再二分定位代码、扫描其区间（通常 1~2 个），不分配对象。
+ */
+public final class RegionHistory {
+    public static final String RESOURCE = "region_history.csv";
+    /** 不含任何记录：所有代码始终有效 */
+    public static final RegionHistory NONE = new RegionHistory(new TreeMap<>());
+
+    private static final int OPEN_END = 99_999_999;
+    private static volatile RegionHistory defaults;
+
+    private final long[] trackedBits = new long[1_000_000 / 64 + 1];
+    private final int[] codes;        // 有记录的代码（升序）
+    private final int[] first;        // codes[i] 的区间为 [first[i], first[i+1])
+    private final int[] from;         // yyyyMMdd，含；无下限为 0
+    private final int[] to;           // yyyyMMdd，不含；仍有效为 OPEN_END
+    private final int[] links;        // 关联代码，0 表示无
+    private final String[] names;
+
+    private RegionHistory(TreeMap<Integer, List<Entry>> byCode) {
+        int n = 0;
+        for (List<Entry> list : byCode.values()) n += list.size();
+        this.codes = new int[byCode.size()];
+        this.first = new int[codes.length + 1];
+        this.from = new int[n];
+        this.to = new int[n];
+        this.links = new int[n];
+        this.names = new String[n];
+        int i = 0, k = 0;
+        for (var e : byCode.entrySet()) {
+            codes[i] = e.getKey();
+            trackedBits[codes[i] >>> 6] |= 1L << codes[i];
+            first[i++] = k;
+            List<Entry> list = e.getValue();
+            list.sort((a, b) -> Integer.compare(a.from, b.from));
+            for (Entry x : list) {
+                from[k] = x.from;
+                to[k] = x.to;
+                links[k] = x.link;
+                names[k++] = x.name;
+            }
+        }
+        first[i] = k;
+    }
+
+    private static final class Entry {
+        final int from, to, link;
+        final String name;
+
+        Entry(int from, int to, int link, String name) {
+            this.from = from;
+            this.to = to;
+            this.link = link;
+            this.name = name;
+        }
+    }
+
+    /** 内置数据 */
+    public static RegionHistory defaults() {
+        RegionHistory h = defaults;
+        if (h == null) {
+            InputStream is = RegionHistory.class.getClassLoader().getResourceAsStream(RESOURCE);
+            if (is == null) {
+                h = NONE;
+            } else {
+                try (Reader r = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+                    h = read(r);
+                } catch (IOException e) {
+                    throw new IllegalStateException("无法读取内置区划历史数据", e);
+                }
+            }
+            defaults = h;
+        }
+        return h;
+    }
+
+    public static RegionHistory load(Path file) throws IOException {
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return read(r);
+        } catch (IOException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    static RegionHistory read(Reader reader) throws IOException {
+        TreeMap<Integer, List<Entry>> byCode = new TreeMap<>();
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int no = 0;
+        while ((line = br.readLine()) != null) {
+            no++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split(",", -1);
+            if (f.length < 4 || f.length > 5 || !f[0].trim().matches("\\d{6}")) {
+                throw new IOException("第 " + no + " 行应为 代码,名称,起始日期,终止日期[,关联代码]: " + line);
+            }
+            int start, end, link = 0;
+            try {
+                start = f[2].isBlank() ? 0 : IdNumberEncoder.toYmd(LocalDate.parse(f[2].trim()));
+                end = f[3].isBlank() ? OPEN_END : IdNumberEncoder.toYmd(LocalDate.parse(f[3].trim()));
+            } catch (DateTimeParseException e) {
+                throw new IOException("第 " + no + " 行日期无效: " + line);
+            }
+            if (start >= end) throw new IOException("第 " + no + " 行起始日期不早于终止日期: " + line);
+            if (f.length == 5 && !f[4].isBlank()) {
+                if (!f[4].trim().matches("\\d{6}")) throw new IOException("第 " + no + " 行关联代码无效: " + line);
+                link = Integer.parseInt(f[4].trim());
+            }
+            byCode.computeIfAbsent(Integer.parseInt(f[0].trim()), k -> new ArrayList<>())
+                    .add(new Entry(start, end, link, f[1].trim()));
+        }
+        return new RegionHistory(byCode);
+    }
+
+    /** 有记录的代码数 */
+    public int size() {
+        return codes.length;
+    }
+
+    /** 是否有该代码的有效期记录 */
+    public boolean tracks(int code) {
+        return code >= 0 && code < 1_000_000 && (trackedBits[code >>> 6] & (1L << code)) != 0;
+    }
+
+    /** 代码在 yyyyMMdd 当天是否有效；没有记录的代码始终有效 */
+    public boolean isInEffect(int code, int ymd) {
+        return !tracks(code) || interval(code, ymd) >= 0;
+    }
+
+    /** 代码在该日期的名称；无记录或当天无效时返回 null */
+    public String name(int code, int ymd) {
+        int k = tracks(code) ? interval(code, ymd) : -1;
+        return k < 0 ? null : names[k];
+    }
+
+    /** 有记录的代码的全部有效期记录下标区间，高 32 位为起、低 32 位为止；无记录时起止相等 */
+    private long entries(int code) {
+        int i = Arrays.binarySearch(codes, code);
+        return i < 0 ? 0 : ((long) first[i] << 32) | first[i + 1];
+    }
+
+    private int interval(int code, int ymd) {
+        long r = entries(code);
+        for (int k = (int) (r >>> 32), end = (int) r; k < end && from[k] <= ymd; k++) {
+            if (ymd < to[k]) return k;
+        }
+        return -1;
+    }
+
+    /** 全部有记录的代码（升序） */
+    int[] codes() {
+        return codes.clone();
+    }
+
+    /**
+     * 代码在区划索引中对应的区级下标：当前存在的代码直接返回；已撤销的代码沿关联代码（并入的代码）查找，
+     * 找不到时返回 -1。用于为历史地址码取现在的省/市/区名称。
+     */
+    public int resolve(RegionIndex regions, int code) {
+        for (int step = 0; step < 8; step++) {
+            int d = regions.districtIndexOf(code);
+            if (d >= 0) return d;
+            long r = entries(code);
+            int last = (int) r - 1;
+            if (last < (int) (r >>> 32) || to[last] == OPEN_END || links[last] == 0) return -1;
+            code = links[last];
+        }
+        return -1;
+    }
+
+    /**
+     * 同 resolve，解析不到时退回同一地级（前 4 位）、再同一省（前 2 位）的第一个区县，仍找不到返回 -1。
+     * 用于只取省/市/区名称的场合（如生成地址文本），历史数据与区划数据不一致时不至于没有名称。
+     */
+    public int resolveNearest(RegionIndex regions, int code) {
+        int d = resolve(regions, code);
+        for (int scale = 100; d < 0 && scale <= 10_000; scale *= 100) {
+            long r = regions.districtRange(String.valueOf(code / scale));
+            if ((int) (r >>> 32) < (int) r) d = (int) (r >>> 32);
+        }
+        return d;
+    }
+
+    /**
+     * 与 code 对应、在 yyyyMMdd 当天有效的代码：code 当天有效时原样返回；当天尚未设立时取其此前所属的代码
+     * （如 1990 年的 110112 通州区取 110223 通县），已撤销时取其并入的代码；沿关联代码找不到时原样返回。
+     */
+    public int codeAt(int code, int ymd) {
+        int c = code;
+        for (int step = 0; step < 8 && tracks(c); step++) {
+            if (interval(c, ymd) >= 0) return c;
+            long r = entries(c);
+            int k = (int) (r >>> 32), end = (int) r;
+            while (k + 1 < end && from[k + 1] <= ymd) k++;  // 设立之前取第一段（此前所属），否则取当天之前最后一段（并入）
+            if (links[k] == 0) return code;
+            c = links[k];
+        }
+        return isInEffect(c, ymd) ? c : code;
+    }
+
+    /**
+     * 生成用的时间表：把出生日期轴按有效期的起止日期切成若干时段，每个时段列出当时有效的候选地址码。
+     * - 首选：current 中的当前代码与以 prefixes 任一前缀开头的历史代码（需能 resolve 到区划索引），按各自有效期；
+     * - 某时段没有首选代码时（如新设区设立之前），改用关联代码：并入 current 中代码的已撤销代码、
+     *   current 中新设代码此前所属的代码（仅限新设之前）；
+     * - 仍然没有时（数据不完整）使用 current 全部代码。
+     * 若 current 中没有任何代码与历史记录相关，返回 null（地址码与出生日期无关，按原方式抽取）。
+     */
+    Timeline timeline(RegionIndex regions, int[] current, List<String> prefixes) {
+        TreeMap<Integer, List<int[]>> primary = new TreeMap<>();  // 代码 -> 有效窗口 {from, to}
+        TreeMap<Integer, List<int[]>> linked = new TreeMap<>();
+        boolean related = false;
+        for (int c : current) {
+            if (tracks(c)) {
+                related = true;
+                addIntervals(primary, c, OPEN_END);
+            } else {
+                primary.computeIfAbsent(c, k -> new ArrayList<>()).add(new int[]{0, OPEN_END});
+            }
+        }
+        for (int k = 0; k < codes.length; k++) {
+            int c = codes[k];
+            if (primary.containsKey(c) || resolve(regions, c) < 0) continue;
+            if (matches(c, prefixes)) {
+                related = true;
+                addIntervals(primary, c, OPEN_END);
+                continue;
+            }
+            for (int e = first[k]; e < first[k + 1]; e++) {
+                if (to[e] != OPEN_END && links[e] != 0 && Arrays.binarySearch(current, links[e]) >= 0) {
+                    linked.computeIfAbsent(c, x -> new ArrayList<>()).add(new int[]{from[e], to[e]});
+                }
+            }
+        }
+        for (int c : current) {
+            long r = entries(c);
+            for (int e = (int) (r >>> 32), end = (int) r; e < end; e++) {
+                int p = links[e];
+                if (from[e] == 0 || p == 0 || primary.containsKey(p) || resolve(regions, p) < 0) continue;
+                if (tracks(p)) {
+                    addIntervals(linked, p, from[e]);
+                } else {
+                    linked.computeIfAbsent(p, x -> new ArrayList<>()).add(new int[]{0, from[e]});
+                }
+            }
+        }
+        if (!related) return null;
+
+        TreeMap<Integer, List<int[]>> windows = new TreeMap<>(linked);
+        windows.putAll(primary);
+        int[] all = new int[windows.size()];
+        int n = 0;
+        TreeSet<Integer> bounds = new TreeSet<>();
+        bounds.add(0);
+        for (var w : windows.entrySet()) {
+            all[n++] = w.getKey();
+            for (int[] iv : w.getValue()) {
+                bounds.add(iv[0]);
+                if (iv[1] != OPEN_END) bounds.add(iv[1]);
+            }
+        }
+        int[] starts = bounds.stream().mapToInt(Integer::intValue).toArray();
+        int[][] members = new int[starts.length][];
+        int[] fallback = new int[current.length];
+        for (int i = 0; i < current.length; i++) fallback[i] = Arrays.binarySearch(all, current[i]);
+        for (int s = 0; s < starts.length; s++) {
+            int[] m = inEffect(primary, all, starts[s]);
+            if (m.length == 0) m = inEffect(linked, all, starts[s]);
+            members[s] = m.length == 0 ? fallback : m;
+        }
+        return new Timeline(all, starts, members);
+    }
+
+    /** windows 中在 ymd 当天有效的代码在 all 中的下标 */
+    private static int[] inEffect(TreeMap<Integer, List<int[]>> windows, int[] all, int ymd) {
+        int[] m = new int[windows.size()];
+        int count = 0;
+        for (var w : windows.entrySet()) {
+            for (int[] iv : w.getValue()) {
+                if (iv[0] <= ymd && ymd < iv[1]) {
+                    m[count++] = Arrays.binarySearch(all, w.getKey());
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(m, count);
+    }
+
+    /** 登记代码的有效区间，截止于 limit 之前 */
+    private void addIntervals(TreeMap<Integer, List<int[]>> windows, int code, int limit) {
+        long r = entries(code);
+        List<int[]> list = windows.computeIfAbsent(code, k -> new ArrayList<>());
+        for (int e = (int) (r >>> 32), end = (int) r; e < end; e++) {
+            if (from[e] < limit) list.add(new int[]{from[e], Math.min(to[e], limit)});
+        }
+    }
+
+    private static boolean matches(int code, List<String> prefixes) {
+        if (prefixes == null || prefixes.isEmpty()) return true;
+        String s = String.format("%06d", code);
+        for (String p : prefixes) if (s.startsWith(p)) return true;
+        return false;
+    }
+
+    /**
+     * 按出生日期划分的候选地址码表：时段 s 覆盖 [starts[s], starts[s+1])，其候选为 codes[members[s][*]]。
+     */
+    static final class Timeline {
+        final int[] codes;
+        final int[] starts;
+        final int[][] members;
+
+        Timeline(int[] codes, int[] starts, int[][] members) {
+            this.codes = codes;
+            this.starts = starts;
+            this.members = members;
+        }
+
+        /** yyyyMMdd 所在时段 */
+        int epochOf(int ymd) {
+            int lo = 0, hi = starts.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (starts[mid] <= ymd) lo = mid; else hi = mid - 1;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * 紧凑的不可变省/市/区索引，供批量生成等热点路径使用。
+ * - 三级代码均为按升序排列的 int 数组，按代码查找为二分 O(log n)；
+ *   由于下级代码以上级代码为前缀，每个省的市、每个市的区在数组中连续，用 start 偏移数组（长度 n+1）表示父子关系。
+ * - 区级即“可用作地址码的末级单位”：无下辖区县的市（如东莞市）以自身代码作为一个区级条目，与 getFullAddressCode 一致。
+ * - 名称去重后存放在名称表中，各级只保存 int 名称下标。
+ * - 随机选区为 O(1)：districtCode(random.nextInt(districtCount()))。
+ */
+public final class RegionIndex {
+    private final String[] names;
+
+    private final int[] provinceCodes;
+    private final int[] provinceNames;
+    private final int[] provinceCityStart;
+
+    private final int[] cityCodes;
+    private final int[] cityNames;
+    private final int[] cityProvince;
+    private final int[] cityDistrictStart;
+
+    private final int[] districtCodes;
+    private final int[] districtNames;
+    private final int[] districtCity;
+
+    private RegionIndex(Builder b) {
+        int p = b.provinces.size(), c = b.cities.size(), d = b.districts.size();
+        names = b.names.toArray(new String[0]);
+        provinceCodes = new int[p];
+        provinceNames = new int[p];
+        provinceCityStart = new int[p + 1];
+        cityCodes = new int[c];
+        cityNames = new int[c];
+        cityProvince = new int[c];
+        cityDistrictStart = new int[c + 1];
+        districtCodes = new int[d];
+        districtNames = new int[d];
+        districtCity = new int[d];
+
+        b.provinces.sort();
+        b.cities.sort();
+        b.districts.sort();
+        for (int i = 0; i < p; i++) {
+            provinceCodes[i] = (int) (b.provinces.get(i) >>> 32);
+            provinceNames[i] = (int) b.provinces.get(i);
+        }
+        for (int i = 0; i < c; i++) {
+            cityCodes[i] = (int) (b.cities.get(i) >>> 32);
+            cityNames[i] = (int) b.cities.get(i);
+        }
+        for (int i = 0; i < d; i++) {
+            districtCodes[i] = (int) (b.districts.get(i) >>> 32);
+            districtNames[i] = (int) b.districts.get(i);
+        }
+        link(provinceCodes, cityCodes, provinceCityStart, cityProvince);
+        link(cityCodes, districtCodes, cityDistrictStart, districtCity);
+    }
+
+    /** 按代码有序性求每个上级的首个下级偏移，并回填下级的上级下标 */
+    private static void link(int[] parents, int[] children, int[] start, int[] parentOf) {
+        for (int i = 0; i < parents.length; i++) start[i] = lowerBound(children, parents[i]);
+        start[parents.length] = children.length;
+        for (int i = 0; i < parents.length; i++) {
+            for (int j = start[i]; j < start[i + 1]; j++) parentOf[j] = i;
+        }
+    }
+
+    /** 由 AddressCodeUtil 的三级映射构建（代码非 6 位数字的条目忽略） */
+    public static RegionIndex build(Map<String, String> provinces,
+                                    Map<String, Map<String, String>> cities,
+                                    Map<String, Map<String, String>> districts) {
+        Builder b = new Builder();
+        for (Map.Entry<String, String> pe : provinces.entrySet()) {
+            if (b.province(pe.getKey(), pe.getValue()) < 0) continue;
+            Map<String, String> cityMap = cities.get(pe.getKey());
+            if (cityMap == null) continue;
+            for (Map.Entry<String, String> ce : cityMap.entrySet()) {
+                if (b.city(ce.getKey(), ce.getValue()) < 0) continue;
+                Map<String, String> distMap = districts.get(ce.getKey());
+                if (distMap == null || distMap.isEmpty()) {
+                    b.district(ce.getKey(), ce.getValue()); // 无下辖区县：市级代码即地址码
+                    continue;
+                }
+                for (Map.Entry<String, String> de : distMap.entrySet()) {
+                    b.district(de.getKey(), de.getValue());
+                }
+            }
+        }
+        return new RegionIndex(b);
+    }
+
+    // --- 省 ---
+    public int provinceCount() { return provinceCodes.length; }
+    public int provinceCode(int i) { return provinceCodes[i]; }
+    public String provinceName(int i) { return names[provinceNames[i]]; }
+    public int provinceIndexOf(int code) { return indexOf(provinceCodes, code); }
+    public int firstCity(int province) { return provinceCityStart[province]; }
+    public int endCity(int province) { return provinceCityStart[province + 1]; }
+
+    // --- 市 ---
+    public int cityCount() { return cityCodes.length; }
+    public int cityCode(int i) { return cityCodes[i]; }
+    public String cityName(int i) { return names[cityNames[i]]; }
+    public int cityProvince(int i) { return cityProvince[i]; }
+    public int cityIndexOf(int code) { return indexOf(cityCodes, code); }
+    public int firstDistrict(int city) { return cityDistrictStart[city]; }
+    public int endDistrict(int city) { return cityDistrictStart[city + 1]; }
+
+    // --- 区（末级地址单位） ---
+    public int districtCount() { return districtCodes.length; }
+    public int districtCode(int i) { return districtCodes[i]; }
+    public String districtName(int i) { return names[districtNames[i]]; }
+    public int districtCity(int i) { return districtCity[i]; }
+    public int districtIndexOf(int code) { return indexOf(districtCodes, code); }
+
+    /** 均匀随机选取一个区级地址码，O(1) */
+    public int randomDistrictCode(SplittableRandom random) {
+        return districtCodes[random.nextInt(districtCodes.length)];
+    }
+
+    /**
+     * 区级下标区间 [from, to)，其代码以给定前缀开头（如 "44"、"4401"、"440106"）；不存在时 from == to。
+     * @return long，高 32 位为 from，低 32 位为 to
+     */
+    public long districtRange(String prefix) {
+        if (prefix.isEmpty()) return districtCodes.length;
+        if (prefix.length() > 6 || !isDigits(prefix)) return 0;
+        int scale = 1;
+        for (int i = prefix.length(); i < 6; i++) scale *= 10;
+        int lo = Integer.parseInt(prefix) * scale;
+        int from = lowerBound(districtCodes, lo);
+        int to = lowerBound(districtCodes, lo + scale);
+        return ((long) from << 32) | to;
+    }
+
+    /** 匹配任一前缀的区级地址码（升序、去重）；前缀为 null/空时返回全部 */
+    public int[] districtCodes(List<String> prefixes) {
+        if (prefixes == null || prefixes.isEmpty()) return districtCodes.clone();
+        boolean[] hit = new boolean[districtCodes.length];
+        int n = 0;
+        for (String p : prefixes) {
+            long range = districtRange(p);
+            for (int i = (int) (range >>> 32), end = (int) range; i < end; i++) {
+                if (!hit[i]) { hit[i] = true; n++; }
+            }
+        }
+        int[] result = new int[n];
+        for (int i = 0, k = 0; i < hit.length; i++) {
+            if (hit[i]) result[k++] = districtCodes[i];
+        }
+        return result;
+    }
+
+    private static int indexOf(int[] codes, int code) {
+        int i = Arrays.binarySearch(codes, code);
+        return i >= 0 ? i : -1;
+    }
+
+    private static int lowerBound(int[] a, int key) {
+        int lo = 0, hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private static boolean isDigits(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') return false;
+        }
+        return true;
+    }
+
+    /** 构建期的临时容器：条目打包为 (code << 32 | 名称下标)，排序后即按代码有序 */
+    static final class Builder {
+        final List<String> names = new ArrayList<>();
+        final Map<String, Integer> nameIds = new HashMap<>();
+        final Level provinces = new Level();
+        final Level cities = new Level();
+        final Level districts = new Level();
+
+        int province(String code, String name) { return add(provinces, code, name); }
+        int city(String code, String name) { return add(cities, code, name); }
+        int district(String code, String name) { return add(districts, code, name); }
+
+        private int add(Level level, String code, String name) {
+            if (code == null || code.length() != 6 || !isDigits(code)) return -1;
+            String n = name == null ? code : name;
+            Integer id = nameIds.get(n);
+            if (id == null) {
+                id = names.size();
+                names.add(n);
+                nameIds.put(n, id);
+            }
+            return level.add(((long) Integer.parseInt(code) << 32) | id);
+        }
+
+        RegionIndex build() {
+            return new RegionIndex(this);
+        }
+    }
+
+    /** 可增长的 long 数组 */
+    static final class Level {
+        private long[] entries = new long[64];
+        private int size;
+
+        int add(long entry) {
+            if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+            entries[size] = entry;
+            return size++;
+        }
+
+        int size() { return size; }
+        long get(int i) { return entries[i]; }
+        void sort() { Arrays.sort(entries, 0, size); }
+    }
+}
@@ -0,0 +1,163 @@
+package org.example;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一份不可变的省/市/区数据快照：三级映射、名称反向索引、紧凑区划索引（RegionIndex）。
+ * 构建完成后不再修改，可被任意线程无锁读取；AddressCodeUtil 以 volatile 引用整体替换快照实现热加载。
+ */
+public final class RegionModel {
+    static final RegionModel EMPTY = build(new AddressCodeUtil.Root());
+
+    private final Map<String, String> provinces;                 // 省code -> 省名
+    private final Map<String, Map<String, String>> cities;       // 省code -> (市code -> 市名)
+    private final Map<String, Map<String, String>> districts;    // 市code -> (区code -> 区名)
+    private final Map<String, String> provinceCodes;             // 省名/简称 -> 省code
+    private final Map<String, Map<String, String>> cityCodes;    // 省code -> (市名 -> 市code)
+    private final Map<String, Map<String, String>> districtCodes; // 市code -> (区名 -> 区code)
+    private final RegionIndex index;
+    private volatile Map<String, String> pathCodes;              // 省名+市名+区名 -> 地址码（首次使用时构建）
+
+    private RegionModel(Map<String, String> provinces, Map<String, Map<String, String>> cities,
+                        Map<String, Map<String, String>> districts) {
+        this.provinces = Collections.unmodifiableMap(provinces);
+        this.cities = Collections.unmodifiableMap(cities);
+        this.districts = Collections.unmodifiableMap(districts);
+        Map<String, String> pCodes = new HashMap<>();
+        Map<String, Map<String, String>> cCodes = new HashMap<>();
+        Map<String, Map<String, String>> dCodes = new HashMap<>();
+        buildReverseIndexes(pCodes, cCodes, dCodes);
+        this.provinceCodes = pCodes;
+        this.cityCodes = cCodes;
+        this.districtCodes = dCodes;
+        this.index = RegionIndex.build(provinces, cities, districts);
+    }
+
+    /** 由 JSON/快照模型构建；缺少 code 的条目跳过，缺少名称时以 code 代替 */
+    static RegionModel build(AddressCodeUtil.Root root) {
+        Map<String, String> provinces = new LinkedHashMap<>();
+        Map<String, Map<String, String>> cities = new LinkedHashMap<>();
+        Map<String, Map<String, String>> districts = new LinkedHashMap<>();
+        if (root.provinces != null) {
+            for (AddressCodeUtil.Province p : root.provinces) {
+                if (p == null || p.code == null) continue;
+                String pCode = p.code;
+                provinces.put(pCode, p.name == null ? pCode : p.name);
+
+                Map<String, String> cityMap = new LinkedHashMap<>();
+                if (p.cities != null) {
+                    for (AddressCodeUtil.City c : p.cities) {
+                        if (c == null || c.code == null) continue;
+                        String cCode = c.code;
+                        cityMap.put(cCode, c.name == null ? cCode : c.name);
+
+                        Map<String, String> distMap = new LinkedHashMap<>();
+                        if (c.districts != null) {
+                            for (AddressCodeUtil.District d : c.districts) {
+                                if (d == null || d.code == null) continue;
+                                distMap.put(d.code, d.name == null ? d.code : d.name);
+                            }
+                        }
+                        districts.put(cCode, Collections.unmodifiableMap(distMap));
+                    }
+                }
+                cities.put(pCode, Collections.unmodifiableMap(cityMap));
+            }
+        }
+        return new RegionModel(provinces, cities, districts);
+    }
+
+    /**
+     * 由三级映射构建名称反向索引；省名同时登记 Utils.simplifyProvinceName 的简称（如“新疆”）。
+     */
+    private void buildReverseIndexes(Map<String, String> pCodes, Map<String, Map<String, String>> cCodes,
+                                     Map<String, Map<String, String>> dCodes) {
+        for (Map.Entry<String, String> pe : provinces.entrySet()) {
+            String pCode = pe.getKey();
+            String pName = pe.getValue();
+            pCodes.putIfAbsent(pName, pCode);
+            pCodes.putIfAbsent(Utils.simplifyProvinceName(pName), pCode);
+
+            Map<String, String> byCityName = new HashMap<>();
+            for (Map.Entry<String, String> ce : cities.getOrDefault(pCode, Collections.emptyMap()).entrySet()) {
+                String cCode = ce.getKey();
+                byCityName.putIfAbsent(ce.getValue(), cCode);
+
+                Map<String, String> byDistrictName = new HashMap<>();
+                for (Map.Entry<String, String> de : districts.getOrDefault(cCode, Collections.emptyMap()).entrySet()) {
+                    byDistrictName.putIfAbsent(de.getValue(), de.getKey());
+                }
+                dCodes.put(cCode, byDistrictName);
+            }
+            cCodes.put(pCode, byCityName);
+        }
+    }
+
+    /** 省code -> 省名（只读，保持数据文件顺序） */
+    public Map<String, String> provinces() { return provinces; }
+    /** 省code -> (市code -> 市名)（只读） */
+    public Map<String, Map<String, String>> cities() { return cities; }
+    /** 市code -> (区code -> 区名)（只读） */
+    public Map<String, Map<String, String>> districts() { return districts; }
+    public RegionIndex index() { return index; }
+    public boolean isEmpty() { return provinces.isEmpty(); }
+
+    /** 省名或简称查省code */
+    public String provinceCode(String provinceName) {
+        return provinceName == null ? null : provinceCodes.get(provinceName);
+    }
+
+    public String cityCode(String provinceCode, String cityName) {
+        Map<String, String> m = cityCodes.get(provinceCode);
+        return m == null || cityName == null ? null : m.get(cityName);
+    }
+
+    public String districtCode(String cityCode, String districtName) {
+        Map<String, String> m = districtCodes.get(cityCode);
+        return m == null || districtName == null ? null : m.get(districtName);
+    }
+
+    /** 按拼接后的完整名称查地址码（见 AddressCodeUtil.getAddressCodeByPath） */
+    public String addressCodeByPath(String fullPath) {
+        return fullPath == null ? null : pathCodes().get(fullPath);
+    }
+
+    /**
+     * 完整路径索引：同时登记简称省名、以及 Utils.handleRegionName 处理后的市名（“市辖区”类市名记为空串）的组合，
+     * 与图片生成时拼出的地址前缀一致。只有按路径查码的调用方需要，因此延迟到首次使用时构建。
+     */
+    private Map<String, String> pathCodes() {
+        Map<String, String> m = pathCodes;
+        if (m != null) return m;
+        m = new HashMap<>();
+        for (Map.Entry<String, String> pe : provinces.entrySet()) {
+            String pName = pe.getValue();
+            String pShort = Utils.simplifyProvinceName(pName);
+            for (Map.Entry<String, String> ce : cities.getOrDefault(pe.getKey(), Collections.emptyMap()).entrySet()) {
+                String cCode = ce.getKey();
+                String cName = ce.getValue();
+                String cHandled = Utils.handleRegionName(cName);
+                Map<String, String> ds = districts.getOrDefault(cCode, Collections.emptyMap());
+                for (Map.Entry<String, String> de : ds.entrySet()) {
+                    putPath(m, de.getKey(), pName, pShort, cName, cHandled, de.getValue());
+                }
+                if (ds.isEmpty() && cCode.length() >= 6) {
+                    putPath(m, cCode.substring(0, 6), pName, pShort, cName, cHandled, "");
+                }
+            }
+        }
+        pathCodes = m;
+        return m;
+    }
+
+    private static void putPath(Map<String, String> m, String code, String pName, String pShort,
+                                String cName, String cHandled, String dName) {
+        m.putIfAbsent(pName + cName + dName, code);
+        m.putIfAbsent(pShort + cName + dName, code);
+        m.putIfAbsent(pName + cHandled + dName, code);
+        m.putIfAbsent(pShort + cHandled + dName, code);
+    }
+}
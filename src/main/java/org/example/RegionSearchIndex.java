@@ -0,0 +1,141 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 区县名称检索：按名称前缀或子串在全部区级条目（约 3000 个）中查找，供界面输入即查。
+ * - 每个条目的检索文本为“省名+市名+区名”（如“广东省广州市天河区”），可输入“天河”“广州天河”等任意连续片段。
+ * - 二元组（相邻两字）倒排索引：查询串的各二元组对应的升序下标数组求交集得到候选，再逐个确认包含关系；
+ *   单字查询用单字倒排表。候选通常只有几个到几十个，不必扫描全部条目。
+ * - 排序：区名以查询串开头 < 区名包含查询串 < 仅完整路径包含；同级按代码升序。
+ * 实例不可变、线程安全。
+ */
+public final class RegionSearchIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final RegionIndex index;
+    private final String[] texts;              // 区级下标 -> 检索文本
+    private final Map<Integer, int[]> grams;   // 单字 c 或二元组 (c1 << 16 | c2) -> 升序区级下标
+
+    private RegionSearchIndex(RegionIndex index, String[] texts, Map<Integer, int[]> grams) {
+        this.index = index;
+        this.texts = texts;
+        this.grams = grams;
+    }
+
+    public static RegionSearchIndex build(RegionIndex index) {
+        int n = index.districtCount();
+        String[] texts = new String[n];
+        Map<Integer, IntList> lists = new HashMap<>();
+        for (int d = 0; d < n; d++) {
+            int c = index.districtCity(d);
+            String text = index.provinceName(index.cityProvince(c)) + index.cityName(c)
+                    + (index.districtCode(d) == index.cityCode(c) ? "" : index.districtName(d));
+            texts[d] = text;
+            for (int i = 0; i < text.length(); i++) {
+                add(lists, text.charAt(i), d);
+                if (i + 1 < text.length()) add(lists, text.charAt(i) << 16 | text.charAt(i + 1), d);
+            }
+        }
+        Map<Integer, int[]> grams = new HashMap<>(lists.size() * 2);
+        lists.forEach((k, v) -> grams.put(k, v.toArray()));
+        return new RegionSearchIndex(index, texts, grams);
+    }
+
+    /** 下标按升序加入，同一条目重复出现的字只记一次 */
+    private static void add(Map<Integer, IntList> lists, int key, int d) {
+        IntList l = lists.computeIfAbsent(key, k -> new IntList());
+        if (l.size == 0 || l.values[l.size - 1] != d) l.add(d);
+    }
+
+    public RegionIndex regionIndex() { return index; }
+
+    /** 区级下标 d 的检索文本（省名+市名+区名） */
+    public String text(int d) { return texts[d]; }
+
+    /**
+     * 查找包含 query 的区级条目。
+     * @return 按相关度排序的区级下标，最多 limit 个；query 为空白时返回空数组
+     */
+    public int[] search(String query, int limit) {
+        String q = query == null ? "" : query.trim();
+        if (q.isEmpty() || limit <= 0) return EMPTY;
+        int[] candidates = null;
+        if (q.length() == 1) {
+            candidates = grams.getOrDefault((int) q.charAt(0), EMPTY);
+        } else {
+            for (int i = 0; i + 1 < q.length(); i++) {
+                int[] list = grams.getOrDefault(q.charAt(i) << 16 | q.charAt(i + 1), EMPTY);
+                candidates = candidates == null ? list : intersect(candidates, list);
+                if (candidates.length == 0) return EMPTY;
+            }
+        }
+        // 三档相关度各自保持代码升序，依次取满 limit
+        int[][] buckets = new int[3][];
+        int[] sizes = new int[3];
+        for (int b = 0; b < 3; b++) buckets[b] = new int[Math.min(limit, candidates.length)];
+        for (int d : candidates) {
+            int rank = rank(d, q);
+            if (rank >= 0 && sizes[rank] < buckets[rank].length) buckets[rank][sizes[rank]++] = d;
+        }
+        int[] result = new int[Math.min(limit, sizes[0] + sizes[1] + sizes[2])];
+        int pos = 0;
+        for (int b = 0; b < 3 && pos < result.length; b++) {
+            int take = Math.min(sizes[b], result.length - pos);
+            System.arraycopy(buckets[b], 0, result, pos, take);
+            pos += take;
+        }
+        return result;
+    }
+
+    /** 查找结果的检索文本 */
+    public List<String> searchTexts(String query, int limit) {
+        int[] found = search(query, limit);
+        List<String> names = new ArrayList<>(found.length);
+        for (int d : found) names.add(texts[d]);
+        return names;
+    }
+
+    /** 0：区名前缀；1：区名子串；2：路径子串；-1：不含（二元组误命中） */
+    private int rank(int d, String q) {
+        int c = index.districtCity(d);
+        String name = index.districtCode(d) == index.cityCode(c) ? index.cityName(c) : index.districtName(d);
+        if (name.startsWith(q)) return 0;
+        if (name.contains(q)) return 1;
+        return texts[d].contains(q) ? 2 : -1;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /** 可增长的 int 数组 */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
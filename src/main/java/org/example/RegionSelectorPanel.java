@@ -1,24 +1,44 @@
 package org.example;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.util.List;
-import java.util.Map;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 
 /**
  * 省/市/区三级联动选择面板（用于 Main 的步骤 1）。
  * - 布局：FlowLayout 左对齐，间距紧凑（8px 水平，0px 垂直）。
  * - 宽度策略：计算各级最长名称，使用 prototypeDisplayValue 固定三个下拉框的显示宽度，避免随内容变化导致抖动。
- * - 数据来源：依赖 AddressCodeUtil 从类路径 resources/output.json 加载并缓存省/市/区数据（静态映射）。
- * - 初始值：默认选中第一个省、市、区（若有）。
+ * - 数据来源：创建时取 AddressCodeUtil.regionIndex() 的紧凑索引，三个下拉框的模型（RegionComboModel）是其下标区间视图；
+ *   联动只改区间，每次刷新只触发一次变更事件，也不再按名称反查代码。
+ * - 初始值：默认选中第一个省、市、区（若有）。无下辖区县的市（如东莞市）区下拉框为空。
  * - 联动逻辑：选择省后刷新市；选择市后刷新区。
+ * - 搜索：在“搜索区县”框输入名称片段（如“天河”“广州天河”），弹出匹配列表（RegionSearchIndex），
+ *   上下键选择、回车或单击后直接跳到该区县。
  * - 对外方法：getProvinceName()/getCityName()/getDistrictName() 返回当前选择的中文名称。
  */
 public class RegionSelectorPanel extends JPanel {
+    private static final int MAX_RESULTS = 50;
+
     private final JLabel regionLabel = new JLabel("户籍地址：");
-    private final JComboBox<String> provinceCombo = new JComboBox<>();
-    private final JComboBox<String> cityCombo = new JComboBox<>();
-    private final JComboBox<String> districtCombo = new JComboBox<>();
+    private final RegionIndex index = AddressCodeUtil.regionIndex();
+    private final RegionComboModel provinceModel = new RegionComboModel(index, RegionComboModel.Level.PROVINCE);
+    private final RegionComboModel cityModel = new RegionComboModel(index, RegionComboModel.Level.CITY);
+    private final RegionComboModel districtModel = new RegionComboModel(index, RegionComboModel.Level.DISTRICT);
+    private final JComboBox<String> provinceCombo = new JComboBox<>(provinceModel);
+    private final JComboBox<String> cityCombo = new JComboBox<>(cityModel);
+    private final JComboBox<String> districtCombo = new JComboBox<>(districtModel);
+    private final JTextField searchField = new JTextField(10);
+    private final DefaultListModel<String> resultModel = new DefaultListModel<>();
+    private final JList<String> resultList = new JList<>(resultModel);
+    private final JPopupMenu resultPopup = new JPopupMenu();
+    private RegionSearchIndex search;   // 首次输入时构建
+    private int[] results = new int[0];
+    private boolean adjusting;          // 程序设置选择时屏蔽联动
 
     public RegionSelectorPanel(JFrame parentFrame) {
         super(new FlowLayout(FlowLayout.LEFT, 8, 0));
@@ -26,11 +46,11 @@ public class RegionSelectorPanel extends JPanel {
         add(provinceCombo);
         add(cityCombo);
         add(districtCombo);
+        add(new JLabel("搜索区县："));
+        add(searchField);
 
-        // 加载地址数据
-        AddressCodeUtil.load();
-        List<String> provinces = AddressCodeUtil.getProvinceNames();
-        if (provinces.isEmpty()) {
+        // 地址数据已在 AddressCodeUtil 类初始化时加载，这里不再重复解析
+        if (index.provinceCount() == 0) {
             JOptionPane.showMessageDialog(parentFrame,
                     "未能加载地址数据，请检查 resources/output.json",
                     "数据缺失", JOptionPane.ERROR_MESSAGE);
@@ -41,59 +61,25 @@ public class RegionSelectorPanel extends JPanel {
             return;
         }
 
-        for (String p : provinces) provinceCombo.addItem(p);
         // 计算各级最长项用于固定宽度
-        String protoProvince = longestString(AddressCodeUtil.PROVINCES.values());
-        String protoCity = longestStringFromNestedMap(AddressCodeUtil.CITIES);
-        String protoDistrict = longestStringFromNestedMap(AddressCodeUtil.DISTRICTS);
-        if (protoProvince.isEmpty()) protoProvince = "请选择省";
-        if (protoCity.isEmpty()) protoCity = "请选择市";
-        if (protoDistrict.isEmpty()) protoDistrict = "请选择区";
-        provinceCombo.setPrototypeDisplayValue(protoProvince);
-        cityCombo.setPrototypeDisplayValue(protoCity);
-        districtCombo.setPrototypeDisplayValue(protoDistrict);
+        provinceCombo.setPrototypeDisplayValue(longest(RegionComboModel.Level.PROVINCE, index.provinceCount(), "请选择省"));
+        cityCombo.setPrototypeDisplayValue(longest(RegionComboModel.Level.CITY, index.cityCount(), "请选择市"));
+        districtCombo.setPrototypeDisplayValue(longest(RegionComboModel.Level.DISTRICT, index.districtCount(), "请选择区"));
 
         // 默认展示第一个省/市/区
-        provinceCombo.setSelectedIndex(0);
-        String pName0 = (String) provinceCombo.getItemAt(0);
-        String pCode0 = AddressCodeUtil.getProvinceCode(pName0);
-        cityCombo.removeAllItems();
-        List<String> cities0 = AddressCodeUtil.getCityNames(pCode0);
-        for (String c0 : cities0) cityCombo.addItem(c0);
-        if (cityCombo.getItemCount() > 0) {
-            cityCombo.setSelectedIndex(0);
-            String cName0 = (String) cityCombo.getItemAt(0);
-            String cCode0 = AddressCodeUtil.getCityCode(pCode0, cName0);
-            districtCombo.removeAllItems();
-            List<String> dists0 = AddressCodeUtil.getDistrictNames(cCode0);
-            for (String d0 : dists0) districtCombo.addItem(d0);
-            if (districtCombo.getItemCount() > 0) {
-                districtCombo.setSelectedIndex(0);
-            }
-        }
+        provinceModel.setRange(0, index.provinceCount());
+        showCities();
 
-        // 联动：省 -> 市
+        // 联动：省 -> 市 -> 区
         provinceCombo.addActionListener(e -> {
-            cityCombo.removeAllItems();
-            districtCombo.removeAllItems();
-            String pName = (String) provinceCombo.getSelectedItem();
-            if (pName == null) return;
-            String pCode = AddressCodeUtil.getProvinceCode(pName);
-            List<String> cities = AddressCodeUtil.getCityNames(pCode);
-            for (String c : cities) cityCombo.addItem(c);
+            if (!adjusting) showCities();
         });
-
         // 联动：市 -> 区
         cityCombo.addActionListener(e -> {
-            districtCombo.removeAllItems();
-            String pName = (String) provinceCombo.getSelectedItem();
-            String cName = (String) cityCombo.getSelectedItem();
-            if (pName == null || cName == null) return;
-            String pCode = AddressCodeUtil.getProvinceCode(pName);
-            String cCode = AddressCodeUtil.getCityCode(pCode, cName);
-            List<String> districts = AddressCodeUtil.getDistrictNames(cCode);
-            for (String d : districts) districtCombo.addItem(d);
+            if (!adjusting) showDistricts();
         });
+
+        installSearch();
     }
 
     public String getProvinceName() {
@@ -106,20 +92,111 @@ public class RegionSelectorPanel extends JPanel {
         return (String) districtCombo.getSelectedItem();
     }
 
-    private static String longestString(Iterable<String> values) {
-        String longest = "";
-        for (String s : values) {
-            if (s != null && s.length() > longest.length()) longest = s;
+    /** 选中 RegionIndex 区级下标 d 对应的省、市、区 */
+    public void selectDistrict(int d) {
+        int c = index.districtCity(d);
+        adjusting = true;
+        try {
+            provinceModel.select(index.cityProvince(c));
+            showCities();
+            cityModel.select(c);
+            showDistricts();
+            districtModel.select(d);
+        } finally {
+            adjusting = false;
         }
-        return longest;
     }
-    private static String longestStringFromNestedMap(Map<String, Map<String, String>> nested) {
-        String longest = "";
-        for (Map<String, String> m : nested.values()) {
-            for (String s : m.values()) {
-                if (s != null && s.length() > longest.length()) longest = s;
+
+    private void showCities() {
+        int p = provinceModel.selectedIndex();
+        if (p < 0) cityModel.setRange(0, 0);
+        else cityModel.setRange(index.firstCity(p), index.endCity(p));
+        showDistricts();
+    }
+
+    private void showDistricts() {
+        int c = cityModel.selectedIndex();
+        if (c < 0) {
+            districtModel.setRange(0, 0);
+            return;
+        }
+        int from = index.firstDistrict(c), to = index.endDistrict(c);
+        // 无下辖区县的市只有一个以市级代码充当的区级条目，界面上不列出
+        if (to - from == 1 && index.districtCode(from) == index.cityCode(c)) to = from;
+        districtModel.setRange(from, to);
+    }
+
+    private void installSearch() {
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setVisibleRowCount(12);
+        resultList.setFocusable(false);
+        JScrollPane scroll = new JScrollPane(resultList);
+        scroll.setBorder(BorderFactory.createEmptyBorder());
+        resultPopup.add(scroll);
+        resultPopup.setFocusable(false);
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { updateResults(); }
+            @Override public void removeUpdate(DocumentEvent e) { updateResults(); }
+            @Override public void changedUpdate(DocumentEvent e) { updateResults(); }
+        });
+        searchField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!resultPopup.isVisible()) return;
+                int i = resultList.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN: moveSelection(Math.min(i + 1, resultModel.size() - 1)); e.consume(); break;
+                    case KeyEvent.VK_UP: moveSelection(Math.max(i - 1, 0)); e.consume(); break;
+                    case KeyEvent.VK_ENTER: chooseResult(Math.max(i, 0)); e.consume(); break;
+                    case KeyEvent.VK_ESCAPE: resultPopup.setVisible(false); e.consume(); break;
+                    default:
+                }
+            }
+        });
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int i = resultList.locationToIndex(e.getPoint());
+                if (i >= 0) chooseResult(i);
             }
+        });
+    }
+
+    private void updateResults() {
+        if (search == null) search = RegionSearchIndex.build(index);
+        results = search.search(searchField.getText(), MAX_RESULTS);
+        resultModel.clear();
+        for (int d : results) resultModel.addElement(search.text(d));
+        if (results.length == 0) {
+            resultPopup.setVisible(false);
+            return;
+        }
+        resultList.setSelectedIndex(0);
+        resultList.ensureIndexIsVisible(0);
+        resultPopup.pack();
+        if (searchField.isShowing()) resultPopup.show(searchField, 0, searchField.getHeight());
+    }
+
+    private void moveSelection(int i) {
+        if (i < 0) return;
+        resultList.setSelectedIndex(i);
+        resultList.ensureIndexIsVisible(i);
+    }
+
+    private void chooseResult(int i) {
+        if (i >= results.length) return;
+        selectDistrict(results[i]);
+        resultPopup.setVisible(false);
+    }
+
+    private String longest(RegionComboModel.Level level, int count, String fallback) {
+        String longest = "";
+        for (int i = 0; i < count; i++) {
+            String s = level == RegionComboModel.Level.PROVINCE ? index.provinceName(i)
+                    : level == RegionComboModel.Level.CITY ? index.cityName(i) : index.districtName(i);
+            if (s.length() > longest.length()) longest = s;
         }
-        return longest;
+        return longest.isEmpty() ? fallback : longest;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,216 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 省/市/区数据的二进制快照（regions.bin），构建期由 output.json 生成，启动时内存映射读取，免去 Jackson 解析。
+ * 格式（大端）：
+ * <pre>
+ * int 魔数 'IDRG'，int 版本
+ * int 名称数，每个名称：u16 字节长度 + UTF-8 字节
+ * int 省数，每省：int code，int 名称下标，int 市数
+ *   每市：int code，int 名称下标，int 区数
+ *     每区：int code，int 名称下标
+ * </pre>
+ * 层级与顺序与 output.json 完全一致；code 为 6 位数字，按 int 存储。
+ * 生成：java org.example.RegionSnapshot src/main/resources/output.json target/classes/regions.bin（pom 中已绑定到 process-classes）。
+ */
+public final class RegionSnapshot {
+    public static final String RESOURCE = "regions.bin";
+    private static final int MAGIC = 0x49445247; // "IDRG"
+    private static final int VERSION = 1;
+
+    private RegionSnapshot() {}
+
+    /**
+     * 读取类路径上的快照；不存在或格式不符时返回 null（由调用方回退到 JSON）。
+     * 位于文件系统（target/classes）时内存映射，位于 jar 内时整体读入。
+     */
+    static AddressCodeUtil.Root loadFromClasspath() {
+        URL url = RegionSnapshot.class.getClassLoader().getResource(RESOURCE);
+        if (url == null) return null;
+        try {
+            ByteBuffer buf;
+            if ("file".equals(url.getProtocol())) {
+                try (FileChannel ch = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                    buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                }
+            } else {
+                try (InputStream is = url.openStream()) {
+                    buf = ByteBuffer.wrap(is.readAllBytes());
+                }
+            }
+            return read(buf);
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** 解析快照内容 */
+    static AddressCodeUtil.Root read(ByteBuffer buf) throws IOException {
+        if (buf.remaining() < 8 || buf.getInt() != MAGIC) throw new IOException("不是区划快照文件");
+        int version = buf.getInt();
+        if (version != VERSION) throw new IOException("不支持的快照版本: " + version);
+        String[] names = new String[buf.getInt()];
+        byte[] tmp = new byte[256];
+        for (int i = 0; i < names.length; i++) {
+            int len = buf.getShort() & 0xFFFF;
+            if (tmp.length < len) tmp = new byte[len];
+            buf.get(tmp, 0, len);
+            names[i] = new String(tmp, 0, len, StandardCharsets.UTF_8);
+        }
+        AddressCodeUtil.Root root = new AddressCodeUtil.Root();
+        int provinceCount = buf.getInt();
+        root.provinces = new ArrayList<>(provinceCount);
+        for (int pi = 0; pi < provinceCount; pi++) {
+            AddressCodeUtil.Province p = new AddressCodeUtil.Province();
+            p.code = code(buf.getInt());
+            p.name = names[buf.getInt()];
+            int cityCount = buf.getInt();
+            p.cities = new ArrayList<>(cityCount);
+            for (int ci = 0; ci < cityCount; ci++) {
+                AddressCodeUtil.City c = new AddressCodeUtil.City();
+                c.code = code(buf.getInt());
+                c.name = names[buf.getInt()];
+                int districtCount = buf.getInt();
+                c.districts = new ArrayList<>(districtCount);
+                for (int di = 0; di < districtCount; di++) {
+                    AddressCodeUtil.District d = new AddressCodeUtil.District();
+                    d.code = code(buf.getInt());
+                    d.name = names[buf.getInt()];
+                    c.districts.add(d);
+                }
+                p.cities.add(c);
+            }
+            root.provinces.add(p);
+        }
+        return root;
+    }
+
+    /** 写出快照；code 非 6 位数字时抛出 IOException（此时运行期回退到 JSON） */
+    static void write(AddressCodeUtil.Root root, OutputStream os) throws IOException {
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> nameIds = new HashMap<>();
+        List<AddressCodeUtil.Province> provinces = new ArrayList<>();
+        if (root.provinces != null) {
+            for (AddressCodeUtil.Province p : root.provinces) {
+                if (p != null && p.code != null) provinces.add(p);
+            }
+        }
+        // 先收集名称表
+        for (AddressCodeUtil.Province p : provinces) {
+            nameId(names, nameIds, p.name, p.code);
+            for (AddressCodeUtil.City c : cities(p)) {
+                nameId(names, nameIds, c.name, c.code);
+                for (AddressCodeUtil.District d : districts(c)) nameId(names, nameIds, d.name, d.code);
+            }
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(names.size());
+        for (String n : names) {
+            byte[] b = n.getBytes(StandardCharsets.UTF_8);
+            if (b.length > 0xFFFF) throw new IOException("名称过长: " + n);
+            out.writeShort(b.length);
+            out.write(b);
+        }
+        out.writeInt(provinces.size());
+        for (AddressCodeUtil.Province p : provinces) {
+            out.writeInt(parseCode(p.code));
+            out.writeInt(nameId(names, nameIds, p.name, p.code));
+            List<AddressCodeUtil.City> cities = cities(p);
+            out.writeInt(cities.size());
+            for (AddressCodeUtil.City c : cities) {
+                out.writeInt(parseCode(c.code));
+                out.writeInt(nameId(names, nameIds, c.name, c.code));
+                List<AddressCodeUtil.District> districts = districts(c);
+                out.writeInt(districts.size());
+                for (AddressCodeUtil.District d : districts) {
+                    out.writeInt(parseCode(d.code));
+                    out.writeInt(nameId(names, nameIds, d.name, d.code));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static List<AddressCodeUtil.City> cities(AddressCodeUtil.Province p) {
+        List<AddressCodeUtil.City> result = new ArrayList<>();
+        if (p.cities != null) {
+            for (AddressCodeUtil.City c : p.cities) if (c != null && c.code != null) result.add(c);
+        }
+        return result;
+    }
+
+    private static List<AddressCodeUtil.District> districts(AddressCodeUtil.City c) {
+        List<AddressCodeUtil.District> result = new ArrayList<>();
+        if (c.districts != null) {
+            for (AddressCodeUtil.District d : c.districts) if (d != null && d.code != null) result.add(d);
+        }
+        return result;
+    }
+
+    private static int nameId(List<String> names, Map<String, Integer> ids, String name, String code) {
+        String n = name == null ? code : name;
+        Integer id = ids.get(n);
+        if (id == null) {
+            id = names.size();
+            names.add(n);
+            ids.put(n, id);
+        }
+        return id;
+    }
+
+    private static int parseCode(String code) throws IOException {
+        if (code.length() != 6) throw new IOException("区划代码不是 6 位: " + code);
+        for (int i = 0; i < 6; i++) {
+            char ch = code.charAt(i);
+            if (ch < '0' || ch > '9') throw new IOException("区划代码不是 6 位数字: " + code);
+        }
+        return Integer.parseInt(code);
+    }
+
+    private static String code(int code) {
+        String s = Integer.toString(code);
+        return s.length() >= 6 ? s : "000000".substring(s.length()) + s;
+    }
+
+    /** 构建期入口：java org.example.RegionSnapshot 输入json 输出bin */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("用法: java org.example.RegionSnapshot 输入json 输出bin");
+            return;
+        }
+        Path in = Paths.get(args[0]);
+        Path out = Paths.get(args[1]);
+        AddressCodeUtil.Root root;
+        try (InputStream is = Files.newInputStream(in)) {
+            root = new ObjectMapper().readValue(is, AddressCodeUtil.Root.class);
+        }
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        try (OutputStream os = Files.newOutputStream(out)) {
+            write(root, os);
+        }
+        System.out.println("完成: " + out.toAbsolutePath() + " (" + Files.size(out) + " 字节)");
+    }
+}
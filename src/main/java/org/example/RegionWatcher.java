@@ -0,0 +1,114 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 监视外部区划数据文件（output.json 格式或 regions.bin），文件变化后经 AddressCodeUtil.load(Path) 热加载。
+ * - 监视所在目录（WatchService 只能监视目录），只处理目标文件名的事件；
+ *   编辑器保存、复制覆盖常产生多次事件，收到事件后等待一段静默期再加载一次。
+ * - 加载失败（如文件写到一半、内容为 null 或结构不完整）只报告错误，当前数据保持不变，下次变化时重试。
+ * - 后台守护线程，close() 等待其结束。
+ */
+public final class RegionWatcher implements Closeable {
+    /** 默认静默期（毫秒） */
+    public static final long DEFAULT_QUIET_MILLIS = 300;
+
+    private final Path file;
+    private final WatchService watcher;
+    private final long quietMillis;
+    private final Consumer<RegionModel> onReload;
+    private final Consumer<IOException> onError;
+    private final Thread thread;
+
+    /**
+     * 先加载一次文件，再开始监视。
+     * @param onReload 每次加载成功后回调（在监视线程中执行）
+     * @param onError  加载失败时回调（在监视线程中执行）
+     * @throws IOException 首次加载失败或无法监视所在目录
+     */
+    public RegionWatcher(Path file, long quietMillis, Consumer<RegionModel> onReload, Consumer<IOException> onError) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.quietMillis = quietMillis;
+        this.onReload = onReload;
+        this.onError = onError;
+        onReload.accept(AddressCodeUtil.load(this.file));
+        Path dir = this.file.getParent();
+        this.watcher = dir.getFileSystem().newWatchService();
+        try {
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "region-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** 使用默认静默期，结果输出到标准输出/标准错误 */
+    public static RegionWatcher start(Path file) throws IOException {
+        return new RegionWatcher(file, DEFAULT_QUIET_MILLIS,
+                m -> System.out.println("已加载区划数据 " + file + "（" + m.provinces().size() + " 个省级）"),
+                e -> System.err.println("区划数据加载失败，沿用当前数据: " + e.getMessage()));
+    }
+
+    private void run() {
+        Path name = file.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = drain(key, name);
+                // 静默期内继续吸收事件，直到一段时间无新事件
+                WatchKey more;
+                while ((more = watcher.poll(quietMillis, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(more, name);
+                }
+                if (changed && Files.exists(file)) reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close() 结束监视
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path name) {
+        boolean hit = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) hit = true;
+        }
+        key.reset();
+        return hit;
+    }
+
+    /** 任何异常都只报告，不结束监视线程 */
+    private void reload() {
+        try {
+            onReload.accept(AddressCodeUtil.load(file));
+        } catch (IOException e) {
+            onError.accept(e);
+        } catch (RuntimeException e) {
+            onError.accept(new IOException(file + ": " + e, e));
+        }
+    }
+
+    /** 停止监视；正在进行的加载完成后才返回，之后不会再替换数据 */
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 保证整次运行内号码不重复的批量生成器。
+ * - 男、女各自的号码空间为 地址码 × 出生日期 × 500 个同奇偶顺序码，二者按奇偶互不相交。
+ * - 所选地区涉及区划变更（见 RegionHistory）时，号码空间按 RegionHistory.Timeline 的时段分段：
+ *   每段为 该时段有效的地址码 × 段内日期 × 500，地址码只与其有效期内的出生日期组合，与 BatchGenerator 一致。
+ * - 每个空间用 IndexPermutation 打乱后按下标顺序取用，得到无重复的伪随机序列；
+ *   不记录已生成的号码，内存只有地址码与日期表，与生成条数无关。
+ * - 指定排除名单（ExclusionFilter）时跳过名单中的号码，继续取下一个下标，结果仍无重复。
+ * - 某一性别的空间取尽后抛出 IllegalStateException，可用 capacity() 预先检查。
+ */
+public class UniqueIdGenerator implements IdSource {
+    private static final int SEQ_PER_GENDER = 500;
+
+    private final int[] birthDates;
+    // 号码空间的分段：第 s 段下标从 segmentStarts[s] 起，地址码为 segmentCodes[s]，日期为 birthDates[segmentDays[s]...] 共 segmentLengths[s] 天
+    private final long[] segmentStarts;
+    private final int[][] segmentCodes;
+    private final int[] segmentDays;
+    private final int[] segmentLengths;
+    private final double maleRatio;
+    private final SplittableRandom random;
+    private final IndexPermutation malePermutation;
+    private final IndexPermutation femalePermutation;
+    private final ExclusionFilter exclusion;
+    private long maleNext, femaleNext;
+
+    /** 参数含义同 BatchGenerator */
+    public UniqueIdGenerator(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed) {
+        this(regionPrefixes, from, to, maleRatio, seed, null);
+    }
+
+    /** exclusion 为排除名单，null 表示不过滤；使用内置区划历史，其余参数含义同 BatchGenerator */
+    public UniqueIdGenerator(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed,
+                             ExclusionFilter exclusion) {
+        this(regionPrefixes, from, to, maleRatio, seed, exclusion, RegionHistory.defaults());
+    }
+
+    /** @param history 区划代码有效期，RegionHistory.NONE 表示只用当前代码、不区分出生日期 */
+    public UniqueIdGenerator(List<String> regionPrefixes, LocalDate from, LocalDate to, double maleRatio, long seed,
+                             ExclusionFilter exclusion, RegionHistory history) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("出生日期区间无效: " + from + " > " + to);
+        if (maleRatio < 0 || maleRatio > 1) throw new IllegalArgumentException("男性比例应在 0~1 之间: " + maleRatio);
+        int[] addressCodes = BatchGenerator.collectAddressCodes(regionPrefixes);
+        if (addressCodes.length == 0) throw new IllegalArgumentException("没有匹配的地址码: " + regionPrefixes);
+        int days = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        this.birthDates = new int[days];
+        for (int i = 0; i < days; i++) {
+            birthDates[i] = IdNumberEncoder.toYmd(from.plusDays(i));
+        }
+        RegionHistory.Timeline timeline = history.timeline(AddressCodeUtil.regionIndex(), addressCodes, regionPrefixes);
+        int epochs = timeline == null ? 1 : timeline.starts.length;
+        long[] starts = new long[epochs + 1];
+        int[][] codes = new int[epochs][];
+        int[] firstDay = new int[epochs], lengths = new int[epochs];
+        int n = 0;
+        for (int e = 0; e < epochs; e++) {
+            int lo = timeline == null ? 0 : dayIndex(timeline.starts[e]);
+            int hi = timeline == null || e + 1 == epochs ? days : dayIndex(timeline.starts[e + 1]);
+            if (lo >= hi) continue;
+            if (timeline == null) {
+                codes[n] = addressCodes;
+            } else {
+                int[] m = timeline.members[e];
+                codes[n] = new int[m.length];
+                for (int i = 0; i < m.length; i++) codes[n][i] = timeline.codes[m[i]];
+            }
+            firstDay[n] = lo;
+            lengths[n] = hi - lo;
+            starts[n + 1] = starts[n] + (long) codes[n].length * lengths[n] * SEQ_PER_GENDER;
+            n++;
+        }
+        this.segmentStarts = Arrays.copyOf(starts, n + 1);
+        this.segmentCodes = Arrays.copyOf(codes, n);
+        this.segmentDays = Arrays.copyOf(firstDay, n);
+        this.segmentLengths = Arrays.copyOf(lengths, n);
+        this.maleRatio = maleRatio;
+        this.exclusion = exclusion;
+        this.random = new SplittableRandom(seed);
+        long space = segmentStarts[n];
+        this.malePermutation = new IndexPermutation(space, random.nextLong());
+        this.femalePermutation = new IndexPermutation(space, random.nextLong());
+    }
+
+    /** birthDates 中第一个不早于 ymd 的下标 */
+    private int dayIndex(int ymd) {
+        int i = Arrays.binarySearch(birthDates, ymd);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /** 单一性别的号码空间大小（男、女相同） */
+    public long capacity() {
+        return malePermutation.size();
+    }
+
+    /** 尚未使用的号码数（男 + 女；含排除名单中尚未跳过的号码） */
+    public long remaining() {
+        return 2 * capacity() - maleNext - femaleNext;
+    }
+
+    @Override
+    public int next(byte[] dst, int off) {
+        boolean male = random.nextDouble() < maleRatio;
+        while (true) {
+            long index;
+            if (male) {
+                if (maleNext >= malePermutation.size()) throw new IllegalStateException("男性号码空间已耗尽: " + capacity());
+                index = malePermutation.apply(maleNext++);
+            } else {
+                if (femaleNext >= femalePermutation.size()) throw new IllegalStateException("女性号码空间已耗尽: " + capacity());
+                index = femalePermutation.apply(femaleNext++);
+            }
+            int s = segmentOf(index);
+            index -= segmentStarts[s];
+            int seq = (int) (index % SEQ_PER_GENDER) * 2 + (male ? 1 : 0); // 男 001-999 奇数，女 000-998 偶数
+            long rest = index / SEQ_PER_GENDER;
+            int birth = birthDates[segmentDays[s] + (int) (rest % segmentLengths[s])];
+            int address = segmentCodes[s][(int) (rest / segmentLengths[s])];
+            if (exclusion == null || !exclusion.excludes(address, birth, seq)) {
+                return IdNumberEncoder.encode(dst, off, address, birth, seq);
+            }
+        }
+    }
+
+    /** 下标所在的分段 */
+    private int segmentOf(long index) {
+        int lo = 0, hi = segmentStarts.length - 2;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (segmentStarts[mid] <= index) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 写入通道的文本输出：直接缓冲区、UTF-8 编码与按字符转义，供 ChannelRecordSink 与 GenerationPlan 共用。
+ * 转义表按 ASCII 码索引，null 表示原样输出；非 ASCII 字符一律原样编码为 UTF-8。
+ */
+final class Utf8ChannelWriter implements Closeable {
+    static final int BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final String[] escapes;
+    final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final char[] chunk = new char[1024];
+    private boolean closed;
+
+    Utf8ChannelWriter(WritableByteChannel channel, String[] escapes) {
+        this.channel = channel;
+        this.escapes = escapes;
+    }
+
+    /** 保证缓冲区至少还有 n 字节（n 不超过 BUFFER_SIZE） */
+    void ensure(int n) throws IOException {
+        if (buf.remaining() < n) drain();
+    }
+
+    void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    void putAscii(String s) throws IOException {
+        ensure(s.length());
+        for (int i = 0; i < s.length(); i++) buf.put((byte) s.charAt(i));
+    }
+
+    void putBytes(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ensure(1);
+            int n = Math.min(len, buf.remaining());
+            buf.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /** 按转义表输出字符串 */
+    void putText(String s) throws IOException {
+        int n = s.length();
+        for (int i = 0; i < n; ) {
+            int end = Math.min(n, i + chunk.length);
+            if (end < n && Character.isHighSurrogate(s.charAt(end - 1))) end--; // 不拆开代理对
+            s.getChars(i, end, chunk, 0);
+            putText(chunk, 0, end - i);
+            i = end;
+        }
+    }
+
+    /** 按转义表输出 s[from, to)（长度不超过 BUFFER_SIZE / 8） */
+    void putText(char[] s, int from, int to) throws IOException {
+        ensure((to - from) * 6 + 1); // 单字符最长输出：JSON 的 \\u00XX
+        for (int i = from; i < to; i++) {
+            char c = s[i];
+            if (c < 0x80) {
+                String e = escapes[c];
+                if (e == null) {
+                    buf.put((byte) c);
+                } else {
+                    for (int k = 0; k < e.length(); k++) buf.put((byte) e.charAt(k));
+                }
+            } else if (c < 0x800) {
+                buf.put((byte) (0xC0 | c >> 6));
+                buf.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(s[i + 1])) {
+                int cp = Character.toCodePoint(c, s[++i]);
+                buf.put((byte) (0xF0 | cp >> 18));
+                buf.put((byte) (0x80 | cp >> 12 & 0x3F));
+                buf.put((byte) (0x80 | cp >> 6 & 0x3F));
+                buf.put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf.put((byte) '?'); // 孤立代理项
+            } else {
+                buf.put((byte) (0xE0 | c >> 12));
+                buf.put((byte) (0x80 | c >> 6 & 0x3F));
+                buf.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    /** 写出缓冲区剩余内容并关闭通道 */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
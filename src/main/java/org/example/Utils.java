@@ -2,53 +2,29 @@ package org.example;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class Utils {
-    // 姓氏数组
-    private static final String[] FAMILY_NAMES = {
-        "王", "李", "张", "刘", "陈", "杨", "赵", "黄", "周", "吴",
-        "徐", "孙", "胡", "朱", "高", "林", "何", "郭", "马", "罗",
-        "梁", "宋", "郑", "谢", "韩", "唐", "冯", "于", "董", "萧",
-        "程", "曹", "袁", "邓", "许", "傅", "沈", "曾", "彭", "吕",
-        "苏", "卢", "蒋", "蔡", "贾", "丁", "魏", "薛", "叶", "阎",
-        "余", "潘", "杜", "戴", "夏", "钟", "汪", "田", "任", "姜",
-        "范", "方", "石", "姚", "谭", "廖", "邹", "熊", "金", "陆",
-        "郝", "孔", "白", "崔", "康", "毛", "邱", "秦", "江", "史",
-        "顾", "侯", "邵", "孟", "龙", "万", "段", "漕", "钱", "汤",
-        "尹", "黎", "易", "常", "武", "乔", "贺", "赖", "龚", "文"
-    };
-    
-    // 名字数组（单字）
-    private static final String[] GIVEN_NAMES = {
-        "伟", "芳", "娜", "敏", "静", "丽", "强", "磊", "军", "洋",
-        "勇", "艳", "杰", "涛", "明", "超", "霞", "平", "刚", "波",
-        "德", "梅", "雪", "辉", "英", "健", "国", "兰", "慧", "永",
-        "红", "祥", "凤", "琴", "华"
-    };
-    
-    // 街道数组
-    private static final String[] STREETS = {
-        "中山路", "解放路", "人民路", "建设路", "公园路",
-        "和平路", "中华路", "胜利路", "青年路", "延安路"
-    };
-    
-    // 社区数组
-    private static final String[] COMMUNITIES = {
-        "阳光小区", "花园社区", "幸福家园", "和谐小区", "温馨家园",
-        "绿色家园", "金色家园", "蓝色港湾", "梦幻社区"
-    };
-    
-    private static final Random RANDOM = new Random();
+    // 姓名与详细地址取自加权词表（NameCorpus / AddressCorpus，内置数据见 resources/corpus/）
+
+    private static final DateTimeFormatter VALID_PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
     
     /**
      * 生成随机姓名
      * @return 随机生成的姓名
      */
     public static String generateRandomName() {
-        String familyName = FAMILY_NAMES[RANDOM.nextInt(FAMILY_NAMES.length)];
-        String givenName = GIVEN_NAMES[RANDOM.nextInt(GIVEN_NAMES.length)];
-        return familyName + givenName;
+        return generateRandomName(ThreadLocalRandom.current()); // 每线程独立，避免多线程争用同一随机种子
+    }
+
+    /**
+     * 使用指定随机源生成随机姓名（传入带种子的 SplittableRandom 可复现）
+     * @param random 随机源
+     * @return 随机生成的姓名
+     */
+    public static String generateRandomName(RandomGenerator random) {
+        return NameCorpus.defaults().name(random);
     }
     
     /**
@@ -59,15 +35,44 @@ public class Utils {
      * @return 生成的详细地址
      */
     public static String generateDetailedAddress(String provinceName, String cityName, String districtName) {
-        String street = STREETS[RANDOM.nextInt(STREETS.length)];
-        int streetNumber = RANDOM.nextInt(999) + 1;
-        String community = COMMUNITIES[RANDOM.nextInt(COMMUNITIES.length)];
-        int buildingNumber = RANDOM.nextInt(99) + 1;
-        int unitNumber = RANDOM.nextInt(8) + 1;
-        int roomNumber = RANDOM.nextInt(10) + 1;
-        
-        return provinceName + cityName + districtName + street + streetNumber + "号" + 
-               community + buildingNumber + "栋" + unitNumber + "单元" + roomNumber + "室";
+        return generateDetailedAddress(ThreadLocalRandom.current(), provinceName, cityName, districtName);
+    }
+
+    /**
+     * 使用指定随机源生成详细地址
+     * @param random 随机源
+     * @param provinceName 省份名称
+     * @param cityName 城市名称
+     * @param districtName 区县名称
+     * @return 生成的详细地址
+     */
+    public static String generateDetailedAddress(RandomGenerator random, String provinceName, String cityName, String districtName) {
+        return generateDetailedAddress(random, 0, provinceName, cityName, districtName);
+    }
+
+    /**
+     * 生成详细地址，街道取自该市的街道表（没有专门街道表的城市使用通用列表）
+     * @param cityCode 市级区划代码（如 440100）
+     * @param provinceName 省份名称
+     * @param cityName 城市名称
+     * @param districtName 区县名称
+     * @return 生成的详细地址
+     */
+    public static String generateDetailedAddress(int cityCode, String provinceName, String cityName, String districtName) {
+        return generateDetailedAddress(ThreadLocalRandom.current(), cityCode, provinceName, cityName, districtName);
+    }
+
+    /**
+     * 使用指定随机源生成详细地址，街道取自该市的街道表
+     * @param random 随机源
+     * @param cityCode 市级区划代码，0 表示使用通用街道列表
+     * @param provinceName 省份名称
+     * @param cityName 城市名称
+     * @param districtName 区县名称
+     * @return 生成的详细地址
+     */
+    public static String generateDetailedAddress(RandomGenerator random, int cityCode, String provinceName, String cityName, String districtName) {
+        return AddressCorpus.defaults().address(random, cityCode, provinceName, cityName, districtName);
     }
     
     /**
@@ -108,9 +113,17 @@ public class Utils {
      * @return 格式化的有效期限字符串
      */
     public static String generateValidPeriod() {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy.MM.dd");
-        LocalDate startDate = LocalDate.now().minusYears(RANDOM.nextInt(10) + 1); // 1-10年前
+        return generateValidPeriod(ThreadLocalRandom.current());
+    }
+
+    /**
+     * 使用指定随机源生成有效期限
+     * @param random 随机源
+     * @return 格式化的有效期限字符串
+     */
+    public static String generateValidPeriod(RandomGenerator random) {
+        LocalDate startDate = LocalDate.now().minusYears(random.nextInt(10) + 1); // 1-10年前
         LocalDate endDate = startDate.plusYears(20); // 有效期20年
-        return startDate.format(dateFormatter) + "-" + endDate.format(dateFormatter);
+        return startDate.format(VALID_PERIOD_FORMAT) + "-" + endDate.format(VALID_PERIOD_FORMAT);
     }
 }
@@ -0,0 +1,122 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * 带权重的紧凑字符串池：所有条目连续存放在一个 char[] 中，以偏移表定位，按权重 O(1) 抽取（AliasTable）。
+ * 取用时把条目切片复制到调用方缓冲区，不为每个条目保留 String 对象。
+ */
+final class WeightedStringPool {
+    private final char[] chars;
+    private final int[] offsets;   // 第 i 条为 chars[offsets[i], offsets[i+1])
+    private final AliasTable alias;
+
+    private WeightedStringPool(char[] chars, int[] offsets, double[] weights) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.alias = new AliasTable(weights);
+    }
+
+    int size() {
+        return offsets.length - 1;
+    }
+
+    int length(int i) {
+        return offsets[i + 1] - offsets[i];
+    }
+
+    /** 最长条目的字符数 */
+    int maxLength() {
+        int max = 0;
+        for (int i = 0; i < size(); i++) max = Math.max(max, length(i));
+        return max;
+    }
+
+    int sample(RandomGenerator random) {
+        return alias.sample(random);
+    }
+
+    /** 把第 i 条复制到 dst[pos...]，返回新位置 */
+    int copy(int i, char[] dst, int pos) {
+        int from = offsets[i], len = offsets[i + 1] - from;
+        System.arraycopy(chars, from, dst, pos, len);
+        return pos + len;
+    }
+
+    /** 抽取一条并复制到 dst[pos...]，返回新位置 */
+    int append(RandomGenerator random, char[] dst, int pos) {
+        return copy(alias.sample(random), dst, pos);
+    }
+
+    /** 条目内容与顺序的摘要 */
+    long fingerprint() {
+        return (long) Arrays.hashCode(chars) << 32 ^ Arrays.hashCode(offsets);
+    }
+
+    String get(int i) {
+        return new String(chars, offsets[i], length(i));
+    }
+
+    /**
+     * 读取 “条目,权重” 格式（# 开头为注释；省略权重时为 1）。
+     */
+    static WeightedStringPool read(Reader reader) throws IOException {
+        Builder b = new Builder();
+        BufferedReader br = new BufferedReader(reader);
+        String line;
+        int no = 0;
+        while ((line = br.readLine()) != null) {
+            no++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int comma = line.lastIndexOf(',');
+            String entry = comma < 0 ? line : line.substring(0, comma).trim();
+            double weight = 1;
+            if (comma >= 0) {
+                try {
+                    weight = Double.parseDouble(line.substring(comma + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw new IOException("第 " + no + " 行权重无效: " + line);
+                }
+            }
+            if (entry.isEmpty() || !(weight >= 0)) throw new IOException("第 " + no + " 行格式错误: " + line);
+            b.add(entry, weight);
+        }
+        if (b.size() == 0) throw new IOException("词表为空");
+        return b.build();
+    }
+
+    /** 逐条追加后构建 */
+    static final class Builder {
+        private char[] chars = new char[256];
+        private int length;
+        private int[] offsets = new int[33];
+        private double[] weights = new double[32];
+        private int size;
+
+        Builder add(String entry, double weight) {
+            if (length + entry.length() > chars.length) chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + entry.length()));
+            if (size == weights.length) {
+                weights = Arrays.copyOf(weights, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            entry.getChars(0, entry.length(), chars, length);
+            length += entry.length();
+            weights[size] = weight;
+            offsets[++size] = length;
+            return this;
+        }
+
+        int size() {
+            return size;
+        }
+
+        WeightedStringPool build() {
+            return new WeightedStringPool(Arrays.copyOf(chars, length), Arrays.copyOf(offsets, size + 1), Arrays.copyOf(weights, size));
+        }
+    }
+}
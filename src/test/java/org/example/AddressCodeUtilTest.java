@@ -0,0 +1,33 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 名称 -> 代码 反向索引。
+ */
+public class AddressCodeUtilTest {
+
+    @Test
+    void resolvesNamesAndShortForms() {
+        assertEquals("650000", AddressCodeUtil.getProvinceCode("新疆维吾尔自治区"));
+        assertEquals("650000", AddressCodeUtil.getProvinceCode("新疆"));
+        assertNull(AddressCodeUtil.getProvinceCode("不存在省"));
+        assertNull(AddressCodeUtil.getProvinceCode(null));
+        assertEquals("110101", AddressCodeUtil.getFullAddressCode("北京市", "北京市市辖区", "东城区"));
+        assertEquals("441900", AddressCodeUtil.getFullAddressCode("广东省", "东莞市", null));
+    }
+
+    @Test
+    void resolvesFullPaths() {
+        String tianhe = AddressCodeUtil.getFullAddressCode("广东省", "广州市", "天河区");
+        assertNotNull(tianhe);
+        assertEquals(tianhe, AddressCodeUtil.getAddressCodeByPath("广东省广州市天河区"));
+        assertEquals("110101", AddressCodeUtil.getAddressCodeByPath("北京市东城区"));
+        assertEquals("441900", AddressCodeUtil.getAddressCodeByPath("广东省东莞市"));
+        String tianshan = AddressCodeUtil.getAddressCodeByPath("新疆乌鲁木齐市天山区");
+        assertNotNull(tianshan);
+        assertTrue(tianshan.startsWith("65"));
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 地址词表：有专门街道表的城市只用本市街道，其余城市用通用列表，格式与原实现一致。
+ */
+public class AddressCorpusTest {
+    @TempDir
+    Path dir;
+
+    private static final String DETAIL = "\\d{1,3}号.+\\d{1,2}栋\\d单元\\d{1,2}室";
+
+    @Test
+    void usesCityStreets() {
+        AddressCorpus corpus = AddressCorpus.defaults();
+        assertTrue(corpus.hasCityStreets(440100));
+        assertFalse(corpus.hasCityStreets(440600));
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 1000; i++) {
+            String a = corpus.address(random, 440100, "广东省", "广州市", "天河区");
+            assertTrue(a.matches("广东省广州市天河区.+路.*" + DETAIL) || a.matches("广东省广州市天河区.+大道.*" + DETAIL), a);
+            assertFalse(a.contains("深南大道"), a);
+            String b = Utils.generateDetailedAddress(random, "广东省", "佛山市", "禅城区");
+            assertTrue(b.matches("广东省佛山市禅城区.+路" + DETAIL), b);
+        }
+    }
+
+    @Test
+    void loadsReplacementFiles() throws Exception {
+        Files.write(dir.resolve(AddressCorpus.STREETS), "000000,测试路,1\n440100,羊城大道,1\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve(AddressCorpus.COMMUNITIES), "测试小区\n".getBytes(StandardCharsets.UTF_8));
+        AddressCorpus corpus = AddressCorpus.load(dir);
+        SplittableRandom random = new SplittableRandom(2);
+        assertTrue(corpus.address(random, 440100, "", "", "").matches("羊城大道\\d+号测试小区.*"));
+        assertTrue(corpus.address(random, 110100, "", "", "").matches("测试路\\d+号测试小区.*"));
+        Files.write(dir.resolve(AddressCorpus.STREETS), "440100,羊城大道,1\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> AddressCorpus.load(dir));
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 别名表：抽样频率符合权重，权重为 0 的下标不会被抽到。
+ */
+public class AliasTableTest {
+
+    @Test
+    void frequenciesFollowWeights() {
+        double[] weights = {1, 0, 3, 6, 0.5};
+        AliasTable table = new AliasTable(weights);
+        int n = 1_050_000;
+        int[] hits = new int[weights.length];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < n; i++) hits[table.sample(random)]++;
+        assertEquals(0, hits[1]);
+        for (int i = 0; i < weights.length; i++) {
+            double expected = n * weights[i] / 10.5;
+            assertEquals(expected, hits[i], Math.max(1, expected * 0.02), "下标 " + i);
+        }
+    }
+
+    @Test
+    void manyColumns() {
+        double[] weights = new double[3000];
+        for (int i = 0; i < weights.length; i++) weights[i] = i % 3 == 0 ? 0 : i;
+        AliasTable table = new AliasTable(weights);
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 100_000; i++) assertNotEquals(0, table.sample(random) % 3);
+    }
+
+    @Test
+    void rejectsInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, Double.NaN}));
+    }
+}
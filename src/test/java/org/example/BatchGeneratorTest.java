@@ -0,0 +1,47 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量生成：校验码、地区前缀、日期区间与性别比例的基本断言。
+ */
+public class BatchGeneratorTest {
+
+    @Test
+    void generatesValidIdsWithinFilters() throws Exception {
+        LocalDate from = LocalDate.of(1980, 1, 1);
+        LocalDate to = LocalDate.of(1995, 12, 31);
+        BatchGenerator generator = new BatchGenerator(List.of("44"), from, to, 1.0, 42L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generate(1000, out);
+
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(1000, lines.length);
+        for (String id : lines) {
+            assertEquals(18, id.length());
+            assertTrue(id.startsWith("44"), id);
+            assertEquals(IdNumberUtil.calculateCheckCode(id.substring(0, 17)), id.charAt(17), id);
+            LocalDate birth = LocalDate.parse(id.substring(6, 14), java.time.format.DateTimeFormatter.BASIC_ISO_DATE);
+            assertFalse(birth.isBefore(from) || birth.isAfter(to), id);
+            assertEquals(1, (id.charAt(16) - '0') % 2, "男性比例 1.0 时顺序码应为奇数: " + id);
+        }
+    }
+
+    @Test
+    void sameSeedProducesSameOutput() {
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        LocalDate to = LocalDate.of(2000, 12, 31);
+        BatchGenerator a = new BatchGenerator(null, from, to, 0.5, 7L);
+        BatchGenerator b = new BatchGenerator(null, from, to, 0.5, 7L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.next(), b.next());
+        }
+    }
+}
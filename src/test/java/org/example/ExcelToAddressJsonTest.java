@@ -27,6 +27,42 @@ public class ExcelToAddressJsonTest {
         ExcelToAddressJson.main(new String[]{input.toString(), output.toString()});
     }
 
+    @Test
+    void streamingModeMatchesWorkbookMode() throws Exception {
+        Path dir = Files.createTempDirectory("excel2json");
+        Path xlsx = dir.resolve("in.xlsx");
+        try (Workbook wb = new XSSFWorkbook()) {
+            Sheet sh = wb.createSheet();
+            add(sh, 0, "中文名", "adcode", "citycode");
+            add(sh, 1, "中华人民共和国", "100000", "");
+            add(sh, 2, "北京市", "110000", "010");
+            add(sh, 3, "北京市市辖区", "110100", "010");
+            add(sh, 4, "西城区", "110102", "010");
+            add(sh, 5, "东城区", "110101", "010");
+            add(sh, 6, "东华门街道", "110101001", "010"); // 乡镇级，忽略
+            add(sh, 7, "广东省", "440000", "");
+            add(sh, 8, "东莞市", "441900", "0769");
+            add(sh, 9, "吉林省", "220000", "");
+            add(sh, 10, "公主岭市", "220184", "0434"); // 市尚未出现，先以代码占位
+            try (var os = Files.newOutputStream(xlsx)) {
+                wb.write(os);
+            }
+        }
+        Path dom = dir.resolve("dom.json");
+        Path stream = dir.resolve("stream.json");
+        ExcelToAddressJson.main(new String[]{xlsx.toString(), dom.toString()});
+        ExcelToAddressJson.main(new String[]{"--stream", xlsx.toString(), stream.toString()});
+
+        String expected = Files.readString(dom, StandardCharsets.UTF_8);
+        assertEquals(expected, Files.readString(stream, StandardCharsets.UTF_8));
+        assertTrue(expected.startsWith("{\"provinces\":[{\"name\":\"北京市\",\"code\":\"110000\""));
+        assertTrue(expected.contains("{\"name\":\"西城区\",\"code\":\"110102\"},{\"name\":\"东城区\",\"code\":\"110101\"}"));
+        assertTrue(expected.contains("{\"name\":\"东莞市\",\"code\":\"441900\",\"districts\":[]}"));
+        assertTrue(expected.contains("{\"name\":\"220100\",\"code\":\"220100\",\"districts\":[{\"name\":\"公主岭市\",\"code\":\"220184\"}]}"));
+        assertFalse(expected.contains("东华门街道"));
+        assertFalse(expected.contains("中华人民共和国"));
+    }
+
     private static void add(Sheet sh, int rowIndex, String name, String adcode, String citycode) {
         Row r = sh.createRow(rowIndex);
         r.createCell(0).setCellValue(name);
@@ -0,0 +1,156 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 排除名单：精确号码、区间与前缀的判定，编译文件可重新打开，生成器跳过名单中的号码。
+ */
+public class ExclusionFilterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesExactRangesAndPrefixes() throws IOException {
+        Path list = dir.resolve("list.txt");
+        Files.write(list, List.of(
+                "# 注释",
+                "11010119900307001X",
+                "44010619850101123",
+                "",
+                "44010619850101123",            // 重复
+                "32010220000101000-32010220000101099",
+                "130102",                       // 整个地址码
+                "5101041970060",                // 1970-06-01~09 出生的全部号码
+                "11010119900230001"),           // 不存在的日期，跳过
+                StandardCharsets.UTF_8);
+        try (ExclusionFilter f = ExclusionFilter.load(list)) {
+            assertEquals(2, f.size());
+            assertEquals(3, f.rangeCount());
+            assertEquals(1, f.skipped());
+            assertTrue(f.excludes("110101199003070015"));
+            assertTrue(f.excludes(110101, 19900307, 1));
+            assertFalse(f.excludes(110101, 19900307, 3));
+            assertTrue(f.excludes(440106, 19850101, 123));
+            assertTrue(f.excludes(320102, 20000101, 0));
+            assertTrue(f.excludes(320102, 20000101, 99));
+            assertFalse(f.excludes(320102, 20000101, 100));
+            assertTrue(f.excludes(130102, 19501231, 777));
+            assertFalse(f.excludes(130103, 19501231, 777));
+            assertTrue(f.excludes(510104, 19700601, 42));
+            assertFalse(f.excludes(510104, 19700610, 42));
+            assertFalse(f.excludes("110101199002300015"));
+            assertFalse(f.excludes("不是号码"));
+        }
+    }
+
+    @Test
+    void compiledFileReopensAndAgreesWithSet() throws IOException {
+        Path list = dir.resolve("many.txt");
+        SplittableRandom random = new SplittableRandom(7);
+        Set<String> listed = new HashSet<>();
+        List<String> lines = new ArrayList<>();
+        int[] codes = AddressCodeUtil.regionIndex().districtCodes(List.of("44"));
+        for (int i = 0; i < 20000; i++) {
+            int ymd = IdNumberEncoder.toYmd(LocalDate.ofEpochDay(random.nextInt(-3000, 15000)));
+            String id17 = String.format("%06d%08d%03d", codes[random.nextInt(codes.length)], ymd, random.nextInt(1000));
+            listed.add(id17);
+            lines.add(id17 + IdNumberUtil.calculateCheckCode(id17));
+        }
+        lines.addAll(lines.subList(0, 3000));  // 跨排序段的重复号码
+        Files.write(list, lines, StandardCharsets.UTF_8);
+        Path compiled = dir.resolve("many.excl");
+        ExclusionFilter.build(list, compiled).close();
+        // 排序段很小时（多段溢写再归并）编译结果与一次排序相同
+        Path small = dir.resolve("small.excl");
+        ExclusionFilter.build(list, small, 1000).close();
+        try (ExclusionFilter a = ExclusionFilter.load(compiled); ExclusionFilter b = ExclusionFilter.load(small)) {
+            assertEquals(a.size(), b.size());
+            for (String id17 : listed) assertTrue(b.excludes(id17 + "0"), id17);
+            for (int i = 0; i < 20000; i++) {
+                int ymd = IdNumberEncoder.toYmd(LocalDate.ofEpochDay(random.nextInt(-3000, 15000)));
+                int code = codes[random.nextInt(codes.length)], seq = random.nextInt(1000);
+                assertEquals(a.excludes(code, ymd, seq), b.excludes(code, ymd, seq));
+            }
+        }
+        try (ExclusionFilter f = ExclusionFilter.load(compiled)) {
+            assertEquals(listed.size(), f.size());
+            for (String id17 : listed) assertTrue(f.excludes(id17 + "0"), id17);
+            int falsePositives = 0;
+            for (int i = 0; i < 20000; i++) {
+                int ymd = IdNumberEncoder.toYmd(LocalDate.ofEpochDay(random.nextInt(-3000, 15000)));
+                int code = codes[random.nextInt(codes.length)], seq = random.nextInt(1000);
+                boolean expected = listed.contains(String.format("%06d%08d%03d", code, ymd, seq));
+                if (f.excludes(code, ymd, seq) != expected) falsePositives++;
+            }
+            assertEquals(0, falsePositives);
+
+            // 批量判断与逐条判断一致
+            long[] packed = new long[1000];
+            for (int i = 0; i < packed.length; i++) {
+                String id17 = i % 2 == 0 ? lines.get(i).substring(0, 17)
+                        : String.format("%06d%08d%03d", codes[random.nextInt(codes.length)], 19900101 + i % 28, random.nextInt(1000));
+                packed[i] = ExclusionFilter.pack(Integer.parseInt(id17.substring(0, 6)), Integer.parseInt(id17.substring(6, 14)),
+                        Integer.parseInt(id17.substring(14)));
+            }
+            List<Long> expected = new ArrayList<>();
+            for (long p : packed) {
+                if (!f.excludes(ExclusionFilter.packedAddress(p), ExclusionFilter.packedBirth(p), ExclusionFilter.packedSeq(p))) expected.add(p);
+            }
+            int kept = f.retain(packed, packed.length, new long[packed.length], new int[packed.length]);
+            assertTrue(expected.size() <= 500);
+            assertEquals(expected.size(), kept);
+            for (int i = 0; i < kept; i++) assertEquals(expected.get(i), packed[i]);
+        }
+    }
+
+    @Test
+    void rejectsMalformedLines() throws IOException {
+        Path list = dir.resolve("bad.txt");
+        Files.write(list, List.of("110101199003070015", "11010119900307001Y"), StandardCharsets.UTF_8);
+        IOException e = assertThrows(IOException.class, () -> ExclusionFilter.load(list));
+        assertTrue(e.getMessage().contains("第 2 行"), e.getMessage());
+    }
+
+    @Test
+    void generatorsSkipExcludedIds() throws IOException {
+        LocalDate day = LocalDate.of(1990, 5, 1);
+        Path list = dir.resolve("gen.txt");
+        // 排除 110101 当天的 000~899 号，只剩 900~999
+        Files.write(list, List.of("11010119900501000-11010119900501899"), StandardCharsets.UTF_8);
+        try (ExclusionFilter f = ExclusionFilter.load(list)) {
+            BatchGenerator g = new BatchGenerator(List.of("110101"), day, day, 0.5, 1L).excluding(f);
+            for (int i = 0; i < 2000; i++) {
+                String id = g.next();
+                assertTrue(Integer.parseInt(id.substring(14, 17)) >= 900, id);
+            }
+            UniqueIdGenerator u = new UniqueIdGenerator(List.of("110101"), day, day, 1.0, 3L, f);
+            byte[] buf = new byte[18];
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                u.next(buf, 0);
+                String id = new String(buf, StandardCharsets.US_ASCII);
+                assertTrue(ids.add(id) && id.compareTo("110101199005019") >= 0, id);
+            }
+            assertThrows(IllegalStateException.class, () -> u.next(buf, 0));
+        }
+        Files.write(list, List.of("110101"), StandardCharsets.UTF_8);
+        try (ExclusionFilter f = ExclusionFilter.load(list)) {
+            BatchGenerator g = new BatchGenerator(List.of("110101"), day, day, 0.5, 1L).excluding(f);
+            assertThrows(IllegalStateException.class, g::next);
+        }
+    }
+}
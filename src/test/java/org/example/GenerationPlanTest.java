@@ -0,0 +1,139 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据集描述与生成计划：约束与家庭分组生效、字段裁剪、同种子可复现、描述错误明确报错。
+ */
+public class GenerationPlanTest {
+
+    private static String run(GenerationPlan plan) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        plan.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void householdsShareAddressAndSurname() throws IOException {
+        DatasetSpec spec = DatasetSpec.parse("{\"count\": 3000, \"seed\": 7,"
+                + " \"fields\": [\"household\", \"id\", \"name\", \"gender\", \"birthDate\", \"address\"],"
+                + " \"regions\": [\"44\"], \"birth\": {\"from\": \"1980-01-01\", \"to\": \"1995-12-31\"},"
+                + " \"femaleRatio\": 0.6, \"household\": {\"size\": 3, \"shareSurname\": true}}");
+        String csv = run(spec.compile());
+        String[] lines = csv.split("\n");
+        assertEquals("household,id,name,gender,birthDate,address", lines[0]);
+        assertEquals(3001, lines.length);
+        RegionHistory history = RegionHistory.defaults();
+        int female = 0;
+        String[] head = null;
+        for (int i = 1; i < lines.length; i++) {
+            String[] f = lines[i].split(",");
+            String id = f[1];
+            assertEquals(IdNumberUtil.calculateCheckCode(id.substring(0, 17)), id.charAt(17), id);
+            assertTrue(id.startsWith("44"), id);
+            assertEquals(id.substring(6, 14), f[4].replace("-", ""));
+            LocalDate birth = LocalDate.parse(f[4]);
+            assertFalse(birth.isBefore(LocalDate.of(1980, 1, 1)) || birth.isAfter(LocalDate.of(1995, 12, 31)), f[4]);
+            boolean male = (id.charAt(16) - '0') % 2 == 1;
+            assertEquals(male ? "男" : "女", f[3]);
+            if (!male) female++;
+            assertEquals(String.valueOf((i - 1) / 3 + 1), f[0]);
+            if ((i - 1) % 3 == 0) {
+                head = f;
+            } else {
+                assertEquals(head[5], f[5], "同户地址相同");
+                // 同户地址码为户主代码在成员出生日期当天对应的代码（通常即户主代码）
+                assertEquals(history.codeAt(Integer.parseInt(head[1].substring(0, 6)), Integer.parseInt(id.substring(6, 14))),
+                        Integer.parseInt(id.substring(0, 6)), id);
+                assertEquals(head[2].charAt(0), f[2].charAt(0), "同户同姓");
+            }
+        }
+        assertEquals(0.6, female / 3000.0, 0.04);
+    }
+
+    @Test
+    void usesCodesInEffectAtBirthDate() throws IOException {
+        for (String household : new String[]{"", ", \"household\": {\"minSize\": 1, \"maxSize\": 5}"}) {
+            for (String weighted : new String[]{"false", "true"}) {
+                DatasetSpec spec = DatasetSpec.parse("{\"count\": 20000, \"seed\": 1, \"fields\": [\"id\"], \"regions\": [\"44\", \"1101\"],"
+                        + " \"birth\": {\"from\": \"1980-01-01\", \"to\": \"2020-12-31\"}, \"weighted\": " + weighted + household + "}");
+                String[] lines = run(spec.compile()).split("\n");
+                assertEquals(20001, lines.length);
+                boolean sawOld = false;
+                for (int i = 1; i < lines.length; i++) {
+                    assertTrue(IdNumberUtil.isValidIdNumber(lines[i]), lines[i]);
+                    sawOld |= lines[i].startsWith("440102") || lines[i].startsWith("110223");
+                }
+                assertTrue(sawOld, "应出现撤并前的代码");
+            }
+        }
+    }
+
+    @Test
+    void dropsUnusedFieldsAndIsReproducible() throws IOException {
+        String json = "{\"count\": 500, \"seed\": 11, \"fields\": [\"id\"], \"regions\": \"110101,4401\", \"weighted\": true}";
+        GenerationPlan plan = DatasetSpec.parse(json).compile();
+        String a = run(plan), b = run(DatasetSpec.parse(json).compile());
+        assertEquals(a, b);
+        String[] lines = a.split("\n");
+        assertEquals("id", lines[0]);
+        assertEquals(501, lines.length);
+        for (int i = 1; i < lines.length; i++) {
+            assertEquals(18, lines[i].length());
+            assertTrue(lines[i].startsWith("110101") || lines[i].startsWith("4401"), lines[i]);
+        }
+        assertNotEquals(a, run(DatasetSpec.parse(json.replace("\"seed\": 11", "\"seed\": 12")).compile()));
+    }
+
+    @Test
+    void writesJsonLines() throws IOException {
+        DatasetSpec spec = DatasetSpec.parse("{\"count\": 20, \"seed\": 3, \"format\": \"jsonl\","
+                + " \"fields\": [\"name\", \"validPeriod\", \"household\"], \"age\": {\"min\": 30, \"max\": 30},"
+                + " \"reference\": \"2024-06-01\", \"household\": {\"minSize\": 1, \"maxSize\": 4}}");
+        assertEquals(LocalDate.of(1993, 6, 2), spec.birthFrom());
+        assertEquals(LocalDate.of(1994, 6, 1), spec.birthTo());
+        ObjectMapper mapper = new ObjectMapper();
+        long last = 0;
+        for (String line : run(spec.compile()).split("\n")) {
+            JsonNode row = mapper.readTree(line);
+            List<String> keys = new ArrayList<>();
+            for (Iterator<String> it = row.fieldNames(); it.hasNext(); ) keys.add(it.next());
+            assertEquals(List.of("name", "validPeriod", "household"), keys);
+            assertTrue(row.get("household").isIntegralNumber());
+            assertTrue(row.get("household").asLong() - last <= 1);
+            last = row.get("household").asLong();
+            assertTrue(row.get("validPeriod").asText().matches("\\d{4}\\.\\d{2}\\.\\d{2}-\\d{4}\\.\\d{2}\\.\\d{2}"));
+            assertFalse(row.get("name").asText().isEmpty());
+        }
+    }
+
+    @Test
+    void rejectsInvalidSpecs() {
+        for (String json : new String[]{
+                "{\"cnt\": 1}",
+                "{\"fields\": [\"id\", \"phone\"]}",
+                "{\"fields\": [\"id\", \"id\"]}",
+                "{\"birth\": {\"from\": \"1990-01-01\", \"to\": \"1980-01-01\"}}",
+                "{\"birth\": {\"from\": \"1990-01-01\", \"to\": \"1995-01-01\"}, \"age\": {\"min\": 1}}",
+                "{\"femaleRatio\": 1.5}",
+                "{\"household\": {\"size\": 0}}",
+                "{\"format\": \"xml\"}",
+                "[1, 2]"}) {
+            assertThrows(IllegalArgumentException.class, () -> DatasetSpec.parse(json), json);
+        }
+        assertThrows(IllegalArgumentException.class, () -> DatasetSpec.parse("{\"regions\": [\"99\"]}").compile());
+        assertThrows(IOException.class, () -> DatasetSpec.parse("{\"count\": "));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量预览存储与虚拟表格模型：逐页填充、按行读取与 IdentityRecords 一致；取消的后台任务退出后才结束。
+ */
+public class IdBatchStoreTest {
+    private final IdentityRecords records =
+            new IdentityRecords(List.of("4401"), LocalDate.of(1980, 1, 1), LocalDate.of(1999, 12, 31), 0.5, 21L);
+
+    @Test
+    void fillsPagesMatchingRecords() throws IOException {
+        long n = IdBatchStore.PAGE_ROWS + 1000;
+        IdBatchStore store = new IdBatchStore(records, n);
+        assertEquals(IdBatchStore.PAGE_ROWS, store.fillPage());
+        assertEquals(1000, store.fillPage());
+        assertEquals(0, store.fillPage());
+        assertTrue(store.isFull());
+        for (long row : new long[]{0, 1, IdBatchStore.PAGE_ROWS - 1, IdBatchStore.PAGE_ROWS, n - 1}) {
+            String id = records.get(row).getId();
+            assertEquals(id, store.id(row));
+            assertEquals(Integer.parseInt(id.substring(6, 14)), store.birthYmd(row));
+            assertEquals((id.charAt(16) - '0') % 2 == 1, store.isMale(row));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> store.id(n));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.writeLines(IdBatchStore.PAGE_ROWS - 2, IdBatchStore.PAGE_ROWS + 2, out);
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals(records.get(IdBatchStore.PAGE_ROWS + 1).getId(), lines[3]);
+    }
+
+    @Test
+    void tableModelShowsGeneratedRows() {
+        IdBatchStore store = new IdBatchStore(records, 5000);
+        BatchPanel.RecordTableModel model = new BatchPanel.RecordTableModel();
+        model.setStore(store);
+        assertEquals(0, model.getRowCount());
+        store.fillPage();
+        model.showRows(store.size());
+        assertEquals(5000, model.getRowCount());
+        assertEquals(BatchPanel.RecordTableModel.COLUMNS.length, model.getColumnCount());
+        IdentityRecord r = records.get(4321);
+        assertEquals(4322, model.getValueAt(4321, 0));
+        assertEquals(r.getId(), model.getValueAt(4321, 1));
+        assertEquals(r.getName(), model.getValueAt(4321, 2));
+        assertEquals(r.getId().substring(6, 10) + "-" + r.getId().substring(10, 12) + "-" + r.getId().substring(12, 14), model.getValueAt(4321, 4));
+        assertEquals(r.getAddress(), model.getValueAt(4321, 5));
+        assertEquals(r.getValidPeriod(), model.getValueAt(4321, 6));
+        // 同槽位不同行不会读到缓存的旧记录
+        assertEquals(records.get(4321 + 256).getName(), model.getValueAt(4321 + 256, 2));
+    }
+
+    @Test
+    void infersExportFormat() {
+        assertEquals("txt", BatchPanel.formatOf(Paths.get("ids.txt")));
+        assertEquals("csv", BatchPanel.formatOf(Paths.get("/tmp/a.b/people.csv.gz")));
+        assertEquals("jsonl", BatchPanel.formatOf(Paths.get("people.jsonl")));
+        assertNull(BatchPanel.formatOf(Paths.get("people.xlsx")));
+        assertNull(BatchPanel.formatOf(Paths.get("people")));
+    }
+
+    @Test
+    void cancelledTaskFinishesAfterBackgroundExits() throws Exception {
+        BatchPanel panel = new BatchPanel(null);
+        CountDownLatch running = new CountDownLatch(1), release = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        BatchPanel.PanelTask<Void> task = panel.new PanelTask<Void>() {
+            @Override
+            Long work() throws InterruptedException {
+                running.countDown();
+                release.await();  // cancel(false) 不中断，模拟仍在写文件的后台线程
+                return 0L;
+            }
+
+            @Override
+            void finished() {
+                finished.set(true);
+            }
+        };
+        task.execute();
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> assertTrue(task.cancel(false)));
+        SwingUtilities.invokeAndWait(() -> { });  // done() 已在 EDT 执行
+        assertTrue(task.isDone());
+        assertFalse(finished.get(), "后台仍在运行时不应结束");
+        release.countDown();
+        for (int i = 0; i < 1000 && !finished.get(); i++) {
+            Thread.sleep(10);
+            SwingUtilities.invokeAndWait(() -> { });
+        }
+        assertTrue(finished.get());
+    }
+}
@@ -0,0 +1,95 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.example.IdNumberValidator.*;
+
+/**
+ * 文件审计：各类问题行计数与行号正确，结果与线程数无关。
+ */
+public class IdFileValidatorTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void classifiesCsvColumn() throws Exception {
+        String ok = IdNumberUtil.generateIdNumber("440106", "19900615", true, "123");
+        String other = IdNumberUtil.generateIdNumber("110101", "20000101", false, "002");
+        String badCheck = ok.substring(0, 17) + (ok.charAt(17) == '0' ? '1' : '0');
+        String unknown = IdNumberUtil.generateIdNumber("999999", "19900615", true, "123");
+        Path file = dir.resolve("ids.csv");
+        Files.write(file, List.of(
+                "name,id",
+                "张三," + ok,
+                "李四,\"" + other + "\"\r",
+                "",
+                "王五," + badCheck,
+                "赵六," + unknown,
+                "钱七,12345",
+                "孙八",
+                "周九, " + ok + " "), StandardCharsets.UTF_8);
+
+        IdFileValidator.Report r = new IdFileValidator(IdNumberValidator.defaultValidator(), 2, ',', true, true, 10).scan(file, 3);
+        assertEquals(9, r.lines());
+        assertEquals(7, r.checked());
+        assertEquals(2, r.count(VALID));
+        assertEquals(1, r.count(BAD_CHECKSUM));
+        assertEquals(1, r.count(UNKNOWN_REGION));
+        assertEquals(2, r.count(BAD_LENGTH));
+        assertEquals(1, r.count(IdFileValidator.DUPLICATE));
+
+        List<IdFileValidator.Sample> samples = r.samples();
+        assertEquals(5, samples.size());
+        assertEquals(5, samples.get(0).line());
+        assertEquals(BAD_CHECKSUM, samples.get(0).category());
+        assertEquals(9, samples.get(4).line());
+        assertEquals(IdFileValidator.DUPLICATE, samples.get(4).category());
+    }
+
+    private static List<String> sampleLines(IdFileValidator.Report r) {
+        List<String> lines = new ArrayList<>();
+        for (IdFileValidator.Sample s : r.samples()) lines.add(s.category() + ":" + s.line());
+        return lines;
+    }
+
+    @Test
+    void resultIndependentOfThreads() throws Exception {
+        BatchGenerator g = new BatchGenerator(List.of("44"), LocalDate.of(1990, 1, 1), LocalDate.of(1990, 1, 31), 0.5, 7L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        g.generate(50_000, out);
+        byte[] data = out.toByteArray();
+        data[19 * 1234 + 3] = 'A'; // 第 1235 行格式错误
+        System.arraycopy(data, 19 * 49_990, data, 19 * 10, 19 * 5);  // 末尾 5 行在开头也出现，重复跨越各段
+        Path file = dir.resolve("ids.txt");
+        Files.write(file, data);
+
+        IdFileValidator scanner = new IdFileValidator(IdNumberValidator.defaultValidator(), 0, ',', false, true, 5);
+        IdFileValidator.Report one = scanner.scan(file, 1);
+        assertEquals(50_000, one.lines());
+        assertEquals(1, one.count(BAD_FORMAT));
+        assertEquals(1235, one.samples().get(0).line());
+        // 同一号码最早的一行保留分类，其后各行记为重复，样例行（全部列出）与线程数无关
+        IdFileValidator all = new IdFileValidator(IdNumberValidator.defaultValidator(), 0, ',', false, true, 100_000);
+        List<String> expected = sampleLines(all.scan(file, 1));
+        assertTrue(expected.contains(IdFileValidator.DUPLICATE + ":49991"));
+        assertFalse(expected.contains(IdFileValidator.DUPLICATE + ":11"));
+        for (int threads : new int[]{2, 4, 8}) {
+            IdFileValidator.Report many = scanner.scan(file, threads);
+            for (int c = 0; c <= IdFileValidator.DUPLICATE; c++) assertEquals(one.count(c), many.count(c), IdFileValidator.categoryName(c));
+            assertEquals(sampleLines(one), sampleLines(many));
+            assertEquals(expected, sampleLines(all.scan(file, threads)));
+        }
+        // 随机生成的号码空间有限，重复数即总数减去不同号码数
+        assertEquals(50_000 - 1, one.count(VALID) + one.count(IdFileValidator.DUPLICATE));
+    }
+}
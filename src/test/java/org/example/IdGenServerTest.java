@@ -0,0 +1,125 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 服务模式：本机端口上的生成与校验接口、分块传输与参数错误。
+ */
+public class IdGenServerTest {
+    private static IdGenServer server;
+
+    @BeforeAll
+    static void start() throws IOException {
+        server = new IdGenServer(new InetSocketAddress("127.0.0.1", 0), 100_000).start();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.close();
+    }
+
+    private static HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + server.port() + path).openConnection();
+    }
+
+    private static List<String> lines(HttpURLConnection c) throws IOException {
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(c.getInputStream(), StandardCharsets.UTF_8))) {
+            return r.lines().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void streamsGeneratedIds() throws IOException {
+        HttpURLConnection c = open("/generate?count=50000&format=txt&region=44&seed=1");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("chunked", c.getHeaderField("Transfer-Encoding"));
+        List<String> ids = lines(c);
+        assertEquals(50000, ids.size());
+        IdNumberValidator v = IdNumberValidator.defaultValidator();
+        for (String id : ids) {
+            assertTrue(id.startsWith("44"), id);
+            assertEquals(IdNumberValidator.VALID, v.validate(id), id);
+        }
+        assertEquals(ids.subList(0, 10), lines(open("/generate?count=10&format=txt&region=44&seed=1")));
+    }
+
+    @Test
+    void generatesRecordsByRegionName() throws IOException {
+        String region = URLEncoder.encode("广东省广州市天河区", StandardCharsets.UTF_8);
+        List<String> jsonl = lines(open("/generate?count=100&region=" + region + "&seed=2"));
+        assertEquals(100, jsonl.size());
+        String code = AddressCodeUtil.getAddressCodeByPath("广东省广州市天河区");
+        for (String line : jsonl) {
+            assertTrue(line.startsWith("{\"id\":\"" + code), line);
+            assertTrue(line.contains("广州市天河区"), line);
+        }
+        List<String> csv = lines(open("/generate?count=5&format=csv&seed=2"));
+        assertEquals(6, csv.size());  // 表头 + 5 行
+    }
+
+    @Test
+    void validatesPostedIds() throws IOException {
+        String good = IdNumberUtil.generateIdNumber("440106", "19900615", true, "123");
+        HttpURLConnection c = open("/validate?format=csv");
+        c.setRequestMethod("POST");
+        c.setDoOutput(true);
+        try (OutputStream os = c.getOutputStream()) {
+            os.write((good + "\n\n12345\n" + good.substring(0, 17) + (good.charAt(17) == '0' ? '1' : '0') + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+        List<String> rows = lines(c);
+        assertEquals(List.of("line,id,status,birth,gender",
+                "1," + good + ",VALID,1990-06-15,男",
+                "3,12345,BAD_LENGTH,,",
+                "4," + good.substring(0, 17) + (good.charAt(17) == '0' ? '1' : '0') + ",BAD_CHECKSUM,,"), rows);
+
+        List<String> one = lines(open("/validate?id=" + good));
+        assertEquals(List.of("{\"line\":1,\"id\":\"" + good + "\",\"status\":\"VALID\",\"birth\":\"1990-06-15\",\"gender\":\"男\"}"), one);
+    }
+
+    @Test
+    void exposesMetrics() throws IOException {
+        Metrics.counter("server_test", "服务测试").increment();
+        HttpURLConnection c = open("/metrics");
+        assertEquals(200, c.getResponseCode());
+        assertTrue(lines(c).contains("idgen_server_test_total 1"));
+    }
+
+    @Test
+    void rejectsBadParameters() throws IOException {
+        assertEquals(400, open("/generate?count=1000000").getResponseCode());
+        assertEquals(400, open("/generate?format=xml").getResponseCode());
+        assertEquals(400, open("/generate?region=" + URLEncoder.encode("不存在省", StandardCharsets.UTF_8)).getResponseCode());
+        // 唯一模式超出号码空间（1 个区县 × 1 天 × 500）在发出响应头之前报错
+        HttpURLConnection full = open("/generate?count=1000&format=txt&unique=true&region=110101&from=2000-01-01&to=2000-01-01&seed=1");
+        assertEquals(400, full.getResponseCode());
+        try (InputStream es = full.getErrorStream()) {
+            assertTrue(new String(es.readAllBytes(), StandardCharsets.UTF_8).contains("唯一号码空间 500"));
+        }
+        assertEquals(500, lines(open("/generate?count=500&format=txt&unique=true&region=110101&from=2000-01-01&to=2000-01-01&seed=1")).size());
+        HttpURLConnection c = open("/generate?count=1");
+        c.setRequestMethod("DELETE");
+        assertEquals(405, c.getResponseCode());
+        HttpURLConnection bad = open("/generate?from=2000-01-01&to=1990-01-01");
+        assertEquals(400, bad.getResponseCode());
+        try (InputStream es = bad.getErrorStream()) {
+            assertTrue(new String(es.readAllBytes(), StandardCharsets.UTF_8).contains("出生日期区间无效"));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 编码器输出需与 IdNumberUtil.generateIdNumber 的字符串结果逐字符一致。
+ */
+public class IdNumberEncoderTest {
+
+    @Test
+    void encodesSameDigitsAsStringPath() {
+        SplittableRandom random = new SplittableRandom(1);
+        byte[] bytes = new byte[20];
+        char[] chars = new char[20];
+        ByteBuffer direct = ByteBuffer.allocateDirect(20);
+        for (int n = 0; n < 10_000; n++) {
+            int address = 110000 + random.nextInt(540000);
+            int birth = (1900 + random.nextInt(200)) * 10000 + (1 + random.nextInt(12)) * 100 + 1 + random.nextInt(28);
+            int seq = 1 + random.nextInt(999);
+            String expected = IdNumberUtil.generateIdNumber(String.valueOf(address), String.valueOf(birth),
+                    seq % 2 == 1, String.valueOf(seq));
+
+            assertEquals(20, IdNumberEncoder.encode(bytes, 2, address, birth, seq));
+            assertEquals(expected, new String(bytes, 2, 18, StandardCharsets.US_ASCII));
+            IdNumberEncoder.encode(chars, 1, address, birth, seq);
+            assertEquals(expected, new String(chars, 1, 18));
+            direct.clear();
+            IdNumberEncoder.put(direct, address, birth, seq);
+            assertEquals(18, direct.position());
+            for (int i = 0; i < 18; i++) assertEquals(expected.charAt(i), (char) direct.get(i));
+            assertEquals(expected.charAt(17), IdNumberEncoder.checkCode(address, birth, seq));
+        }
+    }
+}
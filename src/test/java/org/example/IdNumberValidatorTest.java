@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.example.IdNumberValidator.*;
+
+/**
+ * 校验与解析：各类错误分别给出对应状态，批量结果与单条一致，默认校验器跨日后重建。
+ */
+public class IdNumberValidatorTest {
+    private final IdNumberValidator validator = IdNumberValidator.defaultValidator();
+
+    @Test
+    void classifiesIds() {
+        String id = IdNumberUtil.generateIdNumber("440106", "19900615", false, "124");
+        assertEquals(VALID, validator.validate(id));
+        assertTrue(IdNumberUtil.isValidIdNumber(id));
+
+        ParsedId parsed = new ParsedId();
+        assertEquals(VALID, validator.parse(id, parsed));
+        assertEquals(440106, parsed.addressCode());
+        assertEquals(LocalDate.of(1990, 6, 15), parsed.birthDate());
+        assertEquals(124, parsed.seq());
+        assertFalse(parsed.isMale());
+
+        assertEquals(BAD_LENGTH, validator.validate(id.substring(1)));
+        assertEquals(BAD_LENGTH, validator.validate((CharSequence) null));
+        assertEquals(BAD_FORMAT, validator.validate("44010A" + id.substring(6)));
+        char wrong = id.charAt(17) == '0' ? '1' : '0';
+        assertEquals(BAD_CHECKSUM, validator.validate(id.substring(0, 17) + wrong));
+        assertEquals(BAD_DATE, validator.validate(withCheck("44010619900230123")));
+        assertEquals(BAD_DATE, validator.validate(withCheck("44010618991231123")));
+        assertEquals(UNKNOWN_REGION, validator.validate(withCheck("99999919900615123")));
+    }
+
+    @Test
+    void defaultValidatorRollsOverAtMidnight() {
+        IdNumberValidator v = IdNumberValidator.defaultValidator();
+        assertSame(v, IdNumberValidator.defaultValidator());
+        assertTrue(v.rebuildAt > System.currentTimeMillis());
+        String today = IdNumberEncoder.toYmd(LocalDate.now()) + "";
+        assertEquals(VALID, v.validate(IdNumberUtil.generateIdNumber("440106", today, true, "123")));
+        // 模拟跨过零点：下一次取用时重建，出生日期上限随之更新
+        v.rebuildAt = 0;
+        IdNumberValidator next = IdNumberValidator.defaultValidator();
+        assertNotSame(v, next);
+        assertSame(next, IdNumberValidator.defaultValidator());
+        assertEquals(VALID, next.validate(IdNumberUtil.generateIdNumber("440106", today, true, "123")));
+    }
+
+    @Test
+    void acceptsLowercaseX() {
+        String base = null;
+        for (int seq = 100; seq < 999 && base == null; seq++) {
+            String b = "11010119800101" + seq;
+            if (IdNumberUtil.calculateCheckCode(b) == 'X') base = b;
+        }
+        assertNotNull(base);
+        assertEquals(VALID, validator.validate(base + "X"));
+        assertEquals(VALID, validator.validate(base + "x"));
+    }
+
+    @Test
+    void batchMatchesSingle() {
+        String[] ids = {
+                IdNumberUtil.generateIdNumber("110101", "20000229", true, null),
+                withCheck("11010120010229123"),
+                "11010120000101123?",
+                withCheck("00000019900101123"),
+                IdNumberUtil.generateIdNumber("441900", "19851120", false, null),
+        };
+        byte[] data = new byte[ids.length * 19];
+        for (int i = 0; i < ids.length; i++) {
+            System.arraycopy(ids[i].getBytes(StandardCharsets.US_ASCII), 0, data, i * 19, 18);
+            data[i * 19 + 18] = '\n';
+        }
+        byte[] results = new byte[ids.length];
+        byte[] results2 = new byte[ids.length];
+        int valid = validator.validateBatch(data, 0, 19, ids.length, results);
+        assertEquals(valid, validator.validateBatch(ids, 0, ids.length, results2));
+        assertArrayEquals(results, results2);
+        assertEquals(2, valid);
+        for (int i = 0; i < ids.length; i++) assertEquals(validator.validate(ids[i]), results[i]);
+    }
+
+    private static String withCheck(String base17) {
+        return base17 + IdNumberUtil.calculateCheckCode(base17);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 增量游标需与逐条完整计算的结果一致（覆盖跨月、跨年与闰日）。
+ */
+public class IdRangeCursorTest {
+
+    @Test
+    void sweepMatchesFullRecomputation() {
+        int[] addresses = {110101, 440106};
+        LocalDate from = LocalDate.of(1999, 12, 30);
+        LocalDate to = LocalDate.of(2000, 3, 2);
+        IdRangeCursor cursor = new IdRangeCursor(addresses, from, to, 0, 999, 1);
+        byte[] buf = new byte[18];
+        long n = 0;
+        for (int address : addresses) {
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                String birth = IdNumberUtil.formatBirth(d);
+                for (int seq = 0; seq <= 999; seq++) {
+                    assertTrue(cursor.next());
+                    cursor.write(buf, 0);
+                    String base = address + birth + String.format("%03d", seq);
+                    assertEquals(base + IdNumberUtil.calculateCheckCode(base), new String(buf, StandardCharsets.US_ASCII));
+                    n++;
+                }
+            }
+        }
+        assertFalse(cursor.next());
+        assertEquals(cursor.size(), n);
+    }
+
+    @Test
+    void seekPositionsCursor() {
+        IdRangeCursor cursor = IdRangeCursor.forGender(440106, LocalDate.of(2000, 2, 27), LocalDate.of(2000, 3, 1), false);
+        assertEquals(4 * 500, cursor.size());
+        cursor.seek(2 * 500 + 3);
+        assertEquals(20000229, cursor.birthYmd());
+        assertEquals(6, cursor.seq());
+        assertTrue(cursor.next());
+        assertEquals(8, cursor.seq());
+        String id = cursor.toString();
+        assertEquals(IdNumberUtil.calculateCheckCode(id.substring(0, 17)), id.charAt(17));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按下标派生的记录流：随机访问、串行与并行结果一致，字段可单独读取。
+ */
+public class IdentityRecordsTest {
+    private final IdentityRecords records =
+            new IdentityRecords(List.of("4401", "110101"), LocalDate.of(1980, 1, 1), LocalDate.of(1999, 12, 31), 0.5, 11L);
+
+    @Test
+    void parallelMatchesSequentialAndRandomAccess() {
+        List<String> sequential = records.stream(20_000).map(IdentityRecord::toString).collect(Collectors.toList());
+        List<String> parallel = records.stream(20_000).parallel().map(IdentityRecord::toString).collect(Collectors.toList());
+        assertEquals(sequential, parallel);
+        assertEquals(sequential.get(12_345), records.get(12_345).toString());
+        assertEquals(sequential.subList(100, 200),
+                records.stream(100, 200).map(IdentityRecord::toString).collect(Collectors.toList()));
+        assertNotEquals(sequential.get(0), sequential.get(1));
+    }
+
+    @Test
+    void fieldsAreIndependentOfReadOrder() {
+        IdentityRecord a = records.get(42), b = records.get(42);
+        String address = a.getAddress();
+        assertEquals(b.getId(), a.getId());
+        assertEquals(address, b.getAddress());
+        assertTrue(IdNumberUtil.isValidIdNumber(a.getId()));
+        String expectedPrefix = a.getId().startsWith("4401") ? "广东省广州市" : "北京市";
+        assertTrue(address.startsWith(expectedPrefix), address);
+        assertTrue(records.stream(1000).allMatch(r -> r.getId().startsWith("4401") || r.getId().startsWith("110101")));
+    }
+
+    @Test
+    void splitsInHalves() {
+        Spliterator<IdentityRecord> s = records.spliterator(0, 10_000);
+        assertTrue(s.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+        Spliterator<IdentityRecord> prefix = s.trySplit();
+        assertEquals(5_000, prefix.estimateSize());
+        assertEquals(5_000, s.estimateSize());
+        assertNull(records.spliterator(0, 100).trySplit());
+        assertThrows(IllegalArgumentException.class, () -> records.stream(5, 4));
+    }
+}
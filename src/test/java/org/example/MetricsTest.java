@@ -0,0 +1,73 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 统计：直方图分桶与分位数、Prometheus 文本格式、JMX 注册，关闭时生成路径不注册指标。
+ */
+public class MetricsTest {
+
+    @Test
+    void histogramBucketsCoverLongRange() {
+        for (long v : new long[]{0, 1, 31, 32, 33, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int b = Metrics.LatencyHistogram.bucketOf(v);
+            assertTrue(Metrics.LatencyHistogram.lowerBound(b) <= v, "v=" + v);
+            assertTrue(v < Metrics.LatencyHistogram.upperBound(b) || v == Long.MAX_VALUE, "v=" + v);
+        }
+        // 相对误差不超过 1/32
+        long v = 987_654_321L;
+        int b = Metrics.LatencyHistogram.bucketOf(v);
+        assertTrue(Metrics.LatencyHistogram.upperBound(b) - Metrics.LatencyHistogram.lowerBound(b) <= v / 32);
+    }
+
+    @Test
+    void timerReportsPercentiles() {
+        Metrics.Timer t = Metrics.timer("test_timer", "测试计时");
+        for (int i = 1; i <= 1000; i++) t.record(i * 1000L);  // 1µs .. 1ms
+        assertEquals(1000, t.count());
+        assertEquals(500_500, t.meanNanos(), 1e-6);
+        assertEquals(500_000, t.percentile(0.5), 500_000 / 32.0);
+        assertEquals(990_000, t.percentile(0.99), 990_000 / 32.0);
+        assertEquals(1_000_000, t.percentile(1.0), 1_000_000 / 32.0);
+    }
+
+    @Test
+    void writesPrometheusText() {
+        Metrics.counter("test_events", "测试事件").add(3);
+        Metrics.batch("test_batch", "测试批量", System.nanoTime(), Metrics.allocatedBytes(), 42);
+        String text = Metrics.prometheus();
+        assertTrue(text.contains("# TYPE idgen_test_events_total counter\nidgen_test_events_total "), text);
+        assertTrue(text.contains("idgen_test_batch_items_total "), text);
+        assertTrue(text.contains("# TYPE idgen_test_batch_seconds summary\n"), text);
+        assertTrue(text.contains("idgen_test_batch_seconds{quantile=\"0.99\"} "), text);
+        assertTrue(text.contains("idgen_test_batch_seconds_count "), text);
+        for (String line : text.split("\n")) {
+            assertTrue(line.startsWith("#") || line.matches("idgen_[a-z_]+(\\{quantile=\"[0-9.]+\"})? [0-9.e+-]+"), line);
+        }
+    }
+
+    @Test
+    void disabledMetricsRegisterNothing() {
+        IdNumberUtil.generateIdNumber("110101", "19900101", true, null);
+        assertEquals(Metrics.ENABLED, Metrics.prometheus().contains("idgen_generate_id_seconds"));
+    }
+
+    @Test
+    void registersMBean() throws Exception {
+        ObjectName name = Metrics.registerMBean();
+        assertEquals(name, Metrics.registerMBean());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Metrics.counter("test_jmx", "测试 JMX").increment();
+        assertTrue(((String) server.getAttribute(name, "PrometheusText")).contains("idgen_test_jmx_total"));
+        Map<String, Long> counters = JMX.newMXBeanProxy(server, name, Metrics.MetricsMXBean.class).getCounters();
+        assertTrue(counters.get("test_jmx") >= 1);
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 姓名词表：按频率抽取姓氏，组合出足够多的不同姓名，可从目录替换词表，替换的词表用于生成的记录。
+ */
+public class NameCorpusTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void weightedAndDiverse() {
+        NameCorpus corpus = NameCorpus.defaults();
+        SplittableRandom random = new SplittableRandom(1);
+        int n = 100_000, wang = 0;
+        Set<String> distinct = new HashSet<>();
+        char[] buf = new char[corpus.maxLength()];
+        for (int i = 0; i < n; i++) {
+            int len = corpus.name(random, buf, 0);
+            assertTrue(len >= 2 && len <= corpus.maxLength());
+            String name = new String(buf, 0, len);
+            if (name.charAt(0) == '王') wang++;
+            distinct.add(name);
+        }
+        // 王姓权重 7.25，词表权重合计 87.9
+        assertEquals(7.25 / 87.9, wang / (double) n, 0.004);
+        assertTrue(distinct.size() > n / 2, "不同姓名数: " + distinct.size());
+    }
+
+    @Test
+    void loadsReplacementFiles() throws Exception {
+        Files.write(dir.resolve(NameCorpus.SURNAMES), "# 测试\n欧阳,1\n".getBytes(StandardCharsets.UTF_8));
+        NameCorpus corpus = NameCorpus.load(dir);
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 1000; i++) {
+            String name = corpus.name(random);
+            assertTrue(name.startsWith("欧阳") && name.length() >= 3 && name.length() <= 4, name);
+        }
+        Files.write(dir.resolve(NameCorpus.GIVEN_CHARS), "伟,abc\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> NameCorpus.load(dir));
+    }
+
+    @Test
+    void loadedCorpusReachesGeneratedRecords() throws Exception {
+        Files.write(dir.resolve(NameCorpus.SURNAMES), "欧阳,1\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve(AddressCorpus.COMMUNITIES), "测试小区,1\n".getBytes(StandardCharsets.UTF_8));
+        NameCorpus names = NameCorpus.load(dir);
+        AddressCorpus addresses = AddressCorpus.load(dir);
+        LocalDate from = LocalDate.of(1980, 1, 1), to = LocalDate.of(1999, 12, 31);
+
+        IdentityRecords records = new IdentityRecords(List.of("4401"), from, to, 0.5, 1L, names, addresses);
+        RecordGenerator generator = new RecordGenerator(new BatchGenerator(List.of("4401"), from, to, 0.5, 1L), 2L, names, addresses);
+        for (int i = 0; i < 200; i++) {
+            for (IdentityRecord r : new IdentityRecord[]{records.get(i), generator.next()}) {
+                assertTrue(r.getName().startsWith("欧阳"), r.getName());
+                assertTrue(r.getAddress().contains("测试小区"), r.getAddress());
+            }
+        }
+
+        String json = "{\"count\": 200, \"seed\": 3, \"fields\": [\"name\", \"address\"], \"regions\": [\"4401\"], \"corpus\": \"corpus\"}";
+        Path sub = Files.createDirectories(dir.resolve("spec").resolve("corpus"));
+        Files.copy(dir.resolve(NameCorpus.SURNAMES), sub.resolve(NameCorpus.SURNAMES));
+        Files.copy(dir.resolve(AddressCorpus.COMMUNITIES), sub.resolve(AddressCorpus.COMMUNITIES));
+        Path specFile = Files.writeString(dir.resolve("spec").resolve("spec.json"), json);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DatasetSpec.load(specFile).compile().writeTo(out);  // corpus 相对描述文件所在目录
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(201, lines.length);
+        for (int i = 1; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith("欧阳") && lines[i].contains("测试小区"), lines[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> DatasetSpec.parse(json.replace("\"corpus\"}", "\"不存在\"}")));
+    }
+}
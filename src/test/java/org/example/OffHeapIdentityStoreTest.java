@@ -0,0 +1,108 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 堆外记录存储：字段与 IdentityRecords 一致、按号码查找、多段寻址、文件复用与映像导出。
+ */
+public class OffHeapIdentityStoreTest {
+    private final IdentityRecords records =
+            new IdentityRecords(List.of("4401", "110103"), LocalDate.of(1980, 1, 1), LocalDate.of(2005, 12, 31), 0.5, 31L);
+    private final RegionIndex regions = AddressCodeUtil.regionIndex();
+
+    @Test
+    void matchesIdentityRecords() {
+        // 4 KB 一段：每段 128 条记录、1024 个索引槽，覆盖跨段寻址
+        OffHeapIdentityStore store = OffHeapIdentityStore.allocate(5000, regions, 12);
+        store.fill(records, 3000);
+        store.fill(records, 2000);
+        assertEquals(5000, store.size());
+        for (long i = 0; i < 5000; i += 7) {
+            IdentityRecord r = records.get(i);
+            String id = r.getId();
+            assertEquals(id, store.id(i));
+            assertEquals(r.getName(), store.name(i));
+            assertEquals(LocalDate.of(Integer.parseInt(id.substring(6, 10)), Integer.parseInt(id.substring(10, 12)),
+                    Integer.parseInt(id.substring(12, 14))), store.birthDate(i));
+            assertEquals((id.charAt(16) - '0') % 2 == 1, store.isMale(i));
+            assertEquals(Integer.parseInt(id.substring(0, 6)), store.addressCode(i));
+            int d = store.districtIndex(i);
+            String[] parts = RecordGenerator.addressParts(regions, d);
+            assertTrue(r.getAddress().startsWith(parts[0] + parts[1] + parts[2]), r.getAddress());
+            long found = store.find(id);
+            assertTrue(found >= 0 && found <= i);
+            assertEquals(id, store.id(found));
+        }
+        assertEquals(-1, store.find("110101199001011234"));
+        assertEquals(-1, store.find("12345"));
+        assertThrows(IllegalStateException.class, () -> store.fill(records, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.id(5000));
+    }
+
+    @Test
+    void appendsAndKeepsFirstDuplicate() {
+        OffHeapIdentityStore store = OffHeapIdentityStore.allocate(10);
+        String id = IdNumberUtil.generateIdNumber("440106", "19900615", true, "123");
+        long name = NameCorpus.defaults().sample(new SplittableRandom(1));
+        assertEquals(0, store.append(id, name));
+        assertEquals(1, store.append(id, name));
+        assertEquals(0, store.find(id));
+        assertEquals(NameCorpus.defaults().name(new SplittableRandom(1)), store.name(1));
+        assertEquals(regions.districtIndexOf(440106), store.districtIndex(0));
+
+        String x = IdNumberUtil.generateIdNumber("440106", "19900615", true, null);
+        while (x.charAt(17) != 'X') x = IdNumberUtil.generateIdNumber("440106", "19900615", true, null);
+        long xi = store.append(x.substring(0, 17) + "x", name);
+        assertEquals(x, store.id(xi));
+        assertEquals(xi, store.find(x.substring(0, 17) + "x"));
+        assertThrows(IllegalArgumentException.class, () -> store.append("44010619901315123X", name));
+        // 已撤并的代码按沿革取当前区县，与 fill 一致
+        long old = store.append(IdNumberUtil.generateIdNumber("440102", "19900615", true, "123"), name);
+        assertEquals(RegionHistory.defaults().resolve(regions, 440102), store.districtIndex(old));
+        assertTrue(store.districtIndex(old) >= 0);
+    }
+
+    @Test
+    void reopensFileAndExportsImage(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("ids.store");
+        try (OffHeapIdentityStore store = OffHeapIdentityStore.create(file, 4000, regions, 12)) {
+            store.fill(records, 4000);
+        }
+        Path copy = dir.resolve("copy.store");
+        try (OffHeapIdentityStore store = OffHeapIdentityStore.open(file, regions, 12);
+             FileChannel out = FileChannel.open(copy, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            assertEquals(4000, store.size());
+            assertEquals(records.get(3999).getId(), store.id(3999));
+            assertEquals(3999, store.find(records.get(3999).getId()));
+            assertThrows(IllegalStateException.class, () -> store.fill(records, 1));
+            assertEquals(store.byteSize(), store.transferTo(out));
+        }
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+
+        // 直接内存存储导出的映像同样可以映射
+        OffHeapIdentityStore direct = OffHeapIdentityStore.allocate(4000, regions, 12);
+        direct.fill(records, 4000);
+        Path image = dir.resolve("direct.store");
+        try (FileChannel out = FileChannel.open(image, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            direct.transferTo(out);
+        }
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(image));
+        try (OffHeapIdentityStore store = OffHeapIdentityStore.open(image)) {
+            assertEquals(records.get(1234).getName(), store.name(1234));
+        }
+        Files.write(dir.resolve("bad.store"), new byte[100]);
+        assertThrows(IOException.class, () -> OffHeapIdentityStore.open(dir.resolve("bad.store")));
+    }
+}
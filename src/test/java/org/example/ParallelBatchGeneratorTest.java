@@ -0,0 +1,53 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多线程批量生成：同一主种子下输出与线程数无关（含人口加权与排除名单），条数完整且排除名单生效。
+ */
+public class ParallelBatchGeneratorTest {
+    @TempDir
+    Path dir;
+
+    private static byte[] run(BatchGenerator template, int threads, long count) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(count, new ParallelBatchGenerator(template, threads, 1000).generate(count, 99L, out));
+        return out.toByteArray();
+    }
+
+    @Test
+    void outputDoesNotDependOnThreadCount() throws IOException {
+        Path list = dir.resolve("exclude.txt");
+        Files.write(list, List.of("440106", "440103198501011"), StandardCharsets.UTF_8);
+        LocalDate from = LocalDate.of(1980, 1, 1), to = LocalDate.of(2005, 12, 31);
+        BatchGenerator plain = new BatchGenerator(List.of("44", "1101"), from, to, 0.5, 1L);
+        try (ExclusionFilter filter = ExclusionFilter.load(list)) {
+            BatchGenerator weighted = plain.weighted(PopulationModel.defaults(), LocalDate.of(2024, 1, 1));
+            for (BatchGenerator template : new BatchGenerator[]{plain, weighted, plain.excluding(filter), weighted.excluding(filter)}) {
+                long count = 10_500;  // 11 块，最后一块不满
+                byte[] single = run(template, 1, count);
+                String[] lines = new String(single, StandardCharsets.US_ASCII).split("\n");
+                assertEquals(count, lines.length);
+                for (String id : lines) assertTrue(IdNumberUtil.isValidIdNumber(id), id);
+                int threads = Math.max(3, Runtime.getRuntime().availableProcessors());
+                assertArrayEquals(single, run(template, 2, count));
+                assertArrayEquals(single, run(template, threads, count));
+            }
+            // 排除名单生效
+            for (String id : new String(run(plain.excluding(filter), 4, 5000), StandardCharsets.US_ASCII).split("\n")) {
+                assertFalse(id.startsWith("440106") || id.startsWith("440103198501011"), id);
+            }
+        }
+    }
+}
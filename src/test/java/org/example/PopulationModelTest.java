@@ -0,0 +1,97 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 人口模型：权重按最具体条目分配，加权生成的分布接近模型。
+ */
+public class PopulationModelTest {
+
+    @Test
+    void mostSpecificEntryWins() throws IOException {
+        Map<Integer, Double> regions = PopulationModel.readRegionWeights(new StringReader(
+                "# 注释\n440000,100\n440100,30\n440106,5\n"));
+        PopulationModel model = new PopulationModel(regions, new double[PopulationModel.MAX_AGE + 1]);
+        RegionIndex index = AddressCodeUtil.regionIndex();
+        int[] codes = index.districtCodes(List.of("44", "11"));
+        double[] w = model.districtWeights(index, codes);
+        double guangzhou = 0, guangdong = 0, beijing = 0;
+        int guangzhouCount = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] == 440106) assertEquals(5, w[i], 1e-9);
+            else if (codes[i] / 100 == 4401) { guangzhou += w[i]; guangzhouCount++; }
+            else if (codes[i] / 10000 == 44) guangdong += w[i];
+            else beijing += w[i];
+        }
+        assertEquals(30, guangzhou, 1e-9);
+        assertTrue(guangzhouCount > 1);
+        assertEquals(100, guangdong, 1e-9);
+        assertEquals(0, beijing);
+    }
+
+    @Test
+    void sharesCountEveryCoveredDistrict() throws IOException {
+        Map<Integer, Double> regions = PopulationModel.readRegionWeights(new StringReader("440000,100\n110000,50\n"));
+        PopulationModel model = new PopulationModel(regions, new double[PopulationModel.MAX_AGE + 1]);
+        RegionIndex index = AddressCodeUtil.regionIndex();
+        // 广东只有省级权重：只选广州时广州各区只分得其中按区县数折算的一份，而不是整个广东的权重
+        int[] codes = index.districtCodes(List.of("11", "4401"));
+        int guangdongCount = index.districtCodes(List.of("44")).length, guangzhouCount = 0;
+        double[] w = model.districtWeights(index, codes);
+        double guangzhou = 0, beijing = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] / 10000 == 44) { guangzhou += w[i]; guangzhouCount++; }
+            else beijing += w[i];
+        }
+        assertEquals(100.0 * guangzhouCount / guangdongCount, guangzhou, 1e-9);
+        assertEquals(50, beijing, 1e-9);
+        // 重复出现的代码（如并入同一区县的历史代码）不摊薄其他区县
+        int[] twice = {440106, 440106, 440103};
+        double[] tw = model.districtWeights(index, twice);
+        assertEquals(100.0 / guangdongCount, tw[0], 1e-9);
+        assertEquals(tw[0], tw[1], 1e-9);
+        assertEquals(tw[0], tw[2], 1e-9);
+    }
+
+    @Test
+    void ageRangesSpreadEvenly() throws IOException {
+        double[] ages = PopulationModel.readAgeWeights(new StringReader("0-4,50\n30,7\n"));
+        assertEquals(10, ages[0], 1e-9);
+        assertEquals(10, ages[4], 1e-9);
+        assertEquals(7, ages[30], 1e-9);
+        assertEquals(0, ages[31]);
+        assertThrows(IOException.class, () -> PopulationModel.readAgeWeights(new StringReader("5-3,1\n")));
+        assertThrows(IOException.class, () -> PopulationModel.readRegionWeights(new StringReader("44,1\n")));
+    }
+
+    @Test
+    void weightedGeneratorFollowsModel() {
+        PopulationModel model = PopulationModel.defaults();
+        LocalDate ref = LocalDate.of(2020, 11, 1);
+        BatchGenerator g = new BatchGenerator(null, LocalDate.of(1920, 11, 2), ref, 0.5, 1L).weighted(model, ref);
+        int n = 200_000, guangdong = 0, tibet = 0, age30to34 = 0;
+        IdNumberValidator.ParsedId parsed = new IdNumberValidator.ParsedId();
+        IdNumberValidator validator = IdNumberValidator.defaultValidator();
+        for (int i = 0; i < n; i++) {
+            assertEquals(IdNumberValidator.VALID, validator.parse(g.next(), parsed));
+            int province = parsed.addressCode() / 10000;
+            if (province == 44) guangdong++;
+            if (province == 54) tibet++;
+            int age = (int) ChronoUnit.YEARS.between(parsed.birthDate(), ref);
+            if (age >= 30 && age <= 34) age30to34++;
+        }
+        // 第七次人口普查：广东约 8.9%，西藏约 0.26%，30-34 岁约 8.8%
+        assertEquals(0.089, guangdong / (double) n, 0.004);
+        assertEquals(0.0026, tibet / (double) n, 0.001);
+        assertEquals(0.088, age30to34 / (double) n, 0.004);
+    }
+}
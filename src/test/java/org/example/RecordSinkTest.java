@@ -0,0 +1,118 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 各输出格式的转义与往返：CSV 引号、JSON 控制字符、COPY 反斜杠、列存多行组与 gzip。
+ */
+public class RecordSinkTest {
+    @TempDir
+    Path dir;
+
+    private static final IdentityRecord PLAIN = new IdentityRecord("11010119900307001X", "张三", "北京市东城区中山路1号", "2015.01.01-2035.01.01");
+    private static final IdentityRecord TRICKY = new IdentityRecord("440106199006151234", "O\"Neil, 李\t四", "第一行\n第二行\\𠀀", null);
+
+    private static String write(String format, IdentityRecord... records) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RecordSink sink = RecordSink.create(format, Channels.newChannel(out))) {
+            for (IdentityRecord r : records) sink.write(r);
+            assertEquals(records.length, sink.count());
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csvQuotesWhenNeeded() throws Exception {
+        assertEquals("id,name,address,valid_period\n"
+                + "11010119900307001X,张三,北京市东城区中山路1号,2015.01.01-2035.01.01\n"
+                + "440106199006151234,\"O\"\"Neil, 李\t四\",\"第一行\n第二行\\𠀀\",\n",
+                write("csv", PLAIN, TRICKY));
+    }
+
+    @Test
+    void jsonlParsesBack() throws Exception {
+        String[] lines = write("jsonl", PLAIN, TRICKY).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode n = new ObjectMapper().readTree(lines[1]);
+        assertEquals(TRICKY.getId(), n.get("id").asText());
+        assertEquals(TRICKY.getName(), n.get("name").asText());
+        assertEquals(TRICKY.getAddress(), n.get("address").asText());
+        assertTrue(n.get("validPeriod").isNull());
+    }
+
+    @Test
+    void pgCopyEscapes() throws Exception {
+        assertEquals("440106199006151234\tO\"Neil, 李\\t四\t第一行\\n第二行\\\\𠀀\t\\N\n", write("pgcopy", TRICKY));
+    }
+
+    @Test
+    void columnarRoundTripWithGzip() throws Exception {
+        RecordGenerator g = new RecordGenerator(List.of("44"), LocalDate.of(1980, 1, 1), LocalDate.of(1999, 12, 31), 0.5, 5L);
+        List<IdentityRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) expected.add(g.next());
+        expected.add(TRICKY);
+
+        Path file = dir.resolve("records.bin");
+        try (RecordSink sink = new ColumnarRecordSink(Channels.newChannel(new GZIPOutputStream(Files.newOutputStream(file))), 1000)) {
+            for (IdentityRecord r : expected) sink.write(r);
+        }
+        List<IdentityRecord> actual = new ArrayList<>();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(expected.size(), ColumnarRecordSink.read(in, actual::add));
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            IdentityRecord e = expected.get(i), a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getAddress(), a.getAddress());
+            assertEquals(e.getValidPeriod() == null ? "" : e.getValidPeriod(), a.getValidPeriod());
+        }
+    }
+
+    @Test
+    void openWritesGzipFile() throws Exception {
+        Path file = dir.resolve("records.csv.gz");
+        RecordGenerator g = new RecordGenerator(null, LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31), 0.5, 9L);
+        try (RecordSink sink = RecordSink.open("csv", file, true)) {
+            g.writeTo(sink, 100);
+        }
+        byte[] text;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            text = in.readAllBytes();
+        }
+        String[] lines = new String(text, StandardCharsets.UTF_8).split("\n");
+        assertEquals(101, lines.length);
+        String id = lines[1].substring(0, 18);
+        assertTrue(IdNumberUtil.isValidIdNumber(id));
+        assertThrows(IllegalArgumentException.class, () -> RecordSink.open("xml", dir.resolve("x"), false));
+    }
+
+    @Test
+    void generatorIsDeterministic() {
+        RecordGenerator a = new RecordGenerator(List.of("4401"), LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31), 0.5, 3L);
+        RecordGenerator b = new RecordGenerator(List.of("4401"), LocalDate.of(1990, 1, 1), LocalDate.of(1990, 12, 31), 0.5, 3L);
+        for (int i = 0; i < 100; i++) {
+            IdentityRecord x = a.next(), y = b.next();
+            assertEquals(x.toString(), y.toString());
+            assertTrue(x.getAddress().startsWith("广东省广州市"), x.getAddress());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 区划代码有效期：区间查询、按出生日期生成与校验。
+ */
+public class RegionHistoryTest {
+
+    @Test
+    void looksUpIntervals() throws IOException {
+        RegionHistory h = RegionHistory.read(new StringReader("# 注释\n"
+                + "990101,旧区,,2005-04-28,990102\n"
+                + "990103,新区,2010-01-01,,990102\n"
+                + "990104,复用区,,2000-01-01,\n"
+                + "990104,复用区二,2010-01-01,\n"));
+        assertEquals(3, h.size());
+        assertTrue(h.isInEffect(990101, 20050427));
+        assertFalse(h.isInEffect(990101, 20050428));
+        assertFalse(h.isInEffect(990103, 20091231));
+        assertTrue(h.isInEffect(990103, 20100101));
+        assertTrue(h.isInEffect(990102, 19000101));  // 无记录视为始终有效
+        assertEquals("复用区", h.name(990104, 19991231));
+        assertNull(h.name(990104, 20050101));
+        assertEquals("复用区二", h.name(990104, 20200101));
+        assertEquals(990102, h.codeAt(990101, 20060101));  // 撤销后取并入的代码
+        assertEquals(990102, h.codeAt(990103, 20000101));  // 设立前取此前所属的代码
+        assertEquals(990103, h.codeAt(990103, 20100101));
+        assertEquals(990104, h.codeAt(990104, 20050101));  // 无关联代码时原样返回
+        assertThrows(IOException.class, () -> RegionHistory.read(new StringReader("990101,旧区,2005-01-01,2004-01-01\n")));
+        assertThrows(IOException.class, () -> RegionHistory.read(new StringReader("990101,旧区,2005-13-01,\n")));
+    }
+
+    @Test
+    void validatorChecksCodeAtBirthDate() {
+        IdNumberValidator v = IdNumberValidator.defaultValidator();
+        // 崇文区 110103 于 2010-07 并入东城区
+        assertEquals(IdNumberValidator.VALID, v.validate(IdNumberUtil.generateIdNumber("110103", "19900615", true, "123")));
+        assertEquals(IdNumberValidator.REGION_NOT_IN_EFFECT, v.validate(IdNumberUtil.generateIdNumber("110103", "20120615", true, "123")));
+        // 龙华区 440309 于 2016 年设立
+        assertEquals(IdNumberValidator.REGION_NOT_IN_EFFECT, v.validate(IdNumberUtil.generateIdNumber("440309", "19900615", true, "123")));
+        assertEquals(IdNumberValidator.VALID, v.validate(IdNumberUtil.generateIdNumber("440309", "20170615", true, "123")));
+        IdNumberValidator plain = new IdNumberValidator(AddressCodeUtil.regionIndex());
+        assertEquals(IdNumberValidator.UNKNOWN_REGION, plain.validate(IdNumberUtil.generateIdNumber("110103", "19900615", true, "123")));
+    }
+
+    @Test
+    void mapsCodesToTheirCodeAtBirthDate() {
+        RegionHistory h = RegionHistory.defaults();
+        assertEquals(110223, h.codeAt(110112, 19900615));  // 通州区设区前为通县
+        assertEquals(110112, h.codeAt(110112, 20000615));
+        assertEquals(110101, h.codeAt(110103, 20120615));  // 崇文区并入东城区
+        assertEquals(310115, h.codeAt(310119, 20100101));  // 南汇区并入浦东新区
+        assertEquals(440106, h.codeAt(440106, 19900615));
+        RegionIndex regions = AddressCodeUtil.regionIndex();
+        assertEquals(-1, h.resolve(regions, 990101));
+        assertEquals(-1, h.resolveNearest(regions, 990101));
+        int d = h.resolveNearest(regions, 440199);  // 不存在的区县退回同市
+        assertEquals(4401, regions.districtCode(d) / 100);
+    }
+
+    @Test
+    void uniqueGeneratorUsesCodesValidAtBirthDate() {
+        IdNumberValidator v = IdNumberValidator.defaultValidator();
+        UniqueIdGenerator u = new UniqueIdGenerator(List.of("1101"), LocalDate.of(1985, 1, 1), LocalDate.of(1990, 12, 31), 0.5, 3L);
+        byte[] buf = new byte[18];
+        for (int i = 0; i < 20000; i++) {
+            u.next(buf, 0);
+            String id = new String(buf, java.nio.charset.StandardCharsets.US_ASCII);
+            assertEquals(IdNumberValidator.VALID, v.validate(id), id);
+        }
+        // 1997 年前只有通县，之后只有通州区：两段合起来即通州一带的号码空间
+        LocalDate from = LocalDate.of(1997, 4, 28), to = LocalDate.of(1997, 4, 29);
+        UniqueIdGenerator tongzhou = new UniqueIdGenerator(List.of("110112"), from, to, 1.0, 5L);
+        assertEquals(2 * 500, tongzhou.capacity());
+        java.util.Set<String> ids = new java.util.HashSet<>();
+        for (int i = 0; i < tongzhou.capacity(); i++) {
+            tongzhou.next(buf, 0);
+            String id = new String(buf, java.nio.charset.StandardCharsets.US_ASCII);
+            assertTrue(ids.add(id), id);
+            assertEquals(id.startsWith("110223") ? "19970428" : "19970429", id.substring(6, 14), id);
+        }
+    }
+
+    @Test
+    void generatesCodesValidAtBirthDate() {
+        IdNumberValidator v = IdNumberValidator.defaultValidator();
+        RegionHistory h = RegionHistory.defaults();
+        BatchGenerator g = new BatchGenerator(List.of("1101", "4401", "440309"), LocalDate.of(1985, 1, 1), LocalDate.of(2020, 12, 31), 0.5, 3L);
+        boolean sawOld = false, sawNew = false;
+        for (int i = 0; i < 20000; i++) {
+            String id = g.next();
+            int code = Integer.parseInt(id.substring(0, 6));
+            int birth = Integer.parseInt(id.substring(6, 14));
+            assertTrue(h.isInEffect(code, birth), id);
+            assertEquals(IdNumberValidator.VALID, v.validate(id), id);
+            sawOld |= code == 110103 || code == 440102;
+            sawNew |= code == 440309;
+            if (code == 440306) assertTrue(birth < 20161011, "宝安区只作为龙华区设立前的代码出现: " + id);
+        }
+        assertTrue(sawOld && sawNew);
+
+        BatchGenerator weighted = g.weighted(PopulationModel.defaults(), LocalDate.of(2024, 1, 1));
+        for (int i = 0; i < 5000; i++) {
+            String id = weighted.next();
+            assertEquals(IdNumberValidator.VALID, v.validate(id), id);
+        }
+        RecordGenerator records = new RecordGenerator(g, 5L);
+        for (int i = 0; i < 2000; i++) assertNotNull(records.next().getAddress());
+
+        BatchGenerator plain = new BatchGenerator(List.of("1101"), LocalDate.of(1985, 1, 1), LocalDate.of(1990, 1, 1), 0.5, 3L, RegionHistory.NONE);
+        for (int i = 0; i < 1000; i++) assertTrue(AddressCodeUtil.regionIndex().districtIndexOf(Integer.parseInt(plain.next().substring(0, 6))) >= 0);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 区划索引需与 AddressCodeUtil 的三级映射一一对应。
+ */
+public class RegionIndexTest {
+
+    @Test
+    void matchesAddressCodeMaps() {
+        RegionIndex index = AddressCodeUtil.regionIndex();
+        assertEquals(AddressCodeUtil.PROVINCES.size(), index.provinceCount());
+        for (Map.Entry<String, String> pe : AddressCodeUtil.PROVINCES.entrySet()) {
+            int p = index.provinceIndexOf(Integer.parseInt(pe.getKey()));
+            assertTrue(p >= 0, pe.getKey());
+            assertEquals(pe.getValue(), index.provinceName(p));
+            Map<String, String> cities = AddressCodeUtil.CITIES.get(pe.getKey());
+            assertEquals(cities.size(), index.endCity(p) - index.firstCity(p));
+            for (Map.Entry<String, String> ce : cities.entrySet()) {
+                int c = index.cityIndexOf(Integer.parseInt(ce.getKey()));
+                assertEquals(p, index.cityProvince(c));
+                assertEquals(ce.getValue(), index.cityName(c));
+                Map<String, String> districts = AddressCodeUtil.DISTRICTS.get(ce.getKey());
+                int expected = districts.isEmpty() ? 1 : districts.size();
+                assertEquals(expected, index.endDistrict(c) - index.firstDistrict(c), ce.getKey());
+                for (int d = index.firstDistrict(c); d < index.endDistrict(c); d++) {
+                    assertEquals(c, index.districtCity(d));
+                    String code = String.valueOf(index.districtCode(d));
+                    String name = districts.isEmpty() ? ce.getValue() : districts.get(code);
+                    assertEquals(name, index.districtName(d));
+                    assertEquals(code, AddressCodeUtil.getFullAddressCode(pe.getValue(), ce.getValue(), name));
+                }
+            }
+        }
+    }
+
+    @Test
+    void prefixFilter() {
+        RegionIndex index = AddressCodeUtil.regionIndex();
+        int[] gz = index.districtCodes(List.of("4401", "440106", "9"));
+        assertTrue(gz.length > 0);
+        for (int code : gz) assertEquals(4401, code / 100);
+        assertEquals(index.districtCount(), index.districtCodes(null).length);
+        assertEquals(0, index.districtCodes(List.of("abc")).length);
+    }
+}
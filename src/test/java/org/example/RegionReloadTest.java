@@ -0,0 +1,94 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 区划数据热加载：整体替换快照、失败时保留原数据、文件监视。
+ */
+public class RegionReloadTest {
+    private static final String ONE_PROVINCE = "{\"provinces\":[{\"name\":\"测试省\",\"code\":\"990000\",\"cities\":["
+            + "{\"name\":\"甲市\",\"code\":\"990100\",\"districts\":[{\"name\":\"乙区\",\"code\":\"990101\"}]}]}]}";
+
+    @Test
+    void swapsWholeSnapshot(@TempDir Path dir) throws IOException {
+        RegionModel before = AddressCodeUtil.snapshot();
+        Map<String, String> provinces = AddressCodeUtil.PROVINCES;
+        Path json = dir.resolve("regions.json");
+        Files.writeString(json, ONE_PROVINCE);
+        try {
+            RegionModel m = AddressCodeUtil.load(json);
+            assertSame(m, AddressCodeUtil.snapshot());
+            assertEquals(1, provinces.size());  // 旧字段是转发到当前快照的视图
+            assertEquals("990101", AddressCodeUtil.getFullAddressCode("测试省", "甲市", "乙区"));
+            assertEquals("990101", AddressCodeUtil.getAddressCodeByPath("测试省甲市乙区"));
+            assertEquals(1, AddressCodeUtil.regionIndex().districtCount());
+            assertNull(AddressCodeUtil.getProvinceCode("广东省"));
+            // 旧快照不受影响
+            assertEquals("110101", before.districtCode(before.cityCode("110000", "北京市市辖区"), "东城区"));
+            assertThrows(UnsupportedOperationException.class, () -> provinces.put("1", "x"));
+        } finally {
+            AddressCodeUtil.load();
+        }
+        assertEquals(before.provinces(), AddressCodeUtil.PROVINCES);
+    }
+
+    @Test
+    void keepsCurrentDataOnBadFile(@TempDir Path dir) throws IOException {
+        RegionModel before = AddressCodeUtil.snapshot();
+        Path broken = dir.resolve("broken.json");
+        Files.writeString(broken, "{\"provinces\":[{\"name\":");
+        assertThrows(IOException.class, () -> AddressCodeUtil.load(broken));
+        Path empty = dir.resolve("empty.json");
+        Files.writeString(empty, "{\"provinces\":[]}");
+        assertThrows(IOException.class, () -> AddressCodeUtil.load(empty));
+        Path bin = dir.resolve("bad.bin");
+        Files.write(bin, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> AddressCodeUtil.load(bin));
+        assertSame(before, AddressCodeUtil.snapshot());
+    }
+
+    @Test
+    void watcherReloadsChangedFile(@TempDir Path dir) throws Exception {
+        Path json = dir.resolve("regions.json");
+        Files.writeString(json, ONE_PROVINCE);
+        AtomicReference<RegionModel> last = new AtomicReference<>();
+        AtomicReference<IOException> error = new AtomicReference<>();
+        RegionWatcher watcher = new RegionWatcher(json, 50, last::set, error::set);
+        try {
+            assertEquals("990000", AddressCodeUtil.getProvinceCode("测试省"));
+            RegionModel first = last.get();
+            Files.writeString(json, ONE_PROVINCE.replace("测试省", "改名省"));
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (AddressCodeUtil.getProvinceCode("改名省") == null && System.currentTimeMillis() < deadline) Thread.sleep(50);
+            assertEquals("990000", AddressCodeUtil.getProvinceCode("改名省"));
+            assertNotSame(first, last.get());
+
+            // 内容为 null 或结构不完整时只报告错误，监视继续
+            for (String bad : new String[]{"null", "{\"provinces\":[{\"name\":\"坏省\",\"cities\":[{}]}]}"}) {
+                error.set(null);
+                Files.writeString(json, bad);
+                deadline = System.currentTimeMillis() + 20_000;
+                while (error.get() == null && System.currentTimeMillis() < deadline) Thread.sleep(50);
+                assertNotNull(error.get(), bad);
+                assertEquals("990000", AddressCodeUtil.getProvinceCode("改名省"));
+            }
+            Files.writeString(json, ONE_PROVINCE.replace("测试省", "恢复省"));
+            deadline = System.currentTimeMillis() + 20_000;
+            while (AddressCodeUtil.getProvinceCode("恢复省") == null && System.currentTimeMillis() < deadline) Thread.sleep(50);
+            assertEquals("990000", AddressCodeUtil.getProvinceCode("恢复省"));
+        } finally {
+            watcher.close();
+            AddressCodeUtil.load();
+        }
+        assertNotNull(AddressCodeUtil.getProvinceCode("广东省"));
+    }
+}
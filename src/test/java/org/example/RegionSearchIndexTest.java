@@ -0,0 +1,89 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 区县检索与下拉框模型：前缀/子串查找与排序、区间视图的事件数、按区县联动选中。
+ */
+public class RegionSearchIndexTest {
+    private final RegionIndex index = AddressCodeUtil.regionIndex();
+    private final RegionSearchIndex search = RegionSearchIndex.build(index);
+
+    @Test
+    void findsDistrictsByPrefixAndSubstring() {
+        int[] found = search.search("天河", 10);
+        assertTrue(found.length >= 1);
+        assertEquals(Integer.parseInt(AddressCodeUtil.getAddressCodeByPath("广东省广州市天河区")), index.districtCode(found[0]));
+
+        assertEquals(List.of("广东省广州市天河区"), search.searchTexts("广州市天河", 10));
+        assertEquals(search.searchTexts("天河区", 10), search.searchTexts(" 天河区 ", 10));
+        assertTrue(search.searchTexts("东莞", 10).contains("广东省东莞市"));
+        assertEquals(0, search.search("不存在的地名", 10).length);
+        assertEquals(0, search.search("", 10).length);
+
+        // 区名以查询串开头的排在只包含查询串的之前
+        int[] dong = search.search("东", 500);
+        boolean seenNonPrefix = false;
+        for (int d : dong) {
+            String name = search.text(d);
+            assertTrue(name.contains("东"), name);
+            int c = index.districtCity(d);
+            boolean prefix = (index.districtCode(d) == index.cityCode(c) ? index.cityName(c) : index.districtName(d)).startsWith("东");
+            if (!prefix) seenNonPrefix = true;
+            else assertFalse(seenNonPrefix, "前缀匹配应排在前面: " + name);
+        }
+        assertEquals(5, search.search("东", 5).length);
+    }
+
+    @Test
+    void matchesLinearScan() {
+        for (String q : new String[]{"西", "新区", "自治", "城区", "山县", "市辖区"}) {
+            int expected = 0;
+            for (int d = 0; d < index.districtCount(); d++) if (search.text(d).contains(q)) expected++;
+            assertEquals(expected, search.search(q, Integer.MAX_VALUE).length, q);
+        }
+    }
+
+    @Test
+    void comboModelFiresOneEventPerRange() {
+        RegionComboModel model = new RegionComboModel(index, RegionComboModel.Level.CITY);
+        AtomicInteger events = new AtomicInteger();
+        model.addListDataListener(new ListDataListener() {
+            @Override public void intervalAdded(ListDataEvent e) { events.incrementAndGet(); }
+            @Override public void intervalRemoved(ListDataEvent e) { events.incrementAndGet(); }
+            @Override public void contentsChanged(ListDataEvent e) { events.incrementAndGet(); }
+        });
+        int p = index.provinceIndexOf(440000);
+        model.setRange(index.firstCity(p), index.endCity(p));
+        assertEquals(1, events.get());
+        assertEquals(index.endCity(p) - index.firstCity(p), model.getSize());
+        assertEquals(index.cityName(index.firstCity(p)), model.getSelectedItem());
+        model.setSelectedItem("深圳市");
+        assertEquals("深圳市", model.getSelectedItem());
+        assertEquals(440300, index.cityCode(model.selectedIndex()));
+        model.setSelectedItem("北京市");  // 不在区间内，忽略
+        assertEquals("深圳市", model.getSelectedItem());
+        model.setRange(0, 0);
+        assertNull(model.getSelectedItem());
+        assertEquals(0, model.getSize());
+    }
+
+    @Test
+    void panelJumpsToDistrict() {
+        RegionSelectorPanel panel = new RegionSelectorPanel(null);
+        int d = index.districtIndexOf(440106);
+        panel.selectDistrict(d);
+        assertEquals("440106", AddressCodeUtil.getFullAddressCode(panel.getProvinceName(), panel.getCityName(), panel.getDistrictName()));
+        panel.selectDistrict(index.districtIndexOf(441900));  // 东莞市：不设区
+        assertEquals("东莞市", panel.getCityName());
+        assertNull(panel.getDistrictName());
+        assertEquals("441900", AddressCodeUtil.getFullAddressCode(panel.getProvinceName(), panel.getCityName(), panel.getDistrictName()));
+    }
+}
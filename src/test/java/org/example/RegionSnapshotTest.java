@@ -0,0 +1,46 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二进制快照需与 output.json 的内容及顺序完全一致。
+ */
+public class RegionSnapshotTest {
+
+    @Test
+    void roundTripMatchesJson() throws Exception {
+        AddressCodeUtil.Root json = AddressCodeUtil.readJson();
+        assertNotNull(json);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RegionSnapshot.write(json, out);
+        AddressCodeUtil.Root snap = RegionSnapshot.read(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals(json.provinces.size(), snap.provinces.size());
+        for (int p = 0; p < json.provinces.size(); p++) {
+            AddressCodeUtil.Province jp = json.provinces.get(p), sp = snap.provinces.get(p);
+            assertEquals(jp.code, sp.code);
+            assertEquals(jp.name, sp.name);
+            assertEquals(jp.cities.size(), sp.cities.size());
+            for (int c = 0; c < jp.cities.size(); c++) {
+                AddressCodeUtil.City jc = jp.cities.get(c), sc = sp.cities.get(c);
+                assertEquals(jc.code, sc.code);
+                assertEquals(jc.name, sc.name);
+                assertEquals(jc.districts.size(), sc.districts.size());
+                for (int d = 0; d < jc.districts.size(); d++) {
+                    assertEquals(jc.districts.get(d).code, sc.districts.get(d).code);
+                    assertEquals(jc.districts.get(d).name, sc.districts.get(d).name);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsForeignData() {
+        assertThrows(java.io.IOException.class, () -> RegionSnapshot.read(ByteBuffer.wrap("{\"provinces\":[]}".getBytes())));
+    }
+}
@@ -0,0 +1,46 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 唯一模式：取尽整个号码空间也不出现重复，且空间耗尽时明确报错。
+ */
+public class UniqueIdGeneratorTest {
+
+    @Test
+    void permutationIsBijection() {
+        for (long size : new long[]{1, 2, 3, 1000, 4097}) {
+            IndexPermutation p = new IndexPermutation(size, 99);
+            boolean[] seen = new boolean[(int) size];
+            for (long i = 0; i < size; i++) {
+                long v = p.apply(i);
+                assertFalse(seen[(int) v], "重复输出 " + v);
+                seen[(int) v] = true;
+            }
+        }
+    }
+
+    @Test
+    void exhaustsSpaceWithoutDuplicates() {
+        LocalDate day = LocalDate.of(1990, 5, 1);
+        UniqueIdGenerator generator = new UniqueIdGenerator(List.of("110101"), day, day.plusDays(1), 1.0, 3L);
+        assertEquals(2 * 500, generator.capacity());
+        Set<String> ids = new HashSet<>();
+        byte[] buf = new byte[18];
+        for (int i = 0; i < generator.capacity(); i++) {
+            generator.next(buf, 0);
+            String id = new String(buf, StandardCharsets.US_ASCII);
+            assertTrue(ids.add(id), "重复号码 " + id);
+            assertEquals(IdNumberUtil.calculateCheckCode(id.substring(0, 17)), id.charAt(17));
+        }
+        assertThrows(IllegalStateException.class, () -> generator.next(buf, 0));
+    }
+}